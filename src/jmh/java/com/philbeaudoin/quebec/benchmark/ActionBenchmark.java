@@ -0,0 +1,92 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateUndoLog;
+
+/**
+ * Measures the execution of each type of action and the application of the resulting change, as
+ * done by the AI for every action it tries. The change is undone after each application so that
+ * every invocation starts from the same game state, the undo is included in the measure.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ActionBenchmark {
+
+  @Param({"ActionActivateCubes", "ActionEmptyTileToZone", "ActionExplicit", "ActionIncreaseStar",
+      "ActionMoveArchitect", "ActionMoveCubes", "ActionPerformScoringPhase", "ActionScorePoints",
+      "ActionSelectBoardAction", "ActionSendCubesToZone", "ActionSendWorkers",
+      "ActionTakeLeaderCard"})
+  public String actionType;
+
+  private GameControllerBasic gameController;
+  private GameState gameState;
+  private PossibleActions possibleActions;
+  private GameAction gameAction;
+
+  @Setup
+  public void setUp() {
+    // Use the first game state of the benchmark game in which that type of action is possible.
+    BenchmarkGame game = new BenchmarkGame(BenchmarkGame.SEED);
+    while (game.findPossibleAction(actionType) == null) {
+      if (game.isFinished()) {
+        throw new IllegalStateException(actionType + " never occurs in the benchmark game.");
+      }
+      game.playMove();
+    }
+    gameController = game.getGameController();
+    gameState = game.copyGameState();
+    gameState.setUndoLog(new GameStateUndoLog());
+    possibleActions = gameState.getPossibleActions();
+    gameAction = game.findPossibleAction(actionType);
+  }
+
+  @Benchmark
+  public GameState executeAndApply() {
+    GameStateChange gameStateChange = gameAction.execute(gameController, gameState);
+    gameState.setPossibleActions(null);
+    gameStateChange.apply(gameController, gameState);
+    gameStateChange.undo(gameController, gameState);
+    gameState.setPossibleActions(possibleActions);
+    return gameState;
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.player.AiBrainSimple;
+
+/**
+ * Measures the time taken by the AI to choose a move. The same brain is used throughout, but its
+ * transposition table is cleared before each invocation, so that no evaluation is cached from a
+ * previous invocation and the allocation of the table is not measured.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class AiBenchmark {
+
+  @Param({"40", "120", "200"})
+  public int nbMoves;
+
+  private GameControllerBasic gameController;
+  private GameState gameState;
+  private AiBrainSimple aiBrain;
+
+  @Setup
+  public void setUp() {
+    BenchmarkGame game = BenchmarkGame.afterMoves(BenchmarkGame.SEED, nbMoves);
+    gameController = game.getGameController();
+    gameState = game.copyGameState();
+    aiBrain = new AiBrainSimple(true);
+  }
+
+  @Setup(Level.Invocation)
+  public void clearTranspositionTable() {
+    aiBrain.clearTranspositionTable();
+  }
+
+  @Benchmark
+  public GameAction aiBrainSimpleGetMove() {
+    return aiBrain.getMove(gameController, gameState);
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.philbeaudoin.quebec.shared.PlayerColor;
+import com.philbeaudoin.quebec.shared.ScoringPhase;
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
+import com.philbeaudoin.quebec.shared.game.action.ActionPerformScoringPhase;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.state.JavaRandomShuffler;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+import com.philbeaudoin.quebec.shared.player.AiBrainSimple;
+import com.philbeaudoin.quebec.shared.player.Player;
+import com.philbeaudoin.quebec.shared.player.PlayerLocalAi;
+
+/**
+ * A reproducible four player game between {@link AiBrainSimple} brains, used to reach the game
+ * states measured by the benchmarks.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class BenchmarkGame {
+
+  // The seed of the games used by the benchmarks, every type of action occurs in that game.
+  static final long SEED = 3;
+
+  static final int NB_PLAYERS = 4;
+
+  private final GameControllerBasic gameController;
+  private final GameState gameState = new GameState();
+  private int nbMoves;
+
+  /**
+   * Sets up a new game.
+   * @param seed The seed used to shuffle the tiles.
+   */
+  public BenchmarkGame(long seed) {
+    gameController = new GameControllerBasic(new JavaRandomShuffler(seed));
+    List<Player> players = new ArrayList<Player>(NB_PLAYERS);
+    for (int i = 0; i < NB_PLAYERS; ++i) {
+      players.add(new PlayerLocalAi(PlayerColor.NORMAL[i], "Benchmark", new AiBrainSimple(true)));
+    }
+    gameController.initGame(gameState, players);
+  }
+
+  /**
+   * Sets up a new game and plays a number of moves, then the scoring phases if the game is being
+   * scored, so that a player has to choose a move.
+   * @param seed The seed used to shuffle the tiles.
+   * @param nbMoves The number of moves to play, the game stops earlier if it finishes.
+   * @return The game.
+   */
+  public static BenchmarkGame afterMoves(long seed, int nbMoves) {
+    BenchmarkGame game = new BenchmarkGame(seed);
+    while ((game.getNbMoves() < nbMoves || game.isScoring()) && !game.isFinished()) {
+      game.playMove();
+    }
+    return game;
+  }
+
+  public GameControllerBasic getGameController() {
+    return gameController;
+  }
+
+  public GameState getGameState() {
+    return gameState;
+  }
+
+  public int getNbMoves() {
+    return nbMoves;
+  }
+
+  /**
+   * @return True if the next action is a scoring phase.
+   */
+  public boolean isScoring() {
+    return gameState.getPossibleActions().getAction(0) instanceof ActionPerformScoringPhase;
+  }
+
+  /**
+   * @return True if the only thing left to do is to finish the game.
+   */
+  public boolean isFinished() {
+    GameAction gameAction = gameState.getPossibleActions().getAction(0);
+    return gameAction instanceof ActionPerformScoringPhase &&
+        ((ActionPerformScoringPhase) gameAction).getScoringPhase() == ScoringPhase.FINISH_GAME;
+  }
+
+  /**
+   * Plays the move of the current player, or the next scoring phase.
+   */
+  public void playMove() {
+    GameAction gameAction = gameState.getPossibleActions().getAction(0);
+    if (!(gameAction instanceof ActionPerformScoringPhase)) {
+      PlayerLocalAi player = (PlayerLocalAi) gameState.getCurrentPlayer().getPlayer();
+      gameAction = player.getMove(gameController, gameState);
+    }
+    GameStateChange gameStateChange = gameAction.execute(gameController, gameState);
+    gameState.setPossibleActions(null);
+    gameStateChange.apply(gameController, gameState);
+    nbMoves++;
+  }
+
+  /**
+   * Copies the current game state, including its possible actions.
+   * @return The copy.
+   */
+  public GameState copyGameState() {
+    GameState result = new GameState(gameState);
+    result.setPossibleActions(gameState.getPossibleActions());
+    return result;
+  }
+
+  /**
+   * Finds a possible action of a given type in the current game state.
+   * @param actionType The simple name of the class of the action.
+   * @return The first possible action of that type, or null if there is none.
+   */
+  public GameAction findPossibleAction(String actionType) {
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    for (int i = 0; i < possibleActions.getNbActions(); ++i) {
+      GameAction gameAction = possibleActions.getAction(i);
+      if (gameAction.getClass().getSimpleName().equals(actionType)) {
+        return gameAction;
+      }
+    }
+    return null;
+  }
+}
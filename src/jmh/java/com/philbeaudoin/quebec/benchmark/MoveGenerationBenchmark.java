@@ -0,0 +1,93 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.MoveBuffer;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+
+/**
+ * Measures the generation of the possible actions at the beginning of a player's turn. The client
+ * creates possible actions and all their game actions, the AI generates the moves in a buffer that
+ * it reuses. Run with {@code -prof gc} to compare the bytes allocated per turn, reported as
+ * {@code gc.alloc.rate.norm}: the AI allocates nothing once its buffer has grown.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class MoveGenerationBenchmark {
+
+  @Param({"40", "120", "200"})
+  public int nbMoves;
+
+  private GameControllerBasic gameController;
+  private GameState gameState;
+  private MoveBuffer moves;
+
+  @Setup
+  public void setUp() {
+    BenchmarkGame game = BenchmarkGame.afterMoves(BenchmarkGame.SEED, nbMoves);
+    gameController = game.getGameController();
+    gameState = game.copyGameState();
+    moves = new MoveBuffer();
+  }
+
+  @Benchmark
+  public PossibleActions configurePossibleActions() {
+    gameController.configurePossibleActions(gameState);
+    return gameState.getPossibleActions();
+  }
+
+  @Benchmark
+  public GameAction configurePossibleActionsAndCreateActions() {
+    gameController.configurePossibleActions(gameState);
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    GameAction lastAction = null;
+    for (int actionIndex = 0; actionIndex < possibleActions.getNbActions(); ++actionIndex) {
+      lastAction = possibleActions.getAction(actionIndex);
+    }
+    return lastAction;
+  }
+
+  @Benchmark
+  public MoveBuffer generateMoves() {
+    moves.clear();
+    gameController.generateMoves(gameState, moves);
+    return moves;
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.philbeaudoin.quebec.shared.ScoringHelper;
+import com.philbeaudoin.quebec.shared.ScoringInformation;
+import com.philbeaudoin.quebec.shared.ZoneScoringInformation;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+
+/**
+ * Measures the scoring computations used by the AI evaluation.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ScoringBenchmark {
+
+  @Param({"40", "120", "200"})
+  public int nbMoves;
+
+  private GameState gameState;
+
+  @Setup
+  public void setUp() {
+    gameState = BenchmarkGame.afterMoves(BenchmarkGame.SEED, nbMoves).copyGameState();
+  }
+
+  @Benchmark
+  public ZoneScoringInformation calculateZoneScore() {
+    return ScoringHelper.calculateZoneScore(gameState);
+  }
+
+  @Benchmark
+  public ScoringInformation computeBuildingsScoringInformation() {
+    return ScoringHelper.computeBuildingsScoringInformation(gameState);
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.philbeaudoin.quebec.client.game;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.google.inject.Inject;
@@ -109,6 +110,63 @@ public class GameControllerClient implements GameController {
     gameActionLifecycle.start();
   }
 
+  /**
+   * Animates changes received from the server one after the other, then renders the interactions
+   * of the resulting game state.
+   * @param gameState The game state to which the changes apply, it is not modified.
+   * @param gameStateChanges The changes, in the order in which they must be applied.
+   * @return The game state once all the changes are applied.
+   */
+  public GameState applyChanges(GameState gameState, List<GameStateChange> gameStateChanges) {
+    List<GameState> statesAfter = new ArrayList<GameState>(gameStateChanges.size());
+    GameState stateAfter = gameState;
+    for (GameStateChange gameStateChange : gameStateChanges) {
+      stateAfter = new GameState(stateAfter);
+      gameStateChange.apply(this, stateAfter);
+      statesAfter.add(stateAfter);
+    }
+    if (!gameStateChanges.isEmpty()) {
+      animateChange(statesAfter, gameStateChanges, 0);
+    }
+    return stateAfter;
+  }
+
+  /**
+   * Animates one of the changes received from the server, then the following ones.
+   * @param statesAfter The game state after each change.
+   * @param gameStateChanges The changes.
+   * @param index The index of the change to animate.
+   */
+  private void animateChange(final List<GameState> statesAfter,
+      final List<GameStateChange> gameStateChanges, final int index) {
+    final GameState stateAfter = statesAfter.get(index);
+    final GameActionLifecycle gameActionLifecycle = new GameActionLifecycle();
+    gameActionLifecycle.addActor(gameStateRenderer.createAnimationActor(stateAfter,
+        gameStateChanges.get(index)));
+    gameActionLifecycle.addActor(new GameActionLifecycleActor() {
+      @Override
+      public void onStart(Callback completedCallback) {
+        completedCallback.execute();
+      }
+
+      @Override
+      public void onFinalize(Callback completedCallback) {
+        completedCallback.execute();
+      }
+
+      @Override
+      public void onComplete() {
+        if (index + 1 < gameStateChanges.size()) {
+          animateChange(statesAfter, gameStateChanges, index + 1);
+        } else {
+          gameStateRenderer.renderInteractions(stateAfter, playerAgentGenerator);
+        }
+      }
+    });
+
+    gameActionLifecycle.start();
+  }
+
   @Override
   public void setGameState(GameState gameState) {
     // TODO(beaudoin): Remove code duplication between this and the GameControllerTutorial.
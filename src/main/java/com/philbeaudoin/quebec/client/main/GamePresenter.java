@@ -17,8 +17,10 @@
 package com.philbeaudoin.quebec.client.main;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import com.google.gwt.canvas.dom.client.Context2d;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
 import com.google.web.bindery.event.shared.EventBus;
@@ -31,15 +33,19 @@ import com.gwtplatform.mvp.client.proxy.PlaceManager;
 import com.gwtplatform.mvp.client.proxy.PlaceRequest;
 import com.gwtplatform.mvp.client.proxy.ProxyPlace;
 import com.gwtplatform.mvp.client.proxy.RevealRootLayoutContentEvent;
+import com.philbeaudoin.quebec.client.game.GameControllerClient;
 import com.philbeaudoin.quebec.client.game.GameControllerFactories;
 import com.philbeaudoin.quebec.client.renderer.GameStateRenderer;
 import com.philbeaudoin.quebec.client.session.ClientSessionManager;
 import com.philbeaudoin.quebec.shared.NameTokens;
 import com.philbeaudoin.quebec.shared.PlayerColor;
 import com.philbeaudoin.quebec.shared.action.GameStateResult;
+import com.philbeaudoin.quebec.shared.action.GameSyncResult;
 import com.philbeaudoin.quebec.shared.action.LoadGameAction;
+import com.philbeaudoin.quebec.shared.action.WaitForGameUpdateAction;
 import com.philbeaudoin.quebec.shared.game.GameController;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
 import com.philbeaudoin.quebec.shared.player.AiBrainSimple;
 import com.philbeaudoin.quebec.shared.player.Player;
 import com.philbeaudoin.quebec.shared.player.PlayerLocalAi;
@@ -67,6 +73,9 @@ public class GamePresenter extends
 
   public static final Object TYPE_RevealNewsContent = new Object();
 
+  // How long to wait before asking again for the updates of a server game after a failure.
+  private static final int SYNC_RETRY_DELAY_MILLIS = 10000;
+
   private final PlaceManager placeManager;
   private final DispatchAsync dispatcher;
   private final ClientSessionManager sessionManager;
@@ -78,6 +87,23 @@ public class GamePresenter extends
   private int nbPlayers = 4;
   private GameController gameController;
 
+  // For server games, the controller, the last game state received from the server and its
+  // version.
+  private GameControllerClient gameControllerClient;
+  private GameState serverGameState;
+  private long serverVersion;
+  private boolean syncInProgress;
+  // Incremented whenever a game is loaded or left, so that responses to requests sent for a
+  // previous game can be recognized and dropped.
+  private int loadGeneration;
+
+  private final Timer syncRetryTimer = new Timer() {
+    @Override
+    public void run() {
+      waitForGameUpdate();
+    }
+  };
+
   /**
    * The presenter's view.
    */
@@ -111,6 +137,8 @@ public class GamePresenter extends
   @Override
   protected void onReveal() {
     super.onReveal();
+    ++loadGeneration;
+    syncInProgress = false;
     GameState gameState = null;
     ArrayList<Player> players = null;
     if (isTutorial) {
@@ -130,8 +158,10 @@ public class GamePresenter extends
         placeManager.revealDefaultPlace();
         return;
       }
-      gameController = gameControllerFactories.createGameControllerClient(gameStateRenderer);
-      dispatcher.execute(new LoadGameAction(gameId), new AsyncGameStateCallback());
+      gameControllerClient = gameControllerFactories.createGameControllerClient(gameStateRenderer);
+      gameController = gameControllerClient;
+      serverGameState = null;
+      dispatcher.execute(new LoadGameAction(gameId), new AsyncGameStateCallback(loadGeneration));
     } else {
       gameController = gameControllerFactories.createGameControllerClient(gameStateRenderer);
       gameState = new GameState();
@@ -156,6 +186,15 @@ public class GamePresenter extends
     }
   }
 
+  @Override
+  protected void onHide() {
+    super.onHide();
+    syncRetryTimer.cancel();
+    ++loadGeneration;
+    syncInProgress = false;
+    serverGameState = null;
+  }
+
   @Override
   protected void revealInParent() {
     RevealRootLayoutContentEvent.fire(this, this);
@@ -181,6 +220,20 @@ public class GamePresenter extends
     }
   }
 
+  /**
+   * Asks the server for the moves played in the current server game since the last known version.
+   * The server only answers once the game is updated or after a while, the request is then sent
+   * again. Does nothing if a request is already in flight.
+   */
+  private void waitForGameUpdate() {
+    if (syncInProgress || serverGameState == null) {
+      return;
+    }
+    syncInProgress = true;
+    dispatcher.execute(new WaitForGameUpdateAction(gameId, serverVersion),
+        new AsyncGameSyncCallback(loadGeneration));
+  }
+
   /**
    * Should be called whenever the mouse is moved inside the board canvas.
    * @param x The X normalized mouse position.
@@ -249,18 +302,73 @@ public class GamePresenter extends
    * Simple {@link AsyncCallback} that recreates the game upon success.
    */
   private class AsyncGameStateCallback implements AsyncCallback<GameStateResult> {
+    private final int generation;
+    AsyncGameStateCallback(int generation) {
+      this.generation = generation;
+    }
     @Override
     public void onFailure(Throwable caught) {
-      getView().displayError(caught.getMessage());
+      if (generation == loadGeneration) {
+        getView().displayError(caught.getMessage());
+      }
     }
     @Override
     public void onSuccess(GameStateResult result) {
+      if (generation != loadGeneration) {
+        // Another game was loaded, or the game was left, while the request was in flight.
+        return;
+      }
       GameState gameState = result.getGameState();
 
       if (gameState != null) {
         assert(gameController != null);
+        serverGameState = gameState;
+        serverVersion = result.getVersion();
         gameController.setGameState(gameState);
+        waitForGameUpdate();
+      }
+    }
+  }
+
+  /**
+   * {@link AsyncCallback} that animates the moves played since the last sync, or recreates the
+   * game if the client was too far behind, then waits for the next update.
+   */
+  private class AsyncGameSyncCallback implements AsyncCallback<GameSyncResult> {
+    private final int generation;
+    AsyncGameSyncCallback(int generation) {
+      this.generation = generation;
+    }
+    @Override
+    public void onFailure(Throwable caught) {
+      if (generation != loadGeneration) {
+        return;
+      }
+      syncInProgress = false;
+      getView().displayError(caught.getMessage());
+      if (serverGameState != null) {
+        syncRetryTimer.schedule(SYNC_RETRY_DELAY_MILLIS);
+      }
+    }
+    @Override
+    public void onSuccess(GameSyncResult result) {
+      if (generation != loadGeneration) {
+        // Another game was loaded, or the game was left, while the request was in flight.
+        return;
+      }
+      syncInProgress = false;
+      if (serverGameState == null) {
+        return;
+      }
+      List<GameStateChange> changes = result.getChanges();
+      if (changes != null) {
+        serverGameState = gameControllerClient.applyChanges(serverGameState, changes);
+      } else {
+        serverGameState = result.getGameStateResult().getGameState();
+        gameController.setGameState(serverGameState);
       }
+      serverVersion = result.getVersion();
+      waitForGameUpdate();
     }
   }
 }
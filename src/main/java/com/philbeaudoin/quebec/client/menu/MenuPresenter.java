@@ -16,7 +16,8 @@
 
 package com.philbeaudoin.quebec.client.menu;
 
-import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
@@ -69,6 +70,7 @@ public class MenuPresenter extends
     void clearGames();
     void addGame(GameInfoForGameList gameInfo);
     void changeGameInfo(GameInfoForGameList gameInfo);
+    void setMoreGamesVisible(boolean visible);
   }
 
   /**
@@ -83,6 +85,11 @@ public class MenuPresenter extends
   private final DispatchAsync dispatcher;
   private final ClientSessionManager sessionManager;
 
+  // The ids of the games in the list, since a game can move from one page to the next.
+  private final Set<Long> listedGameIds = new HashSet<Long>();
+  // The cursor at which the next page of games starts, or null if there is none.
+  private String nextCursor;
+
   @Inject
   public MenuPresenter(final EventBus eventBus, final MyView view, final MyProxy proxy,
       PlaceManager placeManager, DispatchAsync dispatcher, ClientSessionManager sessionManager) {
@@ -105,7 +112,7 @@ public class MenuPresenter extends
     // flashes which is annoying. Instead, start by hiding it and only show it if sign-in failed.
     getView().setGoogleButtonVisible(false);
     getView().renderGoogleSignIn();
-    getView().clearGames();
+    clearGames();
     refreshGames();
   }
 
@@ -117,7 +124,7 @@ public class MenuPresenter extends
   @Override
   public void onHide() {
     super.onHide();
-    getView().clearGames();
+    clearGames();
   }
 
   public void googleAuthorize(String code) {
@@ -155,6 +162,23 @@ public class MenuPresenter extends
     }
   }
 
+  public void loadMoreGames() {
+    if (nextCursor != null) {
+      getView().setMoreGamesVisible(false);
+      dispatcher.execute(new ListGamesAction(nextCursor), new AsyncCallback<GameListResult>() {
+        @Override
+        public void onFailure(Throwable caught) {
+          getView().setMoreGamesVisible(true);
+          getView().displayError(caught.getMessage());
+        }
+        @Override
+        public void onSuccess(GameListResult result) {
+          addGames(result);
+        }
+      });
+    }
+  }
+
   public void createNewGame(int nbPlayers) {
     if (nbPlayers < 3 || nbPlayers > 5) {
       getView().displayError("Error! Only games with 3, 4 or 5 players allowed.");
@@ -199,11 +223,24 @@ public class MenuPresenter extends
     return true;
   }
 
-  private void updateGameList(ArrayList<GameInfoDto> games) {
+  private void clearGames() {
     getView().clearGames();
+    getView().setMoreGamesVisible(false);
+    listedGameIds.clear();
+    nextCursor = null;
+  }
+
+  private void updateGameList(GameListResult result) {
+    clearGames();
+    addGames(result);
+  }
+
+  private void addGames(GameListResult result) {
     UserInfo userInfo = sessionManager.getUserInfo();
-    int index = 0;
-    for (GameInfoDto gameInfo : games) {
+    for (GameInfoDto gameInfo : result.getGames()) {
+      if (!listedGameIds.add(gameInfo.getId())) {
+        continue;
+      }
       GameInfoForGameList.State state = GameInfoForGameList.State.NO_ACTION;
       if (userInfo != null) {
         if (gameInfo.isMoveOfPlayer(userInfo.getId())) {
@@ -214,9 +251,10 @@ public class MenuPresenter extends
           state = GameInfoForGameList.State.CAN_JOIN;
         }
       }
-      getView().addGame(new GameInfoForGameList(gameInfo, index, state));
-      index++;
+      getView().addGame(new GameInfoForGameList(gameInfo, listedGameIds.size() - 1, state));
     }
+    nextCursor = result.getNextCursor();
+    getView().setMoreGamesVisible(nextCursor != null);
   }
 
   /**
@@ -229,7 +267,7 @@ public class MenuPresenter extends
     }
     @Override
     public void onSuccess(GameListResult result) {
-      updateGameList(result.getGames());
+      updateGameList(result);
     }
   }
 }
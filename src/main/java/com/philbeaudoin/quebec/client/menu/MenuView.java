@@ -60,6 +60,7 @@ public class MenuView extends ViewImpl implements MenuPresenter.MyView {
   @UiField Anchor new5p;
   @UiField Anchor signAsDummy;  // TODO(beaudoin): Remove, only for testing.
   @UiField FlowPanel gameList;
+  @UiField Anchor moreGames;
   @UiField HTMLPanel googleButton;
 
   private MenuPresenter presenter;
@@ -108,6 +109,11 @@ public class MenuView extends ViewImpl implements MenuPresenter.MyView {
     gameList.add(item);
   }
 
+  @Override
+  public void setMoreGamesVisible(boolean visible) {
+    moreGames.setVisible(visible);
+  }
+
   @Override
   public void changeGameInfo(GameInfoForGameList gameInfo) {
     gameList.remove(gameInfo.getIndex());
@@ -172,6 +178,11 @@ public class MenuView extends ViewImpl implements MenuPresenter.MyView {
         userName.getElement().getStyle().setFontWeight(FontWeight.BOLD);
       }
     }
+    if (gameInfo.getLastMoveDate() != null) {
+      div.add(new InlineLabel(" (last move: " + DateTimeFormat.getFormat(
+          DateTimeFormat.PredefinedFormat.DATE_TIME_SHORT).format(gameInfo.getLastMoveDate()) +
+              ")"));
+    }
     switch (gameInfo.getState()) {
     case CAN_JOIN:
       addActionAnchor("Join", div, new ClickHandler() {
@@ -255,6 +266,10 @@ public class MenuView extends ViewImpl implements MenuPresenter.MyView {
   void onNew5pPressed(ClickEvent event) {
     presenter.createNewGame(5);
   }
+  @UiHandler("moreGames")
+  void onMoreGamesPressed(ClickEvent event) {
+    presenter.loadMoreGames();
+  }
   @UiHandler("signAsDummy")
   void onSignAsDummyPressed(ClickEvent event) {
     presenter.signAsDummy();
@@ -82,7 +82,8 @@ public class LocalAiInteractionGenerator implements GameActionVisitor {
 
     assert generatingActions != null;
     gameStateRenderer.addToAnimationGraph(
-        textBoxRenderer.render(generatingActions.getTextBoxInfo(), gameStateRenderer));
+        textBoxRenderer.render(generatingActions.getTextBoxInfo(), gameState,
+            gameStateRenderer));
   }
 
   /**
@@ -165,7 +165,8 @@ public class LocalUserInteractionGenerator implements GameActionVisitor {
     // Generate the message associated with the possible actions, if any.
     assert generatingActions != null;
     gameStateRenderer.addToAnimationGraph(
-        textBoxRenderer.render(generatingActions.getTextBoxInfo(), gameStateRenderer));
+        textBoxRenderer.render(generatingActions.getTextBoxInfo(), gameState,
+            gameStateRenderer));
   }
 
   private void generateMoveArchitectInteractions() {
@@ -22,6 +22,7 @@ import javax.inject.Provider;
 import com.philbeaudoin.quebec.client.scene.Callout;
 import com.philbeaudoin.quebec.client.scene.ComplexText;
 import com.philbeaudoin.quebec.client.scene.SceneNodeList;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
 import com.philbeaudoin.quebec.shared.location.ArchitectDestinationOffboardNeutral;
 import com.philbeaudoin.quebec.shared.location.ArchitectDestinationPlayer;
 import com.philbeaudoin.quebec.shared.location.ArchitectDestinationTile;
@@ -40,6 +41,7 @@ import com.philbeaudoin.quebec.shared.location.LocationTopCenter;
 import com.philbeaudoin.quebec.shared.location.LocationVisitor;
 import com.philbeaudoin.quebec.shared.location.LocationRelative;
 import com.philbeaudoin.quebec.shared.message.Message;
+import com.philbeaudoin.quebec.shared.message.MessageSupplier;
 import com.philbeaudoin.quebec.shared.message.TextBoxInfo;
 import com.philbeaudoin.quebec.shared.utils.ConstantTransform;
 import com.philbeaudoin.quebec.shared.utils.Vector2d;
@@ -59,14 +61,28 @@ public class TextBoxRenderer {
 
   /**
    * Renders a {@link TextBoxInfo} of the given game state renderer into a scene node list.
-   * @param textBoxInfo The text box information to render, if null nothing is rendered.
+   * @param textBoxInfo The text box information to render, if null nothing is rendered. Its
+   *     message must not be given by a {@link MessageSupplier}.
    * @param gameStateRenderer The game state renderer into which to render.
    * @returns The scene node list for the text box.
    */
   public SceneNodeList render(TextBoxInfo textBoxInfo, GameStateRenderer gameStateRenderer) {
+    return render(textBoxInfo, null, gameStateRenderer);
+  }
+
+  /**
+   * Renders a {@link TextBoxInfo} of the given game state renderer into a scene node list.
+   * @param textBoxInfo The text box information to render, if null nothing is rendered.
+   * @param gameState The game state in which the text box is displayed, used to create the message
+   *     if it is given by a {@link MessageSupplier}.
+   * @param gameStateRenderer The game state renderer into which to render.
+   * @returns The scene node list for the text box.
+   */
+  public SceneNodeList render(TextBoxInfo textBoxInfo, GameState gameState,
+      GameStateRenderer gameStateRenderer) {
     SceneNodeList result = new SceneNodeList();
     if (textBoxInfo != null) {
-      Message message = textBoxInfo.getMessage();
+      Message message = textBoxInfo.getMessage(gameState);
       MessageRenderer messageRenderer = messageRendererProvider.get();
       message.accept(messageRenderer);
       Vector2d anchor = computeBoardLocation(textBoxInfo.getAnchor(), gameStateRenderer,
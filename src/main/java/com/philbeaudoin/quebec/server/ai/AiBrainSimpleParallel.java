@@ -0,0 +1,151 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.philbeaudoin.quebec.shared.PlayerColor;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateUndoLog;
+import com.philbeaudoin.quebec.shared.player.AiBrainSimple;
+import com.philbeaudoin.quebec.shared.player.AiSearchBuffers;
+
+/**
+ * The brain of {@link AiBrainSimple} with the actions at the root of the search scored in parallel.
+ * Each root action is searched on its own copy of the game state, so the selected move is the same
+ * as the one of the single-threaded brain. This brain uses threads and must only be used
+ * server-side, never in a game state sent to the client.
+ * <p />
+ * The threads belong to an executor shared by all the brains, see {@link #createExecutor}. Whoever
+ * creates the executor shuts it down once the brains are no longer used. Each brain owns one set of
+ * search buffers, with its transposition table, per thread of the executor. The tasks scoring its
+ * actions borrow them in turn, so the buffers are released with the brain.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@SuppressWarnings("serial")
+public class AiBrainSimpleParallel extends AiBrainSimple {
+
+  private final int parallelism;
+  private final transient ExecutorService executor;
+  // The buffers not used by a task at the moment. At most parallelism tasks of the brain run at
+  // once, so there are always buffers left for the next task.
+  private transient BlockingQueue<AiSearchBuffers> searchBuffers;
+
+  /**
+   * Creates a brain that scores root actions on the threads of an executor.
+   * @param executor The executor on which to score the actions, usually shared by all the brains.
+   *     See {@link #createExecutor}.
+   * @param parallelism The number of threads of the executor. With a single thread, the actions
+   *     are scored on the calling thread.
+   */
+  public AiBrainSimpleParallel(ExecutorService executor, int parallelism) {
+    super(true);
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Creates an executor to share between brains. Its threads are daemon threads, so an executor
+   * that is not shut down does not keep the process alive, but it must still be shut down to
+   * release them.
+   * @param nbThreads The number of threads of the executor.
+   * @return The newly created executor.
+   */
+  public static ExecutorService createExecutor(int nbThreads) {
+    return Executors.newFixedThreadPool(nbThreads, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "AiBrainSimpleParallel");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  @Override
+  protected double[] scoreRootActions(GameState gameState, final PlayerColor playerColor,
+      final PossibleActions possibleActions, final SearchLimit limit) {
+    int nbActions = possibleActions.getNbActions();
+    // A brain that has been serialized no longer has its executor.
+    if (executor == null || parallelism <= 1 || nbActions <= 1) {
+      return super.scoreRootActions(gameState, playerColor, possibleActions, limit);
+    }
+    createSearchBuffersIfNeeded();
+
+    List<Future<Double>> futures = new ArrayList<Future<Double>>(nbActions);
+    for (int actionIndex = 0; actionIndex < nbActions; ++actionIndex) {
+      final int taskActionIndex = actionIndex;
+      final GameState taskGameState = new GameState(gameState);
+      taskGameState.setPossibleActions(possibleActions);
+      taskGameState.setUndoLog(new GameStateUndoLog());
+      futures.add(executor.submit(new Callable<Double>() {
+        @Override
+        public Double call() throws InterruptedException {
+          // The buffers are not thread-safe, each task searching borrows some.
+          AiSearchBuffers buffers = searchBuffers.take();
+          try {
+            return scoreRootAction(taskGameState, playerColor, possibleActions, taskActionIndex,
+                buffers, limit);
+          } finally {
+            searchBuffers.add(buffers);
+          }
+        }
+      }));
+    }
+
+    double scores[] = new double[nbActions];
+    try {
+      for (int actionIndex = 0; actionIndex < nbActions; ++actionIndex) {
+        scores[actionIndex] = futures.get(actionIndex).get();
+      }
+    } catch (InterruptedException e) {
+      cancelAll(futures);
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while searching for a move.", e);
+    } catch (ExecutionException e) {
+      cancelAll(futures);
+      throw new RuntimeException("Failed to score an action.", e.getCause());
+    }
+    return scores;
+  }
+
+  private synchronized void createSearchBuffersIfNeeded() {
+    if (searchBuffers == null) {
+      searchBuffers = new ArrayBlockingQueue<AiSearchBuffers>(parallelism);
+      for (int i = 0; i < parallelism; ++i) {
+        searchBuffers.add(new AiSearchBuffers(true));
+      }
+    }
+  }
+
+  private static void cancelAll(List<Future<Double>> futures) {
+    for (Future<Double> future : futures) {
+      future.cancel(true);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of entities loaded from a repository, along with the cursor at which the next page
+ * starts.
+ *
+ * @param <T> The type of the entities.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class EntityPage<T> {
+
+  private final List<T> entities;
+  private final String nextCursor;
+
+  /**
+   * Creates a page of entities.
+   * @param entities The entities of the page. The list is copied.
+   * @param nextCursor The web-safe cursor at which the next page starts, or null if this is the
+   *     last page.
+   */
+  public EntityPage(List<T> entities, String nextCursor) {
+    this.entities = new ArrayList<T>(entities);
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Access the entities of the page.
+   * @return The entities, in the order of the page.
+   */
+  public List<T> getEntities() {
+    return entities;
+  }
+
+  /**
+   * Access the cursor at which the next page starts.
+   * @return The web-safe cursor, or null if this is the last page.
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.database;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Keeps the values of the {@link GlobalStringEntity} in memory, since they are read on every
+ * sign-in but almost never change. A value must be invalidated whenever it is saved through this
+ * server. Changes made through another server are seen once the value expires.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class GlobalStringCache {
+
+  private static final long TIME_TO_LIVE_MILLIS = 60000;
+
+  private final GlobalStringRepository globalStringRepository;
+  private final Map<Long, CachedString> strings = new HashMap<Long, CachedString>();
+  // Incremented on every invalidation, so that a value loaded before it is not cached.
+  private long generation;
+
+  @Inject
+  public GlobalStringCache(GlobalStringRepository globalStringRepository) {
+    this.globalStringRepository = globalStringRepository;
+  }
+
+  /**
+   * Returns the value of a global string, loading it from the repository if it is not cached.
+   * @param id The id of the global string, for example {@link GlobalStringEntity#SALT_ID}.
+   * @return The value of the global string, or null if it has never been saved.
+   */
+  public String get(long id) {
+    long loadGeneration;
+    synchronized (this) {
+      CachedString cachedString = strings.get(id);
+      if (cachedString != null && System.currentTimeMillis() < cachedString.expirationMillis) {
+        return cachedString.value;
+      }
+      loadGeneration = generation;
+    }
+    // Load outside of the lock, two requests may load the same value but none waits for another.
+    GlobalStringEntity entity = globalStringRepository.loadGlobalString(id);
+    String value = entity == null ? null : entity.getString();
+    synchronized (this) {
+      if (loadGeneration == generation) {
+        strings.put(id, new CachedString(value, System.currentTimeMillis() + TIME_TO_LIVE_MILLIS));
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Drops the cached value of a global string. Must be called whenever it is saved.
+   * @param id The id of the global string.
+   */
+  public synchronized void invalidate(long id) {
+    strings.remove(id);
+    generation++;
+  }
+
+  private static class CachedString {
+    // Null if the global string has never been saved.
+    final String value;
+    final long expirationMillis;
+
+    CachedString(String value, long expirationMillis) {
+      this.value = value;
+      this.expirationMillis = expirationMillis;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.database;
+
+/**
+ * Stores the global strings, such as the salt and the hash of the admin password. See
+ * {@link com.philbeaudoin.quebec.server.guice.StorageModule} for the available implementations.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface GlobalStringRepository {
+
+  /**
+   * Runs a work in a transaction.
+   * @param work The work to run, it must only use this repository.
+   * @return The result of the work.
+   */
+  <R> R transact(RepositoryWork<R> work);
+
+  /**
+   * Loads a global string.
+   * @param id The id of the global string, for example {@link GlobalStringEntity#SALT_ID}.
+   * @return The global string, or null if it has never been saved.
+   */
+  GlobalStringEntity loadGlobalString(long id);
+
+  /**
+   * Saves a global string, replacing the previous value with the same id.
+   * @param globalStringEntity The global string to save.
+   */
+  void saveGlobalString(GlobalStringEntity globalStringEntity);
+}
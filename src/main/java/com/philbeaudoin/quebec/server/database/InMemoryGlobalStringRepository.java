@@ -0,0 +1,88 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.database;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.philbeaudoin.quebec.shared.utils.BinaryReader;
+import com.philbeaudoin.quebec.shared.utils.BinaryWriter;
+
+/**
+ * Implementation of {@link GlobalStringRepository} that keeps the global strings in memory,
+ * optionally logging them to a {@link RecordLog}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class InMemoryGlobalStringRepository extends InMemoryStore
+    implements GlobalStringRepository {
+
+  // The types of records.
+  private static final int GLOBAL_STRING = 0;
+
+  // The latest record of each global string, by id.
+  private final Map<Long, byte[]> globalStrings = new HashMap<Long, byte[]>();
+
+  /**
+   * Creates a repository, with the global strings of the log if there is one.
+   * @param log The log to which the changes are appended, or null to keep them in memory only.
+   */
+  public InMemoryGlobalStringRepository(RecordLog log) {
+    super(log);
+    replayLog();
+  }
+
+  @Override
+  public GlobalStringEntity loadGlobalString(long id) {
+    byte record[];
+    synchronized (this) {
+      record = globalStrings.get(id);
+    }
+    if (record == null) {
+      return null;
+    }
+    BinaryReader reader = new BinaryReader(record);
+    reader.readByte();
+    return new GlobalStringEntity(reader.readVarLong(), reader.readString());
+  }
+
+  @Override
+  public void saveGlobalString(GlobalStringEntity globalStringEntity) {
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(GLOBAL_STRING);
+    writer.writeVarLong(globalStringEntity.id);
+    writer.writeString(globalStringEntity.string);
+    write(writer);
+  }
+
+  @Override
+  protected void apply(byte record[]) {
+    BinaryReader reader = new BinaryReader(record);
+    int type = reader.readByte();
+    if (type != GLOBAL_STRING) {
+      throw new IllegalArgumentException("Unknown record type: " + type);
+    }
+    globalStrings.put(reader.readVarLong(), record);
+  }
+
+  @Override
+  protected List<byte[]> snapshot() {
+    return new ArrayList<byte[]>(globalStrings.values());
+  }
+}
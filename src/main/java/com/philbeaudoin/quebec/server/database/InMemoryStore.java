@@ -0,0 +1,212 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.philbeaudoin.quebec.shared.utils.BinaryReader;
+import com.philbeaudoin.quebec.shared.utils.BinaryWriter;
+
+/**
+ * Base class of the repositories that keep their entities in memory. Every change is a record,
+ * written with a {@link BinaryWriter}, that the subclass applies to its maps. The records can also
+ * be appended to a {@link RecordLog}, which is replayed when the server starts, so the entities
+ * outlive the server. The records of a transaction are appended as a single log record, so they
+ * are either all replayed or not at all.
+ * <p />
+ * The log only grows, even though most records replace previous ones. Once it gets a few times
+ * larger than when it was last compacted, it is rewritten with the records the subclass creates
+ * from its current content. The log is rewritten by a background thread, and the store is only
+ * locked while the records are created, so requests do not wait for the new log to be written.
+ * <p />
+ * The subclasses keep mutable entities as records too and create a new entity on every load, so
+ * the entities handed out are never shared between requests, as with the datastore.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public abstract class InMemoryStore {
+
+  // The log is compacted once it is this many times larger than after its last compaction.
+  private static final int COMPACTION_RATIO = 2;
+  // Logs smaller than this are never compacted.
+  private static final long MIN_COMPACTION_SIZE = 4 * 1024 * 1024;
+
+  private static final Logger logger = Logger.getLogger(InMemoryStore.class.getName());
+
+  private final RecordLog log;
+  // The size of the log after its last compaction.
+  private long compactedSize;
+  // True while the log is compacted in the background.
+  private boolean compacting;
+  // The records written by the transaction in progress, null when there is none.
+  private List<byte[]> transactionRecords;
+
+  /**
+   * Creates a store.
+   * @param log The log to which the records are appended, or null to keep them in memory only.
+   */
+  protected InMemoryStore(RecordLog log) {
+    this.log = log;
+  }
+
+  /**
+   * Runs a work in a transaction. The store is locked until the work is done, and the records it
+   * writes are only applied once it succeeds. As with the datastore, the work does not see the
+   * entities it saves. A transaction started within another one joins it.
+   * @param work The work to run.
+   * @return The result of the work.
+   */
+  public <R> R transact(RepositoryWork<R> work) {
+    synchronized (this) {
+      if (transactionRecords != null) {
+        return work.run();
+      }
+      transactionRecords = new ArrayList<byte[]>();
+      try {
+        R result = work.run();
+        commit(transactionRecords);
+        return result;
+      } finally {
+        transactionRecords = null;
+      }
+    }
+  }
+
+  /**
+   * Applies the records of the log. Subclasses call it from their constructor, once the maps to
+   * which the records are applied are created.
+   */
+  protected final synchronized void replayLog() {
+    if (log != null) {
+      for (byte logRecord[] : log.readAll()) {
+        BinaryReader reader = new BinaryReader(logRecord);
+        int nbRecords = reader.readVarInt();
+        for (int i = 0; i < nbRecords; ++i) {
+          apply(reader.readBytes());
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a record, applying and logging it right away unless a transaction is in progress.
+   * @param writer The writer holding the record.
+   */
+  protected final synchronized void write(BinaryWriter writer) {
+    byte record[] = writer.toByteArray();
+    if (transactionRecords != null) {
+      transactionRecords.add(record);
+    } else {
+      List<byte[]> records = new ArrayList<byte[]>(1);
+      records.add(record);
+      commit(records);
+    }
+  }
+
+  /**
+   * Applies a record to the maps of the store. Called with the store locked.
+   * @param record The record, it must not be modified as the store may keep it.
+   * @throws IllegalArgumentException If the record is not valid.
+   */
+  protected abstract void apply(byte record[]);
+
+  /**
+   * Creates the records that rebuild the current content of the store, they replace the log when
+   * it is compacted. Called with the store locked.
+   * @return The records, in the order in which they must be applied.
+   */
+  protected abstract List<byte[]> snapshot();
+
+  /**
+   * Starts replacing the log by a snapshot of the content of the store, if it has grown enough
+   * since it was last compacted. The snapshot is taken right away, the log is rewritten by a
+   * background thread. Called with the store locked.
+   */
+  private void startCompactionIfNeeded() {
+    if (compacting ||
+        log.size() <= Math.max(MIN_COMPACTION_SIZE, COMPACTION_RATIO * compactedSize)) {
+      return;
+    }
+    compacting = true;
+    final List<byte[]> records = snapshot();
+    // The records appended from now on are kept after the snapshot.
+    final long from = log.size();
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        compactLog(records, from);
+      }
+    }, "InMemoryStore compaction");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Rewrites the log with a snapshot of the content of the store. Called without the store
+   * locked.
+   * @param records The records of the snapshot.
+   * @param from The size of the log when the snapshot was taken.
+   */
+  private void compactLog(List<byte[]> records, long from) {
+    try {
+      List<byte[]> logRecords = new ArrayList<byte[]>(records.size());
+      for (byte record[] : records) {
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeVarInt(1);
+        writer.writeBytes(record);
+        logRecords.add(writer.toByteArray());
+      }
+      log.rewrite(logRecords, from);
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Cannot compact the log, the previous one is still used.", e);
+    }
+    synchronized (this) {
+      // Even if the compaction failed, so it is not tried again before the log has grown.
+      compactedSize = log.size();
+      compacting = false;
+    }
+  }
+
+  /**
+   * Appends records to the log, as a single log record, then applies them. The records are
+   * logged first so that the store never holds changes that the log does not have.
+   * @param records The records, in the order in which they were written.
+   */
+  private void commit(List<byte[]> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+    if (log != null) {
+      BinaryWriter writer = new BinaryWriter();
+      writer.writeVarInt(records.size());
+      for (byte record[] : records) {
+        writer.writeBytes(record);
+      }
+      log.append(writer.toByteArray());
+    }
+    for (byte record[] : records) {
+      apply(record);
+    }
+    if (log != null) {
+      startCompactionIfNeeded();
+    }
+  }
+}
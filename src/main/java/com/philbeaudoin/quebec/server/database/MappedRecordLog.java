@@ -0,0 +1,282 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link RecordLog} kept in a file that is mapped in memory, so appending a record is only a
+ * copy into the page cache. Each record is preceded by its length and its CRC-32. When the log is
+ * opened, the records are read up to the first one that is incomplete or corrupted, which is
+ * where the next record goes. The log is rewritten into a new file that replaces the previous one
+ * once it is complete, by a rename. Where a file cannot be renamed over an existing one, the log is
+ * never rewritten and keeps growing.
+ * <p />
+ * The records are only forced to the disk when the log is closed. They survive the server being
+ * killed, but the last ones may be lost if the machine goes down.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class MappedRecordLog implements RecordLog {
+
+  // The file is mapped in regions of this size, a new region is mapped when one is full.
+  private static final int REGION_SIZE = 16 * 1024 * 1024;
+  // The length and the CRC-32 of the record.
+  private static final int HEADER_SIZE = 8;
+
+  private final File file;
+  private FileChannel channel;
+  // The position in the file at which the next record is appended.
+  private long end;
+  private MappedByteBuffer region;
+
+  /**
+   * Opens a log, creating its file if it does not exist.
+   * @param file The file of the log.
+   * @throws IOException If the file cannot be read or mapped.
+   */
+  public MappedRecordLog(File file) throws IOException {
+    this.file = file;
+    end = read(file, Long.MAX_VALUE, null);
+    openChannel();
+  }
+
+  @Override
+  public synchronized List<byte[]> readAll() {
+    List<byte[]> result = new ArrayList<byte[]>();
+    try {
+      read(file, end, result);
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot read the log " + file + ".", e);
+    }
+    return result;
+  }
+
+  @Override
+  public synchronized void append(byte record[]) {
+    checkRecord(record);
+    if (region == null) {
+      throw new IllegalStateException("Cannot append to the closed log " + file + ".");
+    }
+    int size = HEADER_SIZE + record.length;
+    if (region.remaining() < size) {
+      try {
+        mapRegion(Math.max(REGION_SIZE, size));
+      } catch (IOException e) {
+        throw new RuntimeException("Cannot extend the log " + file + ".", e);
+      }
+    }
+    region.putInt(record.length);
+    region.putInt(checksum(record));
+    region.put(record);
+    end += size;
+  }
+
+  /**
+   * Replaces the records at the beginning of the log. The new records are written and forced to
+   * the disk without locking the log, which is only locked while the records appended meanwhile
+   * are copied after them and the new file replaces the previous one. If anything fails, the log
+   * is left as it was and can still be used.
+   */
+  @Override
+  public void rewrite(List<byte[]> records, long from) {
+    File newFile = new File(file.getPath() + ".new");
+    FileChannel newChannel = null;
+    boolean replaced = false;
+    try {
+      long size = write(newFile, records);
+      synchronized (this) {
+        if (region == null) {
+          throw new IllegalStateException("Cannot rewrite the closed log " + file + ".");
+        }
+        if (from < 0 || from > end) {
+          throw new IllegalArgumentException("Invalid position " + from + " in the log " + file +
+              ".");
+        }
+        newChannel = new RandomAccessFile(newFile, "rw").getChannel();
+        newChannel.position(size);
+        for (long position = from; position < end; ) {
+          position += channel.transferTo(position, end - position, newChannel);
+        }
+        long newEnd = size + end - from;
+        MappedByteBuffer newRegion = newChannel.map(FileChannel.MapMode.READ_WRITE, newEnd,
+            REGION_SIZE);
+        // The log is replaced at once, after a crash it is either the previous file or the new one.
+        if (!newFile.renameTo(file)) {
+          throw new IOException("Cannot rename " + newFile + " to " + file + ".");
+        }
+        replaced = true;
+        FileChannel previousChannel = channel;
+        channel = newChannel;
+        region = newRegion;
+        end = newEnd;
+        try {
+          previousChannel.close();
+        } catch (IOException e) {
+          // The previous file has been replaced, it is no longer used.
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot rewrite the log " + file + ".", e);
+    } finally {
+      if (!replaced) {
+        if (newChannel != null) {
+          try {
+            newChannel.close();
+          } catch (IOException e) {
+            // The rewrite failed already, the new file is deleted anyway.
+          }
+        }
+        newFile.delete();
+      }
+    }
+  }
+
+  @Override
+  public synchronized long size() {
+    return end;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (region == null) {
+      return;
+    }
+    region.force();
+    region = null;
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot close the log " + file + ".", e);
+    }
+  }
+
+  /**
+   * Opens the file of the log for appending at its end.
+   * @throws IOException If the file cannot be opened or mapped.
+   */
+  private void openChannel() throws IOException {
+    channel = new RandomAccessFile(file, "rw").getChannel();
+    // Drop whatever follows the last valid record, so that a record left over from a crash can
+    // never be read after the ones appended from now on.
+    channel.truncate(end);
+    mapRegion(REGION_SIZE);
+  }
+
+  /**
+   * Maps the region of the file that starts at the end of the log. The file grows as needed, the
+   * unused part of the region reads as zeros, which is never a valid record length.
+   * @param size The size of the region.
+   * @throws IOException If the file cannot be mapped.
+   */
+  private void mapRegion(int size) throws IOException {
+    region = channel.map(FileChannel.MapMode.READ_WRITE, end, size);
+  }
+
+  /**
+   * Writes records to a new log file, and forces them to the disk.
+   * @param file The file to write, it is replaced if it exists.
+   * @param records The records.
+   * @return The size of the file.
+   * @throws IOException If the file cannot be written.
+   */
+  private static long write(File file, List<byte[]> records) throws IOException {
+    long size = 0;
+    FileOutputStream output = new FileOutputStream(file);
+    try {
+      DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+      for (byte record[] : records) {
+        checkRecord(record);
+        data.writeInt(record.length);
+        data.writeInt(checksum(record));
+        data.write(record);
+        size += HEADER_SIZE + record.length;
+      }
+      data.flush();
+      // The new file must be complete on the disk before it replaces the log.
+      output.getFD().sync();
+    } finally {
+      output.close();
+    }
+    return size;
+  }
+
+  /**
+   * Reads the valid records at the beginning of a log file.
+   * @param file The file of the log.
+   * @param limit The position in the file at which to stop reading.
+   * @param records The list to which to add the records, or null to only find where they end.
+   * @return The position in the file that follows the last valid record.
+   * @throws IOException If the file cannot be read.
+   */
+  private static long read(File file, long limit, List<byte[]> records) throws IOException {
+    if (!file.exists()) {
+      return 0;
+    }
+    long available = Math.min(file.length(), limit);
+    long position = 0;
+    DataInputStream input = new DataInputStream(new BufferedInputStream(
+        new FileInputStream(file)));
+    try {
+      while (available - position >= HEADER_SIZE) {
+        int length = input.readInt();
+        int checksum = input.readInt();
+        if (length <= 0 || length > available - position - HEADER_SIZE) {
+          break;
+        }
+        byte record[] = new byte[length];
+        input.readFully(record);
+        if (checksum(record) != checksum) {
+          break;
+        }
+        if (records != null) {
+          records.add(record);
+        }
+        position += HEADER_SIZE + length;
+      }
+    } finally {
+      input.close();
+    }
+    return position;
+  }
+
+  private static void checkRecord(byte record[]) {
+    if (record.length == 0) {
+      throw new IllegalArgumentException("Cannot append an empty record.");
+    }
+  }
+
+  private static int checksum(byte record[]) {
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.database;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Objectify;
+import com.googlecode.objectify.Work;
+
+/**
+ * Implementation of {@link GlobalStringRepository} that stores the global strings in the
+ * datastore.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class ObjectifyGlobalStringRepository implements GlobalStringRepository,
+    ObjectifyServiceWrapper {
+
+  private final ObjectifyServiceWrapper objectifyServiceWrapper;
+
+  @Inject
+  public ObjectifyGlobalStringRepository(ObjectifyServiceWrapper objectifyServiceWrapper) {
+    this.objectifyServiceWrapper = objectifyServiceWrapper;
+  }
+
+  @Override
+  public Objectify ofy() {
+    return objectifyServiceWrapper.ofy();
+  }
+
+  @Override
+  public <R> R transact(final RepositoryWork<R> work) {
+    return ofy().transact(new Work<R>() {
+      @Override
+      public R run() {
+        return work.run();
+      }
+    });
+  }
+
+  @Override
+  public GlobalStringEntity loadGlobalString(long id) {
+    return ofy().load().key(Key.create(GlobalStringEntity.class, id)).get();
+  }
+
+  @Override
+  public void saveGlobalString(GlobalStringEntity globalStringEntity) {
+    ofy().save().entity(globalStringEntity).now();
+  }
+}
@@ -20,6 +20,8 @@ import com.googlecode.objectify.Objectify;
 import com.googlecode.objectify.ObjectifyService;
 import com.philbeaudoin.quebec.server.game.GameEntity;
 import com.philbeaudoin.quebec.server.game.GameInfoEntity;
+import com.philbeaudoin.quebec.server.game.GameMoveEntity;
+import com.philbeaudoin.quebec.server.game.GameSnapshotEntity;
 import com.philbeaudoin.quebec.server.session.SessionInfoEntity;
 import com.philbeaudoin.quebec.server.user.GoogleUserEntity;
 import com.philbeaudoin.quebec.server.user.UserInfoEntity;
@@ -32,6 +34,8 @@ public class ObjectifyServiceWrapperImpl implements ObjectifyServiceWrapper {
     ObjectifyService.register(GoogleUserEntity.class);
     ObjectifyService.register(GameInfoEntity.class);
     ObjectifyService.register(GameEntity.class);
+    ObjectifyService.register(GameMoveEntity.class);
+    ObjectifyService.register(GameSnapshotEntity.class);
   }
 
   @Override
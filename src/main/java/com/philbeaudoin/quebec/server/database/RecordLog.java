@@ -0,0 +1,61 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.database;
+
+import java.util.List;
+
+/**
+ * A log of records to which records can only be appended. The in-memory repositories write every
+ * change they commit to a log and read it back when the server starts, see {@link InMemoryStore}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface RecordLog {
+
+  /**
+   * Reads all the records appended to the log, including the ones appended by a previous run.
+   * @return The records, in the order in which they were appended.
+   */
+  List<byte[]> readAll();
+
+  /**
+   * Appends a record at the end of the log.
+   * @param record The record, it must not be empty.
+   */
+  void append(byte record[]);
+
+  /**
+   * Replaces the records at the beginning of the log, usually by fewer records that lead to the
+   * same state. The records appended after them are kept. Either all the records are replaced or
+   * none is. Records can be appended while the log is rewritten.
+   * @param records The new records, none of them must be empty.
+   * @param from The position in the log of the first record to keep, the {@link #size()} of the
+   *     log when the new records were created.
+   */
+  void rewrite(List<byte[]> records, long from);
+
+  /**
+   * @return The size of the records of the log, in bytes, including their framing.
+   */
+  long size();
+
+  /**
+   * Closes the log, making sure the records appended are saved. The log can no longer be used.
+   */
+  void close();
+}
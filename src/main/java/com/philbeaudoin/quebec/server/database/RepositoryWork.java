@@ -0,0 +1,35 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.database;
+
+/**
+ * Work to run in a transaction of a repository, see for example
+ * {@link com.philbeaudoin.quebec.server.game.GameRepository#transact}.
+ *
+ * @param <R> The type of the result of the work.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface RepositoryWork<R> {
+  /**
+   * Runs the work. Throwing a runtime exception aborts the transaction, none of the entities
+   * saved by the work are kept.
+   * @return The result of the work.
+   */
+  R run();
+}
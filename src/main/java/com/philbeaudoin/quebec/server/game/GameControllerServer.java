@@ -24,6 +24,7 @@ import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
 import com.philbeaudoin.quebec.shared.game.action.GameAction;
 import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
 import com.philbeaudoin.quebec.shared.player.Player;
 
 /**
@@ -61,9 +62,28 @@ public class GameControllerServer implements GameController {
     gameControllerBasic.prepareNextCentury(gameState);
   }
 
+  /**
+   * Performs the action directly on the game state, there is nothing to animate on the server.
+   */
   @Override
   public void performAction(GameState gameState, GameAction gameAction) {
-    // TODO(beaudoin): We should probably do something here.
+    applyAction(gameState, gameAction);
+  }
+
+  /**
+   * Performs an action directly on the game state and returns the change it made, so that it can
+   * be sent to the clients that need to animate it.
+   * @param gameState The game state on which to perform the action, it is modified in place.
+   * @param gameAction The action to perform.
+   * @return The change that was applied to the game state.
+   */
+  public GameStateChange applyAction(GameState gameState, GameAction gameAction) {
+    GameStateChange gameStateChange = gameAction.execute(this, gameState);
+    // Like the state copied by the client, the state has no possible actions until a change sets
+    // them.
+    gameState.setPossibleActions(null);
+    gameStateChange.apply(this, gameState);
+    return gameStateChange;
   }
 
   @Override
@@ -16,24 +16,43 @@
 
 package com.philbeaudoin.quebec.server.game;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Ignore;
 import com.googlecode.objectify.annotation.Parent;
 import com.googlecode.objectify.annotation.Serialize;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.player.Player;
 
+/**
+ * A game, stored as the setup from which it started and its version. The moves played to reach
+ * each version are stored in {@link GameMoveEntity}, with the occasional
+ * {@link GameSnapshotEntity} so that the state can be rebuilt without replaying the whole game.
+ * The version is incremented each time moves are added, so that concurrent updates can be detected
+ * without keeping a transaction open while moves are computed.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
 @Entity
 @Cache
 public class GameEntity {
   @Parent Key<GameInfoEntity> owner;
   @Id Long id;
-  @Serialize(zip=true) GameState gameState;
+  long seed;
+  @Serialize ArrayList<Player> players;
+  long version;
+  // The state at the current version, rebuilt from the moves when the game is loaded.
+  @Ignore GameState gameState;
 
-  public GameEntity(Key<GameInfoEntity> owner, GameState gameState) {
+  public GameEntity(Key<GameInfoEntity> owner, long seed, List<Player> players) {
     this.owner = owner;
-    this.gameState = gameState;
+    this.seed = seed;
+    this.players = new ArrayList<Player>(players);
   }
 
   /**
@@ -42,7 +61,48 @@ public class GameEntity {
   @SuppressWarnings("unused")  private GameEntity() {
   }
 
+  public Key<GameEntity> getKey() {
+    return Key.create(owner, GameEntity.class, id);
+  }
+
+  public Key<GameInfoEntity> getOwner() {
+    return owner;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public List<Player> getPlayers() {
+    return players;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the state of the game at the current version, if it has been set.
+   * @return The game state, or null if it has not been rebuilt.
+   */
   public GameState getGameState() {
     return gameState;
   }
+
+  /**
+   * Sets the state of the game at the current version, it is not saved.
+   * @param gameState The game state.
+   */
+  public void setGameState(GameState gameState) {
+    this.gameState = gameState;
+  }
+
+  /**
+   * Replaces the state of the game following new moves and increments its version.
+   * @param gameState The new state of the game.
+   */
+  public void update(GameState gameState) {
+    this.gameState = gameState;
+    version++;
+  }
 }
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.game;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Saves again the games stored before they had an open flag and an index of their players, so
+ * that they are listed again. Only the admin of the application can call it, see {@code web.xml}.
+ * Each call saves games for a while and answers with the cursor from which to continue, the
+ * {@value #CURSOR} parameter of the next call. Saving a game again is harmless, so the servlet can
+ * be called as many times as needed.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class GameInfoBackfillServlet extends HttpServlet {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final String CURSOR = "cursor";
+
+  // Number of games queried at once.
+  private static final int BATCH_SIZE = 100;
+  // Keeps the request well within the deadline of the server.
+  private static final long TIME_BUDGET_MILLIS = 20000;
+
+  private final ObjectifyGameRepository gameRepository;
+  private final OpenGamesCache openGamesCache;
+
+  @Inject
+  GameInfoBackfillServlet(ObjectifyGameRepository gameRepository,
+      OpenGamesCache openGamesCache) {
+    this.gameRepository = gameRepository;
+    this.openGamesCache = openGamesCache;
+  }
+
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    long deadline = System.currentTimeMillis() + TIME_BUDGET_MILLIS;
+    String cursor = request.getParameter(CURSOR);
+    int nbBatches = 0;
+    do {
+      cursor = gameRepository.resaveGameInfos(cursor, BATCH_SIZE);
+      nbBatches++;
+    } while (cursor != null && System.currentTimeMillis() < deadline);
+    openGamesCache.invalidate();
+
+    response.setContentType("text/plain");
+    response.getWriter().println("Saved " + nbBatches + " batches of at most " + BATCH_SIZE +
+        " games.");
+    if (cursor == null) {
+      response.getWriter().println("All the games have been saved.");
+    } else {
+      response.getWriter().println("Continue with ?" + CURSOR + "=" + cursor);
+    }
+  }
+}
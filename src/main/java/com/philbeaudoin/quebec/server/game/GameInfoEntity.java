@@ -20,15 +20,17 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Ref;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
 import com.googlecode.objectify.annotation.Index;
-import com.googlecode.objectify.annotation.Load;
+import com.googlecode.objectify.annotation.Serialize;
 import com.philbeaudoin.quebec.server.user.UserInfoEntity;
 import com.philbeaudoin.quebec.shared.game.GameInfo;
 import com.philbeaudoin.quebec.shared.user.UserInfo;
+import com.philbeaudoin.quebec.shared.user.UserInfoDto;
 
 @Entity
 @Cache
@@ -36,14 +38,25 @@ public class GameInfoEntity implements GameInfo {
   @Id Long id;
   int nbPlayers;
   @Index Date creationDate;
-  @Load List<Ref<UserInfoEntity>> players = new ArrayList<Ref<UserInfoEntity>>();
+  // Not loaded along with the game, see playerInfos.
+  @Index List<Ref<UserInfoEntity>> players = new ArrayList<Ref<UserInfoEntity>>();
+  // A copy of the display information of the players, taken as they join, so that games can be
+  // listed without loading their players. Null for the games stored before it was introduced,
+  // the players of these games must be loaded.
+  @Serialize ArrayList<UserInfoDto> playerInfos;
+  // True while the game has empty seats. Indexed along with the creation date so the joinable
+  // games can be listed newest first without going through the full ones.
+  @Index boolean open;
   int currentPlayerIndex;
+  Date lastMoveDate;
   Ref<GameEntity> game;
 
   public GameInfoEntity(int nbPlayers, long creationTime) {
     this.nbPlayers = nbPlayers;
     this.creationDate = new Date(creationTime);
+    playerInfos = new ArrayList<UserInfoDto>(nbPlayers);
     currentPlayerIndex = -1;
+    open = nbPlayers > 0;
   }
 
   /**
@@ -68,16 +81,68 @@ public class GameInfoEntity implements GameInfo {
     return creationDate;
   }
 
+  /**
+   * Access the information of a player, as it was when the player joined. For the games that have
+   * no copy of it, see {@link #hasPlayerInfos()}, the player must have been loaded. Use
+   * {@link #getPlayerKey} when only the identity of the player is needed.
+   */
   @Override
   public UserInfo getPlayerInfo(int index) {
+    if (playerInfos != null) {
+      return index < playerInfos.size() ? playerInfos.get(index) : null;
+    }
     return index < players.size() ? players.get(index).get() : null;
   }
 
+  /**
+   * Checks whether the game keeps a copy of the information of its players. If not, the players
+   * must be loaded before calling {@link #getPlayerInfo}.
+   * @return True if the information of the players is kept with the game.
+   */
+  public boolean hasPlayerInfos() {
+    return playerInfos != null;
+  }
+
+  /**
+   * Access the key of a player, which does not require loading the player.
+   * @param index The index of the player.
+   * @return The key of the player, or null if the seat is still empty.
+   */
+  public Key<UserInfoEntity> getPlayerKey(int index) {
+    return index < players.size() ? players.get(index).getKey() : null;
+  }
+
   @Override
   public int getCurrentPlayerIndex() {
     return currentPlayerIndex;
   }
 
+  @Override
+  public Date getLastMoveDate() {
+    return lastMoveDate;
+  }
+
+  /**
+   * Records that a move has been played.
+   * @param currentPlayerIndex The index of the seat of the user who must play next, or -1 if there
+   *     is none. Indices that do not match a seat are recorded as -1.
+   * @param moveTime The time at which the move was played, in milliseconds.
+   */
+  public void recordMove(int currentPlayerIndex, long moveTime) {
+    this.currentPlayerIndex = currentPlayerIndex >= 0 && currentPlayerIndex < players.size() ?
+        currentPlayerIndex : -1;
+    lastMoveDate = new Date(moveTime);
+  }
+
+  /**
+   * Sets the open flag from the seats taken. Games stored before the flag was introduced load
+   * with it unset, and must be saved again to be listed, see
+   * {@link ObjectifyGameRepository#resaveGameInfos}.
+   */
+  void updateOpen() {
+    open = players.size() < nbPlayers;
+  }
+
   public int getNbEmptySeats() {
     return nbPlayers - players.size();
   }
@@ -87,6 +152,10 @@ public class GameInfoEntity implements GameInfo {
       throw new RuntimeException("");
     }
     players.add(Ref.create(userInfoEntity));
+    if (playerInfos != null) {
+      playerInfos.add(new UserInfoDto(userInfoEntity));
+    }
+    open = players.size() < nbPlayers;
     if (currentPlayerIndex < 0)
       currentPlayerIndex = 0;
   }
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.philbeaudoin.quebec.shared.game.GameInfoDto;
+
+/**
+ * A page of games, as they are stored, along with the cursor at which the next page starts.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class GameInfoPage {
+
+  private final List<GameInfoDto> games;
+  private final String nextCursor;
+
+  /**
+   * Creates a page of games.
+   * @param games The games of the page. The list is copied.
+   * @param nextCursor The web-safe cursor at which the next page starts, or null if this is the
+   *     last page.
+   */
+  public GameInfoPage(List<GameInfoDto> games, String nextCursor) {
+    this.games = new ArrayList<GameInfoDto>(games);
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Access the games of the page.
+   * @return A new list holding the games of the page. The list can be modified, but not the games.
+   */
+  public List<GameInfoDto> getGames() {
+    return new ArrayList<GameInfoDto>(games);
+  }
+
+  /**
+   * Access the cursor at which the next page starts.
+   * @return The web-safe cursor, or null if this is the last page.
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
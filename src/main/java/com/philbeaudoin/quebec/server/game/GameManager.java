@@ -20,8 +20,9 @@ import java.util.List;
 
 import com.gwtplatform.dispatch.shared.ActionException;
 import com.philbeaudoin.quebec.shared.action.GameListResult;
+import com.philbeaudoin.quebec.shared.action.GameSyncResult;
 import com.philbeaudoin.quebec.shared.game.GameInfo;
-import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.GameInfoDto;
 
 /**
  * Manages information relative to a game on the server.
@@ -32,10 +33,15 @@ public interface GameManager {
 
 
   /**
-   * List all the games for which some slots are open, with a set maximum.
-   * @return List of open games.
+   * Lists a page of the games for which some seats are still open, newest first. The first page
+   * also starts with the latest games of the current session user, whether they are open or not,
+   * so that they can be played. The first page of open games is cached for a short while, so it
+   * may not contain the games created or joined by other servers.
+   * @param cursor The web-safe cursor returned with the previous page, or null for the first page.
+   * @return The page of games, not anonymized yet.
+   * @throws ActionException If the cursor is not valid.
    */
-  List<GameInfoEntity> listOpenGames();
+  GameInfoPage listGames(String cursor) throws ActionException;
 
   /**
    * Creates a new game and stored it in the database. The current session user is automatically
@@ -61,7 +67,7 @@ public interface GameManager {
    * @param games The list of games.
    * @param game The game that must be found, or be inserted, in the list of games.
    */
-  void ensureListContainsGame(List<GameInfoEntity> games, GameInfoEntity game);
+  void ensureListContainsGame(List<GameInfoDto> games, GameInfoEntity game);
 
   /**
    * Given some game information to be transmitted back, anonymize it to remove sensitive fields
@@ -72,16 +78,42 @@ public interface GameManager {
   GameInfo anonymizeGameInfo(GameInfo gameInfo);
 
   /**
-   * Anonymizes and packages a list of {@link GameInfoEntity} so they can be returned over the wire.
-   * @param gameInfoEntities The entities to anonymize and package.
+   * Anonymizes and packages a page of games so they can be returned over the wire.
+   * @param games The games to anonymize and package.
+   * @param nextCursor The web-safe cursor at which the next page starts, or null if there is none.
    * @return The games anonymized in the right format to be sent over the wire.
    */
-  GameListResult GameInfoEntitiesToGameListResult(List<GameInfoEntity> gameInfoEntities);
+  GameListResult createGameListResult(List<GameInfoDto> games, String nextCursor);
 
   /**
    * Load the game with the specified id or creates it if it doesn't exist.
    * @param gameId The gameId of the game info entity for which to load the game.
-   * @return The state of the game info corresponding to the game entity.
+   * @return The game entity corresponding to the game info, holding the state of the game.
    */
-  GameState loadGame(long gameId);
+  GameEntity loadGame(long gameId);
+
+  /**
+   * Have the current session user perform one of the possible actions of a game, then play the
+   * moves of the artificial intelligences that follow. The new state is computed outside of any
+   * transaction and only saved if nobody else updated the game in the meantime.
+   * @param gameId The gameId of the game info entity for which to perform the action.
+   * @param version The version of the game state in which the action was selected.
+   * @param actionIndex The index of the action in the possible actions of that game state.
+   * @return The updated game entity.
+   * @throws ActionException If the action cannot be performed, or if the game state is not at the
+   *     given version anymore.
+   */
+  GameEntity performGameAction(long gameId, long version, int actionIndex)
+      throws ActionException;
+
+  /**
+   * Computes what a client holding a given version of a game state needs to bring it up to date.
+   * If the client is not too far behind, the moves played since its version are replayed to
+   * collect the changes they made. Otherwise the complete game state is returned.
+   * @param gameId The gameId of the game info entity of the game to sync.
+   * @param version The version of the game state held by the client.
+   * @return The changes since the version of the client, or the complete game state.
+   * @throws ActionException If the game cannot be found or is not started.
+   */
+  GameSyncResult syncGame(long gameId, long version) throws ActionException;
 }
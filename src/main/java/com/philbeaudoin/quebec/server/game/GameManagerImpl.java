@@ -17,30 +17,42 @@
 package com.philbeaudoin.quebec.server.game;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 import com.google.inject.Inject;
 import com.google.inject.servlet.RequestScoped;
 import com.googlecode.objectify.Key;
-import com.googlecode.objectify.Objectify;
-import com.googlecode.objectify.Ref;
-import com.googlecode.objectify.Work;
 import com.gwtplatform.dispatch.shared.ActionException;
-import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapper;
+import com.philbeaudoin.quebec.server.database.EntityPage;
+import com.philbeaudoin.quebec.server.database.RepositoryWork;
 import com.philbeaudoin.quebec.server.session.ServerSessionManager;
 import com.philbeaudoin.quebec.server.session.SessionInfoEntity;
+import com.philbeaudoin.quebec.server.user.UserInfoCache;
 import com.philbeaudoin.quebec.server.user.UserInfoEntity;
+import com.philbeaudoin.quebec.server.user.UserRepository;
 import com.philbeaudoin.quebec.shared.PlayerColor;
 import com.philbeaudoin.quebec.shared.action.GameListResult;
+import com.philbeaudoin.quebec.shared.action.GameStateResult;
+import com.philbeaudoin.quebec.shared.action.GameSyncResult;
 import com.philbeaudoin.quebec.shared.game.GameInfo;
 import com.philbeaudoin.quebec.shared.game.GameInfoDto;
+import com.philbeaudoin.quebec.shared.game.action.ActionPerformScoringPhase;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
-import com.philbeaudoin.quebec.shared.player.AiBrainSimple;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
 import com.philbeaudoin.quebec.shared.player.Player;
-import com.philbeaudoin.quebec.shared.player.PlayerLocalAi;
 import com.philbeaudoin.quebec.shared.player.PlayerLocalUser;
+import com.philbeaudoin.quebec.shared.player.PlayerState;
 import com.philbeaudoin.quebec.shared.user.UserInfo;
+import com.philbeaudoin.quebec.shared.user.UserInfoDto;
 
 /**
  * Implementation of {@link GameManager}.
@@ -48,31 +60,150 @@ import com.philbeaudoin.quebec.shared.user.UserInfo;
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 @RequestScoped
-public class GameManagerImpl implements GameManager, ObjectifyServiceWrapper {
+public class GameManagerImpl implements GameManager {
 
-  private final ObjectifyServiceWrapper objectifyServiceWrapper;
-  private final ServerSessionManager serverSessionManager;
-  private final GameControllerServer gameControllerServer;
+  // A client further behind than this number of versions receives the complete game state.
+  private static final long MAX_SYNC_VERSIONS = GameSnapshotEntity.INTERVAL;
+
+  // The number of open games in a page, and of games of the current user in the first page.
+  private static final int PAGE_SIZE = 20;
 
+  private final GameRepository gameRepository;
+  private final UserRepository userRepository;
+  private final ServerSessionManager serverSessionManager;
+  private final GameReplayer gameReplayer;
+  private final GameUpdateNotifier gameUpdateNotifier;
+  private final OpenGamesCache openGamesCache;
+  private final UserInfoCache userInfoCache;
 
   @Inject
-  public GameManagerImpl(ObjectifyServiceWrapper objectifyServiceWrapper,
+  public GameManagerImpl(GameRepository gameRepository,
+      UserRepository userRepository,
       ServerSessionManager serverSessionManager,
-      GameControllerServer gameControllerServer) {
-    this.objectifyServiceWrapper = objectifyServiceWrapper;
+      GameReplayer gameReplayer,
+      GameUpdateNotifier gameUpdateNotifier,
+      OpenGamesCache openGamesCache,
+      UserInfoCache userInfoCache) {
+    this.gameRepository = gameRepository;
+    this.userRepository = userRepository;
     this.serverSessionManager = serverSessionManager;
-    this.gameControllerServer = gameControllerServer;
+    this.gameReplayer = gameReplayer;
+    this.gameUpdateNotifier = gameUpdateNotifier;
+    this.openGamesCache = openGamesCache;
+    this.userInfoCache = userInfoCache;
   }
 
   @Override
-  public Objectify ofy() {
-    return objectifyServiceWrapper.ofy();
+  public GameInfoPage listGames(String cursor) throws ActionException {
+    if (cursor != null) {
+      try {
+        return loadOpenGames(cursor);
+      } catch (IllegalArgumentException e) {
+        throw new ActionException("Cannot list games, invalid cursor.");
+      }
+    }
+    GameInfoPage openGames = openGamesCache.get();
+    if (openGames == null) {
+      long generation = openGamesCache.getGeneration();
+      openGames = loadOpenGames(null);
+      openGamesCache.put(openGames, generation);
+    }
+    List<GameInfoDto> games = listGamesOfCurrentUser();
+    for (GameInfoDto game : openGames.getGames()) {
+      if (indexOfGame(games, game.getId()) < 0) {
+        games.add(game);
+      }
+    }
+    return new GameInfoPage(games, openGames.getNextCursor());
   }
 
-  @Override
-  public List<GameInfoEntity> listOpenGames() {
-    // TODO(beaudoin): Fix, now listing all games, including closed ones.
-    return ofy().load().type(GameInfoEntity.class).limit(50).order("creationDate").list();
+  /**
+   * Loads a page of the games that have empty seats, newest first.
+   * @param cursor The cursor at which the page starts, or null for the first page.
+   * @return The page of open games.
+   * @throws IllegalArgumentException If the cursor is not valid.
+   */
+  private GameInfoPage loadOpenGames(String cursor) {
+    EntityPage<GameInfoEntity> page = gameRepository.listOpenGames(cursor, PAGE_SIZE);
+    return new GameInfoPage(createGameInfoDtos(page.getEntities()), page.getNextCursor());
+  }
+
+  /**
+   * Loads the latest games in which the current session user has a seat, newest first.
+   * @return The games of the current user, empty if nobody is signed in.
+   */
+  private List<GameInfoDto> listGamesOfCurrentUser() {
+    SessionInfoEntity sessionInfoEntity = serverSessionManager.getSessionInfo();
+    if (sessionInfoEntity == null || !sessionInfoEntity.isSignedIn()) {
+      return new ArrayList<GameInfoDto>();
+    }
+    List<GameInfoEntity> gameInfoEntities = gameRepository.listGamesOfPlayer(
+        sessionInfoEntity.getUserInfoEntity().getId(), PAGE_SIZE);
+    return createGameInfoDtos(gameInfoEntities);
+  }
+
+  /**
+   * Creates the information to send about a list of games. Most games keep a copy of the
+   * information of their players. For the older ones, the players are taken from the
+   * {@link UserInfoCache}, and the ones that are not in it are loaded in a single batch.
+   * @param gameInfoEntities The games.
+   * @return The information about the games, in the same order.
+   */
+  private List<GameInfoDto> createGameInfoDtos(List<GameInfoEntity> gameInfoEntities) {
+    final Map<Long, UserInfoDto> players = new HashMap<Long, UserInfoDto>();
+    Set<Long> userIdsToLoad = new HashSet<Long>();
+    for (GameInfoEntity gameInfoEntity : gameInfoEntities) {
+      if (gameInfoEntity.hasPlayerInfos()) {
+        continue;
+      }
+      for (int i = 0; i < gameInfoEntity.getNbPlayers(); ++i) {
+        Key<UserInfoEntity> key = gameInfoEntity.getPlayerKey(i);
+        if (key != null && !players.containsKey(key.getId())) {
+          UserInfoDto player = userInfoCache.get(key.getId());
+          if (player != null) {
+            players.put(key.getId(), player);
+          } else {
+            userIdsToLoad.add(key.getId());
+          }
+        }
+      }
+    }
+    if (!userIdsToLoad.isEmpty()) {
+      for (UserInfoEntity userInfoEntity : userRepository.loadUsers(userIdsToLoad).values()) {
+        players.put(userInfoEntity.getId(), userInfoCache.put(userInfoEntity));
+      }
+    }
+
+    List<GameInfoDto> result = new ArrayList<GameInfoDto>(gameInfoEntities.size());
+    for (final GameInfoEntity gameInfoEntity : gameInfoEntities) {
+      if (gameInfoEntity.hasPlayerInfos()) {
+        result.add(new GameInfoDto(gameInfoEntity));
+        continue;
+      }
+      result.add(new GameInfoDto(new GameInfo() {
+        @Override public long getId() { return gameInfoEntity.getId(); }
+        @Override public int getNbPlayers() { return gameInfoEntity.getNbPlayers(); }
+        @Override public UserInfo getPlayerInfo(int index) {
+          Key<UserInfoEntity> key = gameInfoEntity.getPlayerKey(index);
+          return key == null ? null : players.get(key.getId());
+        }
+        @Override public Date getCreationDate() { return gameInfoEntity.getCreationDate(); }
+        @Override public int getCurrentPlayerIndex() {
+          return gameInfoEntity.getCurrentPlayerIndex();
+        }
+        @Override public Date getLastMoveDate() { return gameInfoEntity.getLastMoveDate(); }
+      }));
+    }
+    return result;
+  }
+
+  private static int indexOfGame(List<GameInfoDto> games, long gameId) {
+    for (int i = 0; i < games.size(); ++i) {
+      if (games.get(i).getId() == gameId) {
+        return i;
+      }
+    }
+    return -1;
   }
 
   @Override
@@ -86,7 +217,8 @@ public class GameManagerImpl implements GameManager, ObjectifyServiceWrapper {
     }
     GameInfoEntity gameInfoEntity = new GameInfoEntity(nbPlayers, (new Date()).getTime());
     gameInfoEntity.addPlayer(sessionInfoEntity.getUserInfoEntity());
-    ofy().save().entity(gameInfoEntity).now();
+    gameRepository.saveGameInfo(gameInfoEntity);
+    openGamesCache.invalidate();
     return gameInfoEntity;
   }
 
@@ -98,10 +230,10 @@ public class GameManagerImpl implements GameManager, ObjectifyServiceWrapper {
     }
     final UserInfoEntity currentUser = sessionInfoEntity.getUserInfoEntity();
     try {
-      GameInfoEntity result = ofy().transact(new Work<GameInfoEntity>() {
+      GameInfoEntity result = gameRepository.transact(new RepositoryWork<GameInfoEntity>() {
         @Override
         public GameInfoEntity run() {
-          GameInfoEntity game = ofy().load().type(GameInfoEntity.class).id(gameId).get();
+          GameInfoEntity game = gameRepository.loadGameInfo(gameId);
           if (game == null) {
             throw new RuntimeException("Cannot join game, game Id not found.");
           }
@@ -109,17 +241,15 @@ public class GameManagerImpl implements GameManager, ObjectifyServiceWrapper {
           if (game.getNbEmptySeats() <= 0) {
             throw new RuntimeException("Cannot join game, no empty seat.");
           }
-          for (int i = 0; i < game.getNbPlayers(); ++i) {
-            UserInfo player = game.getPlayerInfo(i);
-            if (player != null && player.getId() == currentUser.getId()) {
-              throw new RuntimeException("Cannot join game, game Id not found.");
-            }
+          if (getSeat(game, currentUser) >= 0) {
+            throw new RuntimeException("Cannot join game, game Id not found.");
           }
           game.addPlayer(currentUser);
-          ofy().save().entity(game).now();
+          gameRepository.saveGameInfo(game);
           return game;
         }
       });
+      openGamesCache.invalidate();
       return result;
     } catch (RuntimeException e) {
       throw new ActionException(e.getMessage());
@@ -127,14 +257,14 @@ public class GameManagerImpl implements GameManager, ObjectifyServiceWrapper {
   }
 
   @Override
-  public void ensureListContainsGame(List<GameInfoEntity> games, GameInfoEntity game) {
-    for (int i = 0; i < games.size(); ++i) {
-      if (games.get(i).getId() == game.getId()) {
-        games.set(i, game);
-        return;
-      }
+  public void ensureListContainsGame(List<GameInfoDto> games, GameInfoEntity game) {
+    GameInfoDto gameInfoDto = createGameInfoDtos(Collections.singletonList(game)).get(0);
+    int index = indexOfGame(games, game.getId());
+    if (index >= 0) {
+      games.set(index, gameInfoDto);
+    } else {
+      games.add(0, gameInfoDto);
     }
-    games.add(game);
   }
 
   @Override
@@ -148,58 +278,279 @@ public class GameManagerImpl implements GameManager, ObjectifyServiceWrapper {
       }
       @Override public Date getCreationDate() { return gameInfo.getCreationDate(); }
       @Override public int getCurrentPlayerIndex() { return gameInfo.getCurrentPlayerIndex(); }
+      @Override public Date getLastMoveDate() { return gameInfo.getLastMoveDate(); }
     };
   }
 
   @Override
-  public GameListResult GameInfoEntitiesToGameListResult(List<GameInfoEntity> gameInfoEntities) {
-    List<GameInfoDto> games = new ArrayList<GameInfoDto>(gameInfoEntities.size());
-    for (GameInfoEntity gameInfoEntity : gameInfoEntities) {
-      games.add(new GameInfoDto(anonymizeGameInfo(gameInfoEntity)));
+  public GameListResult createGameListResult(List<GameInfoDto> games, String nextCursor) {
+    List<GameInfoDto> anonymizedGames = new ArrayList<GameInfoDto>(games.size());
+    for (GameInfoDto game : games) {
+      anonymizedGames.add(new GameInfoDto(anonymizeGameInfo(game)));
     }
-    return new GameListResult(games);
+    return new GameListResult(anonymizedGames, nextCursor);
   }
 
   @Override
-  public GameState loadGame(final long gameId) {
-    return ofy().transact(new Work<GameState>() {
-      @Override
-      public GameState run() {
-        GameInfoEntity gameInfoEntity = ofy().load().type(GameInfoEntity.class).id(gameId).get();
-        if (gameInfoEntity == null) {
-          throw new RuntimeException("Cannot load game, game Id not found.");
-        }
-        // Find the first available seat. Ensure there is room for that player.
-        if (gameInfoEntity.getNbEmptySeats() != 0) {
-          throw new RuntimeException("Cannot load game, game is not complete.");
-        }
-        Ref<GameEntity> gameRef = gameInfoEntity.getGameRef();
-        GameEntity gameEntity = null;
-        if (gameRef != null) {
-          ofy().load().ref(gameRef);
-          gameEntity = gameRef.get();
+  public GameEntity loadGame(final long gameId) {
+    GameInfoEntity gameInfoEntity = loadCompleteGameInfo(gameId);
+    GameEntity result = gameRepository.loadGame(gameInfoEntity);
+    if (result == null) {
+      // The players are created before the transaction, their names may have to be loaded.
+      final List<Player> players = createPlayers(gameInfoEntity);
+      result = gameRepository.transact(new RepositoryWork<GameEntity>() {
+        @Override
+        public GameEntity run() {
+          GameInfoEntity storedGameInfoEntity = loadCompleteGameInfo(gameId);
+          GameEntity gameEntity = gameRepository.loadGame(storedGameInfoEntity);
+          if (gameEntity == null) {
+            long seed = new Random().nextLong();
+            gameEntity = new GameEntity(Key.create(GameInfoEntity.class, gameId), seed, players);
+            gameEntity.setGameState(gameReplayer.createInitialState(seed, players));
+            gameRepository.saveGame(gameEntity);
+            storedGameInfoEntity.setGame(gameEntity);
+            gameRepository.saveGameInfo(storedGameInfoEntity);
+          }
+          return gameEntity;
         }
-        if (gameEntity == null) {
-          // Create the game.
-
-          // TODO(beaudoin): Just creating a dummy 4 player game here.
-          GameState gameState = new GameState();
-          ArrayList<Player> players = new ArrayList<Player>(4);
-          players.add(new PlayerLocalUser(PlayerColor.BLACK, "You"));
-          players.add(new PlayerLocalAi(PlayerColor.PINK, "Johnny 5 Server", new AiBrainSimple()));
-          players.add(new PlayerLocalAi(PlayerColor.WHITE, "HAL Server", new AiBrainSimple()));
-          players.add(new PlayerLocalAi(PlayerColor.ORANGE, "Skynet Server", new AiBrainSimple()));
-          // Client-only game. We can start it right away.
-          gameControllerServer.initGame(gameState, players);
-
-          gameEntity = new GameEntity(Key.create(GameInfoEntity.class, gameId), gameState);
-          ofy().save().entity(gameEntity).now();
-          gameInfoEntity.setGame(gameEntity);
-          ofy().save().entity(gameInfoEntity).now();
+      });
+    }
+    if (result.getGameState() == null) {
+      result.setGameState(restoreGameState(result, result.getVersion()));
+    }
+    return result;
+  }
+
+  /**
+   * Loads the information of a game that has all its players.
+   * @param gameId The id of the game.
+   * @return The game info entity.
+   * @throws RuntimeException If the game does not exist or still has empty seats.
+   */
+  private GameInfoEntity loadCompleteGameInfo(long gameId) {
+    GameInfoEntity gameInfoEntity = gameRepository.loadGameInfo(gameId);
+    if (gameInfoEntity == null) {
+      throw new RuntimeException("Cannot load game, game Id not found.");
+    }
+    if (gameInfoEntity.getNbEmptySeats() != 0) {
+      throw new RuntimeException("Cannot load game, game is not complete.");
+    }
+    return gameInfoEntity;
+  }
+
+  /**
+   * Creates the players of a game about to start, one user player per seat. The index of each
+   * player in the game state is the index of the seat of its user, see {@link #getCurrentSeat}.
+   * @param gameInfoEntity The game, all its seats must be taken.
+   * @return The newly created players, in the order of the seats.
+   */
+  private List<Player> createPlayers(GameInfoEntity gameInfoEntity) {
+    int nbPlayers = gameInfoEntity.getNbPlayers();
+    Map<Long, UserInfoEntity> users = null;
+    if (!gameInfoEntity.hasPlayerInfos()) {
+      List<Long> userIds = new ArrayList<Long>(nbPlayers);
+      for (int seat = 0; seat < nbPlayers; ++seat) {
+        userIds.add(gameInfoEntity.getPlayerKey(seat).getId());
+      }
+      users = userRepository.loadUsers(userIds);
+    }
+    List<Player> players = new ArrayList<Player>(nbPlayers);
+    for (int seat = 0; seat < nbPlayers; ++seat) {
+      UserInfo userInfo = users == null ? gameInfoEntity.getPlayerInfo(seat) :
+          users.get(gameInfoEntity.getPlayerKey(seat).getId());
+      String name = userInfo == null || userInfo.getName() == null ? "Player " + (seat + 1) :
+          userInfo.getName();
+      players.add(new PlayerLocalUser(PlayerColor.NORMAL[seat], name));
+    }
+    return players;
+  }
+
+  @Override
+  public GameEntity performGameAction(final long gameId, final long version, int actionIndex)
+      throws ActionException {
+    SessionInfoEntity sessionInfoEntity = serverSessionManager.getSessionInfo();
+    if (sessionInfoEntity == null || !sessionInfoEntity.isSignedIn()) {
+      throw new ActionException("Must be signed in to play.");
+    }
+    GameInfoEntity gameInfoEntity = gameRepository.loadGameInfo(gameId);
+    if (gameInfoEntity == null) {
+      throw new ActionException("Cannot play, game Id not found.");
+    }
+    int seat = getSeat(gameInfoEntity, sessionInfoEntity.getUserInfoEntity());
+    if (seat < 0) {
+      throw new ActionException("Cannot play, not a player of this game.");
+    }
+    GameEntity gameEntity = gameRepository.loadGame(gameInfoEntity);
+    if (gameEntity == null) {
+      throw new ActionException("Cannot play, game is not started.");
+    }
+    if (gameEntity.getVersion() != version) {
+      throw new ActionException("Cannot play, the game has changed.");
+    }
+
+    // Compute the new state before opening the transaction, the AI moves can take a while.
+    final GameState gameState = restoreGameState(gameEntity, version);
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    if (possibleActions == null || actionIndex < 0 ||
+        actionIndex >= possibleActions.getNbActions()) {
+      throw new ActionException("Cannot play, invalid action.");
+    }
+    GameAction gameAction = possibleActions.getAction(actionIndex);
+    // Scoring phases are not played by the current player, any player can trigger them.
+    if (!(gameAction instanceof ActionPerformScoringPhase) &&
+        getCurrentSeat(gameInfoEntity, gameState) != seat) {
+      throw new ActionException("Cannot play, it's not your turn.");
+    }
+    final List<Integer> actionIndices = new ArrayList<Integer>();
+    gameReplayer.performAction(gameState, actionIndex);
+    actionIndices.add(actionIndex);
+
+    // The game is listed as waiting on nobody once it is over.
+    final int currentSeat = getCurrentSeat(gameInfoEntity, gameState);
+    final long moveTime = new Date().getTime();
+
+    // Only save if the game has not been updated since it was loaded. Only the moves are saved,
+    // along with a snapshot of the state every few versions. The summary of the game used to list
+    // it is updated along, it is in the same entity group.
+    GameEntity result;
+    try {
+      result = gameRepository.transact(new RepositoryWork<GameEntity>() {
+        @Override
+        public GameEntity run() {
+          GameInfoEntity storedGameInfoEntity = gameRepository.loadGameInfo(gameId);
+          GameEntity storedGameEntity = storedGameInfoEntity == null ? null :
+              gameRepository.loadGame(storedGameInfoEntity);
+          if (storedGameEntity == null || storedGameEntity.getVersion() != version) {
+            throw new RuntimeException("Cannot play, the game has changed.");
+          }
+          storedGameEntity.update(gameState);
+          long newVersion = storedGameEntity.getVersion();
+          Key<GameInfoEntity> owner = storedGameEntity.getOwner();
+          gameRepository.saveGame(storedGameEntity);
+          gameRepository.saveMoves(new GameMoveEntity(owner, newVersion, actionIndices));
+          if (newVersion % GameSnapshotEntity.INTERVAL == 0) {
+            gameRepository.saveSnapshot(new GameSnapshotEntity(owner, newVersion, gameState));
+          }
+          storedGameInfoEntity.recordMove(currentSeat, moveTime);
+          gameRepository.saveGameInfo(storedGameInfoEntity);
+          return storedGameEntity;
         }
-        return gameEntity.getGameState();
+      });
+    } catch (RuntimeException e) {
+      throw new ActionException(e.getMessage());
+    }
+    gameUpdateNotifier.notifyGameUpdated(gameId, result.getVersion());
+    return result;
+  }
+
+  @Override
+  public GameSyncResult syncGame(long gameId, long version) throws ActionException {
+    GameInfoEntity gameInfoEntity = gameRepository.loadGameInfo(gameId);
+    if (gameInfoEntity == null) {
+      throw new ActionException("Cannot sync, game Id not found.");
+    }
+    GameEntity gameEntity = gameRepository.loadGame(gameInfoEntity);
+    if (gameEntity == null) {
+      throw new ActionException("Cannot sync, game is not started.");
+    }
+    long currentVersion = gameEntity.getVersion();
+    if (version == currentVersion) {
+      return new GameSyncResult(new ArrayList<GameStateChange>(), currentVersion);
+    }
+    if (version < 0 || version > currentVersion || currentVersion - version > MAX_SYNC_VERSIONS) {
+      // Replaying that many moves costs more than sending the complete state.
+      GameState gameState = restoreGameState(gameEntity, currentVersion);
+      return new GameSyncResult(new GameStateResult(gameState, currentVersion));
+    }
+    GameState gameState = restoreGameState(gameEntity, version);
+    List<GameStateChange> changes = new ArrayList<GameStateChange>();
+    for (GameMoveEntity gameMoveEntity :
+        gameRepository.loadMoves(gameId, version + 1, currentVersion)) {
+      gameReplayer.replay(gameState, gameMoveEntity, changes);
+    }
+    return new GameSyncResult(changes, currentVersion);
+  }
+
+  /**
+   * Rebuilds the state of a game at a given version, replaying the moves played since the closest
+   * snapshot.
+   * @param gameEntity The game.
+   * @param version The version at which to rebuild the state, at most the version of the game.
+   * @return The newly created game state.
+   */
+  private GameState restoreGameState(GameEntity gameEntity, long version) {
+    long gameId = gameEntity.getOwner().getId();
+    long snapshotVersion = version - version % GameSnapshotEntity.INTERVAL;
+    GameState gameState = null;
+    if (snapshotVersion > 0) {
+      GameSnapshotEntity snapshot = gameRepository.loadSnapshot(gameId, snapshotVersion);
+      if (snapshot != null) {
+        gameState = snapshot.createGameState();
+      }
+    }
+    if (gameState == null) {
+      snapshotVersion = 0;
+      gameState = gameReplayer.createInitialState(gameEntity.getSeed(), gameEntity.getPlayers());
+    }
+
+    for (GameMoveEntity gameMoveEntity :
+        gameRepository.loadMoves(gameId, snapshotVersion + 1, version)) {
+      gameReplayer.replay(gameState, gameMoveEntity);
+    }
+    return gameState;
+  }
+
+  /**
+   * Finds the index of the player who must play next in a game state.
+   * @param gameState The game state.
+   * @return The index of the current player, or -1 if the game is over.
+   */
+  private static int getCurrentPlayerIndex(GameState gameState) {
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    if (possibleActions == null || possibleActions.getNbActions() == 0) {
+      return -1;
+    }
+    List<PlayerState> playerStates = gameState.getPlayerStates();
+    for (int i = 0; i < playerStates.size(); ++i) {
+      if (playerStates.get(i).isCurrentPlayer()) {
+        return i;
       }
-    });
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the seat of the player who must play next. The player at a given index in the game state
+   * is the one of the user in the seat with the same index, see {@link #createPlayers}.
+   * @param gameInfoEntity The game.
+   * @param gameState The state of the game.
+   * @return The index of the seat, or -1 if the game is over or the current player is not one of
+   *     the users of the game.
+   */
+  private static int getCurrentSeat(GameInfoEntity gameInfoEntity, GameState gameState) {
+    int currentPlayerIndex = getCurrentPlayerIndex(gameState);
+    if (currentPlayerIndex < 0 || currentPlayerIndex >= gameInfoEntity.getNbPlayers() ||
+        !(gameState.getPlayerStates().get(currentPlayerIndex).getPlayer()
+            instanceof PlayerLocalUser)) {
+      return -1;
+    }
+    return currentPlayerIndex;
+  }
+
+  /**
+   * Finds the seat of a user in a game.
+   * @param gameInfoEntity The game.
+   * @param userInfoEntity The user.
+   * @return The index of the seat of the user, or -1 if the user has no seat in the game.
+   */
+  private static int getSeat(GameInfoEntity gameInfoEntity, UserInfoEntity userInfoEntity) {
+    for (int i = 0; i < gameInfoEntity.getNbPlayers(); ++i) {
+      Key<UserInfoEntity> player = gameInfoEntity.getPlayerKey(i);
+      if (player != null && player.getId() == userInfoEntity.getId()) {
+        return i;
+      }
+    }
+    return -1;
   }
 
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.game;
+
+import java.util.List;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.annotation.Cache;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Parent;
+
+/**
+ * The moves that brought a game from one version to the next, usually a move from a player
+ * followed by the moves of the artificial intelligences. Each move is stored as the index of the
+ * action in the possible actions of the game state, on a single byte. The id is the version
+ * reached after the moves, so the moves of a game can be loaded by key.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Entity
+@Cache
+public class GameMoveEntity {
+
+  // There are never that many possible actions, so an index fits in one byte.
+  private static final int MAX_ACTION_INDEX = 0xff;
+
+  @Parent Key<GameInfoEntity> owner;
+  @Id Long version;
+  byte[] actionIndices;
+
+  public GameMoveEntity(Key<GameInfoEntity> owner, long version, List<Integer> actionIndices) {
+    this.owner = owner;
+    this.version = version;
+    this.actionIndices = new byte[actionIndices.size()];
+    for (int i = 0; i < this.actionIndices.length; ++i) {
+      int actionIndex = actionIndices.get(i);
+      if (actionIndex < 0 || actionIndex > MAX_ACTION_INDEX) {
+        throw new IllegalArgumentException("Action index out of range: " + actionIndex);
+      }
+      this.actionIndices[i] = (byte) actionIndex;
+    }
+  }
+
+  /**
+   * Creates moves from action indices that have already been packed, one per byte.
+   * @param owner The game info entity of the game.
+   * @param version The version reached after the moves.
+   * @param actionIndices The packed action indices, they are not copied.
+   */
+  GameMoveEntity(Key<GameInfoEntity> owner, long version, byte[] actionIndices) {
+    this.owner = owner;
+    this.version = version;
+    this.actionIndices = actionIndices;
+  }
+
+  /**
+   * For serialization only.
+   */
+  @SuppressWarnings("unused")  private GameMoveEntity() {
+  }
+
+  /**
+   * Creates the key of the moves that brought a game to a given version.
+   * @param owner The game info entity of the game.
+   * @param version The version reached after the moves.
+   * @return The key.
+   */
+  public static Key<GameMoveEntity> key(Key<GameInfoEntity> owner, long version) {
+    return Key.create(owner, GameMoveEntity.class, version);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public int getNbMoves() {
+    return actionIndices.length;
+  }
+
+  public int getActionIndex(int move) {
+    return actionIndices[move] & MAX_ACTION_INDEX;
+  }
+}
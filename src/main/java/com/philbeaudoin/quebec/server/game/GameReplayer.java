@@ -0,0 +1,97 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.game;
+
+import java.util.List;
+
+import com.google.inject.Inject;
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.state.JavaRandomShuffler;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+import com.philbeaudoin.quebec.shared.player.Player;
+
+/**
+ * Rebuilds the state of a game from its setup and the moves played, each move being the index of
+ * an action in the possible actions. The tiles are only shuffled when the game is set up and the
+ * rules are otherwise deterministic, so replaying the same moves always gives the same state.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class GameReplayer {
+
+  private final GameControllerServer gameControllerServer;
+
+  @Inject
+  GameReplayer(GameControllerServer gameControllerServer) {
+    this.gameControllerServer = gameControllerServer;
+  }
+
+  /**
+   * Creates the state of a game before any move is played.
+   * @param seed The seed used to shuffle the tiles.
+   * @param players The players, in the order in which they play.
+   * @return The initial game state.
+   */
+  public GameState createInitialState(long seed, List<Player> players) {
+    GameState gameState = new GameState();
+    GameControllerBasic.resetGameState(gameState, players, new JavaRandomShuffler(seed));
+    gameControllerServer.configurePossibleActions(gameState);
+    return gameState;
+  }
+
+  /**
+   * Plays the moves stored in a move entity.
+   * @param gameState The game state in which to play, it is modified in place.
+   * @param gameMoveEntity The moves to play.
+   */
+  public void replay(GameState gameState, GameMoveEntity gameMoveEntity) {
+    for (int move = 0; move < gameMoveEntity.getNbMoves(); ++move) {
+      performAction(gameState, gameMoveEntity.getActionIndex(move));
+    }
+  }
+
+  /**
+   * Plays the moves stored in a move entity and collects the changes they made.
+   * @param gameState The game state in which to play, it is modified in place.
+   * @param gameMoveEntity The moves to play.
+   * @param changes The list to which the change made by each move is added.
+   */
+  public void replay(GameState gameState, GameMoveEntity gameMoveEntity,
+      List<GameStateChange> changes) {
+    for (int move = 0; move < gameMoveEntity.getNbMoves(); ++move) {
+      changes.add(performAction(gameState, gameMoveEntity.getActionIndex(move)));
+    }
+  }
+
+  /**
+   * Plays one of the possible actions of a game state.
+   * @param gameState The game state in which to play, it is modified in place.
+   * @param actionIndex The index of the action in the possible actions of the game state.
+   * @return The change made to the game state.
+   */
+  public GameStateChange performAction(GameState gameState, int actionIndex) {
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    if (possibleActions == null || actionIndex >= possibleActions.getNbActions()) {
+      throw new IllegalStateException("Cannot replay move, invalid action index " + actionIndex);
+    }
+    GameAction gameAction = possibleActions.getAction(actionIndex);
+    return gameControllerServer.applyAction(gameState, gameAction);
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.game;
+
+import java.util.List;
+
+import com.philbeaudoin.quebec.server.database.EntityPage;
+import com.philbeaudoin.quebec.server.database.RepositoryWork;
+
+/**
+ * Stores the games: the information used to list them, their {@link GameEntity}, their moves and
+ * the snapshots of their state. See {@link com.philbeaudoin.quebec.server.guice.StorageModule} for
+ * the available implementations.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface GameRepository {
+
+  /**
+   * Runs a work in a transaction.
+   * @param work The work to run, it must only use this repository and touch a single game.
+   * @return The result of the work.
+   */
+  <R> R transact(RepositoryWork<R> work);
+
+  /**
+   * Loads the information of a game.
+   * @param gameId The id of the game.
+   * @return The game info entity, or null if there is no such game.
+   */
+  GameInfoEntity loadGameInfo(long gameId);
+
+  /**
+   * Saves the information of a game. A new game is given its id.
+   * @param gameInfoEntity The game info entity to save.
+   */
+  void saveGameInfo(GameInfoEntity gameInfoEntity);
+
+  /**
+   * Loads a page of the games that have empty seats, newest first.
+   * @param cursor The cursor returned with the previous page, or null for the first page.
+   * @param limit The maximum number of games in the page.
+   * @return The page of games. Only a full page has a cursor to the next one.
+   * @throws IllegalArgumentException If the cursor is not valid.
+   */
+  EntityPage<GameInfoEntity> listOpenGames(String cursor, int limit);
+
+  /**
+   * Loads the latest games in which a user has a seat, newest first.
+   * @param userId The id of the user.
+   * @param limit The maximum number of games to load.
+   * @return The games.
+   */
+  List<GameInfoEntity> listGamesOfPlayer(long userId, int limit);
+
+  /**
+   * Loads the game entity of a game.
+   * @param gameInfoEntity The game info entity of the game.
+   * @return The game entity, or null if the game has not been started. Its state is not set.
+   */
+  GameEntity loadGame(GameInfoEntity gameInfoEntity);
+
+  /**
+   * Saves the game entity of a game. A new game entity is given its id.
+   * @param gameEntity The game entity to save.
+   */
+  void saveGame(GameEntity gameEntity);
+
+  /**
+   * Loads the moves of a game in a single batch.
+   * @param gameId The id of the game.
+   * @param fromVersion The version of the first move to load.
+   * @param toVersion The version of the last move to load, inclusive.
+   * @return The moves, ordered by version.
+   * @throws RuntimeException If some of the moves are missing.
+   */
+  List<GameMoveEntity> loadMoves(long gameId, long fromVersion, long toVersion);
+
+  /**
+   * Saves the moves that brought a game to a new version.
+   * @param gameMoveEntity The moves to save.
+   */
+  void saveMoves(GameMoveEntity gameMoveEntity);
+
+  /**
+   * Loads the snapshot of the state of a game at a given version.
+   * @param gameId The id of the game.
+   * @param version The version of the snapshot.
+   * @return The snapshot, or null if there is none at this version.
+   */
+  GameSnapshotEntity loadSnapshot(long gameId, long version);
+
+  /**
+   * Saves a snapshot of the state of a game. The snapshot may not be kept, in which case the
+   * state is rebuilt from an earlier one.
+   * @param gameSnapshotEntity The snapshot to save.
+   */
+  void saveSnapshot(GameSnapshotEntity gameSnapshotEntity);
+}
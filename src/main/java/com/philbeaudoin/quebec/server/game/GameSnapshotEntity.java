@@ -0,0 +1,105 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.game;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.annotation.Cache;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Parent;
+import com.googlecode.objectify.annotation.Serialize;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.state.GameStateCodec;
+
+/**
+ * The complete state of a game at a given version, saved every few versions so that loading a
+ * game only replays the moves played since the last snapshot. The id is the version. The state is
+ * stored with {@link GameStateCodec} when possible, and serialized otherwise.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Entity
+@Cache
+public class GameSnapshotEntity {
+
+  // Number of versions between two snapshots.
+  public static final long INTERVAL = 16;
+
+  @Parent Key<GameInfoEntity> owner;
+  @Id Long version;
+  byte[] encodedGameState;
+  @Serialize(zip=true) GameState gameState;
+
+  public GameSnapshotEntity(Key<GameInfoEntity> owner, long version, GameState gameState) {
+    this.owner = owner;
+    this.version = version;
+    if (GameStateCodec.canEncode(gameState)) {
+      this.encodedGameState = GameStateCodec.encode(gameState);
+    } else {
+      this.gameState = gameState;
+    }
+  }
+
+  /**
+   * Creates a snapshot from a game state that has already been encoded with
+   * {@link GameStateCodec}.
+   * @param owner The game info entity of the game.
+   * @param version The version of the snapshot.
+   * @param encodedGameState The encoded game state, it is not copied.
+   */
+  GameSnapshotEntity(Key<GameInfoEntity> owner, long version, byte[] encodedGameState) {
+    this.owner = owner;
+    this.version = version;
+    this.encodedGameState = encodedGameState;
+  }
+
+  /**
+   * For serialization only.
+   */
+  @SuppressWarnings("unused")
+  private GameSnapshotEntity() {
+  }
+
+  /**
+   * Creates the key of the snapshot of a game at a given version.
+   * @param owner The game info entity of the game.
+   * @param version The version of the snapshot.
+   * @return The key.
+   */
+  public static Key<GameSnapshotEntity> key(Key<GameInfoEntity> owner, long version) {
+    return Key.create(owner, GameSnapshotEntity.class, version);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Creates the game state saved in this snapshot, along with its possible actions. The snapshot
+   * may be cached, so the returned state is never shared with it and can be modified.
+   * @return The newly created game state.
+   */
+  public GameState createGameState() {
+    if (encodedGameState != null) {
+      return GameStateCodec.decode(encodedGameState);
+    }
+    // The possible actions are not modified by the moves, they can be shared.
+    GameState result = new GameState(gameState);
+    result.setPossibleActions(gameState.getPossibleActions());
+    return result;
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.game;
+
+/**
+ * Lets requests wait until a game is updated, so that clients learn about the moves of the other
+ * players without polling the datastore. Games are identified by the id of their game info entity
+ * and updates by the version of the game state.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface GameUpdateNotifier {
+
+  /**
+   * Signals that a game has been updated, waking up the requests waiting for it.
+   * @param gameId The gameId of the game info entity of the game.
+   * @param version The new version of the game state.
+   */
+  void notifyGameUpdated(long gameId, long version);
+
+  /**
+   * Waits until a game is updated past a given version, or until a timeout.
+   * @param gameId The gameId of the game info entity of the game.
+   * @param version The version of the game state known by the caller.
+   * @param timeoutMillis The maximum time to wait, in milliseconds.
+   * @return True if the game is known to have been updated past the version, false if the wait
+   *     timed out. An update made through another server may not be noticed.
+   * @throws InterruptedException If the thread is interrupted while waiting.
+   */
+  boolean waitForUpdate(long gameId, long version, long timeoutMillis)
+      throws InterruptedException;
+}
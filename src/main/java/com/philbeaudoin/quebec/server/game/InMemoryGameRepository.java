@@ -0,0 +1,443 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.game;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Ref;
+import com.philbeaudoin.quebec.server.database.EntityPage;
+import com.philbeaudoin.quebec.server.database.InMemoryStore;
+import com.philbeaudoin.quebec.server.database.RecordLog;
+import com.philbeaudoin.quebec.server.user.UserInfoEntity;
+import com.philbeaudoin.quebec.shared.game.state.GameStateCodec;
+import com.philbeaudoin.quebec.shared.player.Player;
+import com.philbeaudoin.quebec.shared.user.UserInfoDto;
+import com.philbeaudoin.quebec.shared.utils.BinaryReader;
+import com.philbeaudoin.quebec.shared.utils.BinaryWriter;
+
+/**
+ * Implementation of {@link GameRepository} that keeps the games in memory, optionally logging
+ * them to a {@link RecordLog}. The open games and the games of each player are kept sorted, newest
+ * first, so listing them only goes through the games of the page. The moves and snapshots never
+ * change once saved, they are kept as entities and shared between requests.
+ * <p />
+ * Only the snapshots of states that {@link GameStateCodec} can encode are kept, the other states
+ * are rebuilt from the initial state of their game.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class InMemoryGameRepository extends InMemoryStore implements GameRepository {
+
+  // The types of records.
+  private static final int GAME_INFO = 0;
+  private static final int GAME = 1;
+  private static final int MOVES = 2;
+  private static final int SNAPSHOT = 3;
+
+  private final Map<Long, StoredGame> games = new HashMap<Long, StoredGame>();
+  private final TreeSet<GameOrder> openGames = new TreeSet<GameOrder>();
+  private final Map<Long, TreeSet<GameOrder>> gamesOfPlayers =
+      new HashMap<Long, TreeSet<GameOrder>>();
+  private long nextGameId = 1;
+  private long nextGameEntityId = 1;
+
+  /**
+   * Creates a repository, with the games of the log if there is one.
+   * @param log The log to which the changes are appended, or null to keep them in memory only.
+   */
+  public InMemoryGameRepository(RecordLog log) {
+    super(log);
+    replayLog();
+  }
+
+  @Override
+  public GameInfoEntity loadGameInfo(long gameId) {
+    byte record[];
+    synchronized (this) {
+      StoredGame storedGame = games.get(gameId);
+      record = storedGame == null ? null : storedGame.gameInfo;
+    }
+    return record == null ? null : decodeGameInfo(record);
+  }
+
+  @Override
+  public void saveGameInfo(GameInfoEntity gameInfoEntity) {
+    synchronized (this) {
+      if (gameInfoEntity.id == null) {
+        gameInfoEntity.id = nextGameId++;
+      }
+    }
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(GAME_INFO);
+    writer.writeVarLong(gameInfoEntity.id);
+    writer.writeVarInt(gameInfoEntity.nbPlayers);
+    writer.writeVarLong(gameInfoEntity.creationDate.getTime());
+    writer.writeVarInt(gameInfoEntity.players.size());
+    for (Ref<UserInfoEntity> player : gameInfoEntity.players) {
+      writer.writeVarLong(player.getKey().getId());
+    }
+    writer.writeBoolean(gameInfoEntity.playerInfos != null);
+    if (gameInfoEntity.playerInfos != null) {
+      writer.writeVarInt(gameInfoEntity.playerInfos.size());
+      for (UserInfoDto playerInfo : gameInfoEntity.playerInfos) {
+        writer.writeVarLong(playerInfo.getId());
+        writer.writeString(playerInfo.getGoogleId());
+        writer.writeString(playerInfo.getEmail());
+        writer.writeString(playerInfo.getName());
+      }
+    }
+    writer.writeBoolean(gameInfoEntity.open);
+    writer.writeVarInt(gameInfoEntity.currentPlayerIndex);
+    writer.writeBoolean(gameInfoEntity.lastMoveDate != null);
+    if (gameInfoEntity.lastMoveDate != null) {
+      writer.writeVarLong(gameInfoEntity.lastMoveDate.getTime());
+    }
+    writer.writeVarLong(gameInfoEntity.game == null ? -1 : gameInfoEntity.game.getKey().getId());
+    write(writer);
+  }
+
+  @Override
+  public EntityPage<GameInfoEntity> listOpenGames(String cursor, int limit) {
+    List<byte[]> records = new ArrayList<byte[]>(limit);
+    String nextCursor = null;
+    synchronized (this) {
+      Iterable<GameOrder> gameOrders = cursor == null ? openGames :
+          openGames.tailSet(GameOrder.fromCursor(cursor), false);
+      for (GameOrder gameOrder : gameOrders) {
+        if (records.size() == limit) {
+          break;
+        }
+        records.add(games.get(gameOrder.gameId).gameInfo);
+        if (records.size() == limit) {
+          nextCursor = gameOrder.toCursor();
+        }
+      }
+    }
+    return new EntityPage<GameInfoEntity>(decodeGameInfos(records), nextCursor);
+  }
+
+  @Override
+  public List<GameInfoEntity> listGamesOfPlayer(long userId, int limit) {
+    List<byte[]> records = new ArrayList<byte[]>(limit);
+    synchronized (this) {
+      TreeSet<GameOrder> gameOrders = gamesOfPlayers.get(userId);
+      if (gameOrders != null) {
+        for (GameOrder gameOrder : gameOrders) {
+          if (records.size() == limit) {
+            break;
+          }
+          records.add(games.get(gameOrder.gameId).gameInfo);
+        }
+      }
+    }
+    return decodeGameInfos(records);
+  }
+
+  @Override
+  public GameEntity loadGame(GameInfoEntity gameInfoEntity) {
+    if (gameInfoEntity.getGameRef() == null) {
+      return null;
+    }
+    byte record[];
+    synchronized (this) {
+      StoredGame storedGame = games.get(gameInfoEntity.getId());
+      record = storedGame == null ? null : storedGame.game;
+    }
+    if (record == null) {
+      return null;
+    }
+    BinaryReader reader = new BinaryReader(record);
+    reader.readByte();
+    Key<GameInfoEntity> owner = Key.create(GameInfoEntity.class, reader.readVarLong());
+    long id = reader.readVarLong();
+    long seed = reader.readVarLong();
+    int nbPlayers = reader.readVarInt();
+    List<Player> players = new ArrayList<Player>(nbPlayers);
+    for (int i = 0; i < nbPlayers; ++i) {
+      players.add(GameStateCodec.readPlayer(reader));
+    }
+    GameEntity result = new GameEntity(owner, seed, players);
+    result.id = id;
+    result.version = reader.readVarLong();
+    return result;
+  }
+
+  @Override
+  public void saveGame(GameEntity gameEntity) {
+    for (Player player : gameEntity.players) {
+      if (!GameStateCodec.canEncode(player)) {
+        throw new IllegalArgumentException("Cannot store player " + player.getName() + ".");
+      }
+    }
+    synchronized (this) {
+      if (gameEntity.id == null) {
+        gameEntity.id = nextGameEntityId++;
+      }
+    }
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(GAME);
+    writer.writeVarLong(gameEntity.owner.getId());
+    writer.writeVarLong(gameEntity.id);
+    writer.writeVarLong(gameEntity.seed);
+    writer.writeVarInt(gameEntity.players.size());
+    for (Player player : gameEntity.players) {
+      GameStateCodec.writePlayer(writer, player);
+    }
+    writer.writeVarLong(gameEntity.version);
+    write(writer);
+  }
+
+  @Override
+  public synchronized List<GameMoveEntity> loadMoves(long gameId, long fromVersion,
+      long toVersion) {
+    StoredGame storedGame = games.get(gameId);
+    List<GameMoveEntity> result = new ArrayList<GameMoveEntity>();
+    for (long moveVersion = fromVersion; moveVersion <= toVersion; ++moveVersion) {
+      GameMoveEntity gameMoveEntity = storedGame == null ? null :
+          storedGame.moves.get(moveVersion);
+      if (gameMoveEntity == null) {
+        throw new RuntimeException("Cannot load game, moves are missing.");
+      }
+      result.add(gameMoveEntity);
+    }
+    return result;
+  }
+
+  @Override
+  public void saveMoves(GameMoveEntity gameMoveEntity) {
+    write(encodeMoves(gameMoveEntity));
+  }
+
+  @Override
+  public synchronized GameSnapshotEntity loadSnapshot(long gameId, long version) {
+    StoredGame storedGame = games.get(gameId);
+    return storedGame == null ? null : storedGame.snapshots.get(version);
+  }
+
+  @Override
+  public void saveSnapshot(GameSnapshotEntity gameSnapshotEntity) {
+    if (gameSnapshotEntity.encodedGameState == null) {
+      return;
+    }
+    write(encodeSnapshot(gameSnapshotEntity));
+  }
+
+  @Override
+  protected void apply(byte record[]) {
+    BinaryReader reader = new BinaryReader(record);
+    int type = reader.readByte();
+    long gameId = reader.readVarLong();
+    StoredGame storedGame = games.get(gameId);
+    if (storedGame == null) {
+      storedGame = new StoredGame();
+      games.put(gameId, storedGame);
+    }
+    switch (type) {
+    case GAME_INFO:
+      if (storedGame.gameInfo != null) {
+        unindex(decodeGameInfo(storedGame.gameInfo));
+      }
+      storedGame.gameInfo = record;
+      index(decodeGameInfo(record));
+      nextGameId = Math.max(nextGameId, gameId + 1);
+      break;
+    case GAME:
+      storedGame.game = record;
+      nextGameEntityId = Math.max(nextGameEntityId, reader.readVarLong() + 1);
+      break;
+    case MOVES:
+      long moveVersion = reader.readVarLong();
+      storedGame.moves.put(moveVersion, new GameMoveEntity(
+          Key.create(GameInfoEntity.class, gameId), moveVersion, reader.readBytes()));
+      break;
+    case SNAPSHOT:
+      long snapshotVersion = reader.readVarLong();
+      storedGame.snapshots.put(snapshotVersion, new GameSnapshotEntity(
+          Key.create(GameInfoEntity.class, gameId), snapshotVersion, reader.readBytes()));
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown record type: " + type);
+    }
+  }
+
+  @Override
+  protected List<byte[]> snapshot() {
+    List<byte[]> result = new ArrayList<byte[]>();
+    for (StoredGame storedGame : games.values()) {
+      if (storedGame.gameInfo != null) {
+        result.add(storedGame.gameInfo);
+      }
+      if (storedGame.game != null) {
+        result.add(storedGame.game);
+      }
+      for (GameMoveEntity gameMoveEntity : storedGame.moves.values()) {
+        result.add(encodeMoves(gameMoveEntity).toByteArray());
+      }
+      for (GameSnapshotEntity gameSnapshotEntity : storedGame.snapshots.values()) {
+        result.add(encodeSnapshot(gameSnapshotEntity).toByteArray());
+      }
+    }
+    return result;
+  }
+
+  private void index(GameInfoEntity gameInfoEntity) {
+    GameOrder gameOrder = new GameOrder(gameInfoEntity);
+    if (gameInfoEntity.open) {
+      openGames.add(gameOrder);
+    }
+    for (Ref<UserInfoEntity> player : gameInfoEntity.players) {
+      long userId = player.getKey().getId();
+      TreeSet<GameOrder> gameOrders = gamesOfPlayers.get(userId);
+      if (gameOrders == null) {
+        gameOrders = new TreeSet<GameOrder>();
+        gamesOfPlayers.put(userId, gameOrders);
+      }
+      gameOrders.add(gameOrder);
+    }
+  }
+
+  private void unindex(GameInfoEntity gameInfoEntity) {
+    GameOrder gameOrder = new GameOrder(gameInfoEntity);
+    openGames.remove(gameOrder);
+    for (Ref<UserInfoEntity> player : gameInfoEntity.players) {
+      TreeSet<GameOrder> gameOrders = gamesOfPlayers.get(player.getKey().getId());
+      if (gameOrders != null) {
+        gameOrders.remove(gameOrder);
+      }
+    }
+  }
+
+  private static BinaryWriter encodeMoves(GameMoveEntity gameMoveEntity) {
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(MOVES);
+    writer.writeVarLong(gameMoveEntity.owner.getId());
+    writer.writeVarLong(gameMoveEntity.version);
+    writer.writeBytes(gameMoveEntity.actionIndices);
+    return writer;
+  }
+
+  private static BinaryWriter encodeSnapshot(GameSnapshotEntity gameSnapshotEntity) {
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(SNAPSHOT);
+    writer.writeVarLong(gameSnapshotEntity.owner.getId());
+    writer.writeVarLong(gameSnapshotEntity.version);
+    writer.writeBytes(gameSnapshotEntity.encodedGameState);
+    return writer;
+  }
+
+  private static List<GameInfoEntity> decodeGameInfos(List<byte[]> records) {
+    List<GameInfoEntity> result = new ArrayList<GameInfoEntity>(records.size());
+    for (byte record[] : records) {
+      result.add(decodeGameInfo(record));
+    }
+    return result;
+  }
+
+  private static GameInfoEntity decodeGameInfo(byte record[]) {
+    BinaryReader reader = new BinaryReader(record);
+    reader.readByte();
+    long id = reader.readVarLong();
+    int nbPlayers = reader.readVarInt();
+    GameInfoEntity result = new GameInfoEntity(nbPlayers, reader.readVarLong());
+    result.id = id;
+    int nbSeated = reader.readVarInt();
+    for (int i = 0; i < nbSeated; ++i) {
+      Key<UserInfoEntity> player = Key.create(UserInfoEntity.class, reader.readVarLong());
+      result.players.add(Ref.create(player));
+    }
+    if (reader.readBoolean()) {
+      int nbPlayerInfos = reader.readVarInt();
+      for (int i = 0; i < nbPlayerInfos; ++i) {
+        result.playerInfos.add(new UserInfoDto(reader.readVarLong(), reader.readString(),
+            reader.readString(), reader.readString()));
+      }
+    } else {
+      result.playerInfos = null;
+    }
+    result.open = reader.readBoolean();
+    result.currentPlayerIndex = reader.readVarInt();
+    if (reader.readBoolean()) {
+      result.lastMoveDate = new Date(reader.readVarLong());
+    }
+    long gameEntityId = reader.readVarLong();
+    if (gameEntityId != -1) {
+      Key<GameInfoEntity> owner = Key.create(GameInfoEntity.class, id);
+      Key<GameEntity> game = Key.create(owner, GameEntity.class, gameEntityId);
+      result.game = Ref.create(game);
+    }
+    return result;
+  }
+
+  /**
+   * The records of a game, along with its moves and snapshots.
+   */
+  private static class StoredGame {
+    byte gameInfo[];
+    byte game[];
+    final Map<Long, GameMoveEntity> moves = new HashMap<Long, GameMoveEntity>();
+    final Map<Long, GameSnapshotEntity> snapshots = new HashMap<Long, GameSnapshotEntity>();
+  }
+
+  /**
+   * The position of a game in the lists of games, newest first. Games created at the same time
+   * are ordered by decreasing id.
+   */
+  private static class GameOrder implements Comparable<GameOrder> {
+    final long creationTime;
+    final long gameId;
+
+    GameOrder(long creationTime, long gameId) {
+      this.creationTime = creationTime;
+      this.gameId = gameId;
+    }
+
+    GameOrder(GameInfoEntity gameInfoEntity) {
+      this(gameInfoEntity.creationDate.getTime(), gameInfoEntity.getId());
+    }
+
+    static GameOrder fromCursor(String cursor) {
+      int separator = cursor.indexOf(':');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+      }
+      return new GameOrder(Long.parseLong(cursor.substring(0, separator)),
+          Long.parseLong(cursor.substring(separator + 1)));
+    }
+
+    String toCursor() {
+      return creationTime + ":" + gameId;
+    }
+
+    @Override
+    public int compareTo(GameOrder other) {
+      if (creationTime != other.creationTime) {
+        return creationTime > other.creationTime ? -1 : 1;
+      }
+      if (gameId != other.gameId) {
+        return gameId > other.gameId ? -1 : 1;
+      }
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.game;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.inject.Singleton;
+
+/**
+ * An implementation of {@link GameUpdateNotifier} that only knows about the updates made through
+ * this server. It remembers the latest version of the games recently updated, and keeps a monitor
+ * per game so that an update only wakes up the requests waiting on that game.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class LocalGameUpdateNotifier implements GameUpdateNotifier {
+
+  // Number of games for which the latest version is remembered.
+  private static final int MAX_GAMES = 1000;
+
+  /**
+   * The updates of a single game. Requests wait on its monitor, which also guards the latest
+   * version. The number of waiters is guarded by the notifier.
+   */
+  private static class GameUpdates {
+    private long latestVersion = -1;
+    private int nbWaiters;
+  }
+
+  // Games with waiting requests are never evicted, their waiters must see the next update.
+  @SuppressWarnings("serial")
+  private final Map<Long, GameUpdates> games =
+      new LinkedHashMap<Long, GameUpdates>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, GameUpdates> eldest) {
+      return size() > MAX_GAMES && eldest.getValue().nbWaiters == 0;
+    }
+  };
+
+  @Override
+  public void notifyGameUpdated(long gameId, long version) {
+    GameUpdates gameUpdates = getGameUpdates(gameId, 0);
+    synchronized (gameUpdates) {
+      if (gameUpdates.latestVersion < version) {
+        gameUpdates.latestVersion = version;
+      }
+      gameUpdates.notifyAll();
+    }
+  }
+
+  @Override
+  public boolean waitForUpdate(long gameId, long version, long timeoutMillis)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    GameUpdates gameUpdates = getGameUpdates(gameId, 1);
+    try {
+      synchronized (gameUpdates) {
+        while (true) {
+          if (gameUpdates.latestVersion > version) {
+            return true;
+          }
+          long remainingMillis = deadline - System.currentTimeMillis();
+          if (remainingMillis <= 0) {
+            return false;
+          }
+          gameUpdates.wait(remainingMillis);
+        }
+      }
+    } finally {
+      getGameUpdates(gameId, -1);
+    }
+  }
+
+  /**
+   * Accesses the updates of a game, creating them if needed.
+   * @param gameId The gameId of the game info entity of the game.
+   * @param waitersDelta The change in the number of requests waiting on the game.
+   * @return The updates of the game.
+   */
+  private synchronized GameUpdates getGameUpdates(long gameId, int waitersDelta) {
+    GameUpdates gameUpdates = games.get(gameId);
+    if (gameUpdates == null) {
+      gameUpdates = new GameUpdates();
+      games.put(gameId, gameUpdates);
+    }
+    gameUpdates.nbWaiters += waitersDelta;
+    return gameUpdates;
+  }
+}
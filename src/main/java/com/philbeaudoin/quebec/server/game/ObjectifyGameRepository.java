@@ -0,0 +1,191 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Objectify;
+import com.googlecode.objectify.Ref;
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.cmd.Query;
+import com.googlecode.objectify.cmd.QueryResultIterator;
+import com.philbeaudoin.quebec.server.database.EntityPage;
+import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapper;
+import com.philbeaudoin.quebec.server.database.RepositoryWork;
+import com.philbeaudoin.quebec.server.user.UserInfoEntity;
+
+/**
+ * Implementation of {@link GameRepository} that stores the games in the datastore. The moves and
+ * snapshots of a game are children of its game info entity, so a transaction on a game covers
+ * all of them.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class ObjectifyGameRepository implements GameRepository, ObjectifyServiceWrapper {
+
+  private final ObjectifyServiceWrapper objectifyServiceWrapper;
+
+  @Inject
+  public ObjectifyGameRepository(ObjectifyServiceWrapper objectifyServiceWrapper) {
+    this.objectifyServiceWrapper = objectifyServiceWrapper;
+  }
+
+  @Override
+  public Objectify ofy() {
+    return objectifyServiceWrapper.ofy();
+  }
+
+  @Override
+  public <R> R transact(final RepositoryWork<R> work) {
+    return ofy().transact(new Work<R>() {
+      @Override
+      public R run() {
+        return work.run();
+      }
+    });
+  }
+
+  @Override
+  public GameInfoEntity loadGameInfo(long gameId) {
+    return ofy().load().type(GameInfoEntity.class).id(gameId).get();
+  }
+
+  @Override
+  public void saveGameInfo(GameInfoEntity gameInfoEntity) {
+    ofy().save().entity(gameInfoEntity).now();
+  }
+
+  /**
+   * Relies on the composite index on {@code open} and {@code -creationDate}, so it only reads the
+   * games of the page.
+   */
+  @Override
+  public EntityPage<GameInfoEntity> listOpenGames(String cursor, int limit) {
+    Query<GameInfoEntity> query = ofy().load().type(GameInfoEntity.class).filter("open", true)
+        .order("-creationDate").limit(limit);
+    if (cursor != null) {
+      query = query.startAt(Cursor.fromWebSafeString(cursor));
+    }
+    List<GameInfoEntity> gameInfoEntities = new ArrayList<GameInfoEntity>(limit);
+    QueryResultIterator<GameInfoEntity> iterator = query.iterator();
+    while (iterator.hasNext()) {
+      gameInfoEntities.add(iterator.next());
+    }
+    String nextCursor = gameInfoEntities.size() < limit ? null :
+        iterator.getCursor().toWebSafeString();
+    return new EntityPage<GameInfoEntity>(gameInfoEntities, nextCursor);
+  }
+
+  @Override
+  public List<GameInfoEntity> listGamesOfPlayer(long userId, int limit) {
+    return ofy().load().type(GameInfoEntity.class)
+        .filter("players", Key.create(UserInfoEntity.class, userId))
+        .order("-creationDate").limit(limit).list();
+  }
+
+  /**
+   * Saves again a batch of games, in the order of their keys. The games stored before the open
+   * flag and the index of their players were introduced are only listed once saved again.
+   * @param cursor The cursor returned by the previous call, or null to start with the first game.
+   * @param limit The maximum number of games to save.
+   * @return The cursor from which to continue, or null if all the games have been saved.
+   */
+  public String resaveGameInfos(String cursor, int limit) {
+    Query<GameInfoEntity> query = ofy().load().type(GameInfoEntity.class).limit(limit);
+    if (cursor != null) {
+      query = query.startAt(Cursor.fromWebSafeString(cursor));
+    }
+    int nbGames = 0;
+    QueryResultIterator<GameInfoEntity> iterator = query.iterator();
+    while (iterator.hasNext()) {
+      final long gameId = iterator.next().getId();
+      // Each game is saved in its own transaction, so that a player joining it meanwhile is not
+      // overwritten.
+      transact(new RepositoryWork<Void>() {
+        @Override
+        public Void run() {
+          GameInfoEntity gameInfoEntity = loadGameInfo(gameId);
+          if (gameInfoEntity != null) {
+            gameInfoEntity.updateOpen();
+            saveGameInfo(gameInfoEntity);
+          }
+          return null;
+        }
+      });
+      nbGames++;
+    }
+    return nbGames < limit ? null : iterator.getCursor().toWebSafeString();
+  }
+
+  @Override
+  public GameEntity loadGame(GameInfoEntity gameInfoEntity) {
+    Ref<GameEntity> gameRef = gameInfoEntity.getGameRef();
+    if (gameRef == null) {
+      return null;
+    }
+    ofy().load().ref(gameRef);
+    return gameRef.get();
+  }
+
+  @Override
+  public void saveGame(GameEntity gameEntity) {
+    ofy().save().entity(gameEntity).now();
+  }
+
+  @Override
+  public List<GameMoveEntity> loadMoves(long gameId, long fromVersion, long toVersion) {
+    Key<GameInfoEntity> owner = Key.create(GameInfoEntity.class, gameId);
+    List<Key<GameMoveEntity>> keys = new ArrayList<Key<GameMoveEntity>>();
+    for (long moveVersion = fromVersion; moveVersion <= toVersion; ++moveVersion) {
+      keys.add(GameMoveEntity.key(owner, moveVersion));
+    }
+    Map<Key<GameMoveEntity>, GameMoveEntity> moves = ofy().load().keys(keys);
+    List<GameMoveEntity> result = new ArrayList<GameMoveEntity>(keys.size());
+    for (Key<GameMoveEntity> key : keys) {
+      GameMoveEntity gameMoveEntity = moves.get(key);
+      if (gameMoveEntity == null) {
+        throw new RuntimeException("Cannot load game, moves are missing.");
+      }
+      result.add(gameMoveEntity);
+    }
+    return result;
+  }
+
+  @Override
+  public void saveMoves(GameMoveEntity gameMoveEntity) {
+    ofy().save().entity(gameMoveEntity).now();
+  }
+
+  @Override
+  public GameSnapshotEntity loadSnapshot(long gameId, long version) {
+    return ofy().load().key(GameSnapshotEntity.key(Key.create(GameInfoEntity.class, gameId),
+        version)).get();
+  }
+
+  @Override
+  public void saveSnapshot(GameSnapshotEntity gameSnapshotEntity) {
+    ofy().save().entity(gameSnapshotEntity).now();
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.game;
+
+import com.google.inject.Singleton;
+
+/**
+ * Keeps the first page of open games in memory for a short while, since it is requested much more
+ * often than games are created or joined. The following pages are rarely requested and are not
+ * cached. The games are kept as they are stored, before they are anonymized for a given session.
+ * The cache is invalidated whenever a game is created or joined through this server. Changes made
+ * through another server are seen once the page expires.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class OpenGamesCache {
+
+  private static final long TIME_TO_LIVE_MILLIS = 10000;
+
+  private GameInfoPage firstPage;
+  private long expirationMillis;
+  // Incremented on every invalidation, so that a list loaded before it is not cached.
+  private long generation;
+
+  /**
+   * Returns the cached first page of open games, unless it has expired.
+   * @return The first page of open games, or null if there is none.
+   */
+  public synchronized GameInfoPage get() {
+    if (firstPage != null && System.currentTimeMillis() >= expirationMillis) {
+      firstPage = null;
+    }
+    return firstPage;
+  }
+
+  /**
+   * Returns the current generation of the cache, to be passed to {@link #put} along with the
+   * page loaded after calling this.
+   * @return The generation.
+   */
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Caches the first page of open games, unless the cache has been invalidated since it was
+   * loaded.
+   * @param firstPage The first page of open games.
+   * @param loadGeneration The generation returned by {@link #getGeneration} before loading it.
+   */
+  public synchronized void put(GameInfoPage firstPage, long loadGeneration) {
+    if (loadGeneration != generation) {
+      return;
+    }
+    this.firstPage = firstPage;
+    expirationMillis = System.currentTimeMillis() + TIME_TO_LIVE_MILLIS;
+  }
+
+  /**
+   * Drops the cached page of open games. Must be called whenever a game is created or joined.
+   */
+  public synchronized void invalidate() {
+    firstPage = null;
+    generation++;
+  }
+}
@@ -21,6 +21,7 @@ import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson.JacksonFactory;
 import com.google.inject.Singleton;
+import com.google.inject.name.Names;
 import com.google.inject.servlet.ServletModule;
 import com.googlecode.objectify.ObjectifyFilter;
 import com.gwtplatform.dispatch.server.guice.DispatchServiceImpl;
@@ -29,10 +30,15 @@ import com.gwtplatform.dispatch.shared.ActionImpl;
 import com.gwtplatform.dispatch.shared.SecurityCookie;
 import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapper;
 import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapperImpl;
+import com.philbeaudoin.quebec.server.game.GameInfoBackfillServlet;
 import com.philbeaudoin.quebec.server.game.GameManager;
 import com.philbeaudoin.quebec.server.game.GameManagerImpl;
+import com.philbeaudoin.quebec.server.game.GameUpdateNotifier;
+import com.philbeaudoin.quebec.server.game.LocalGameUpdateNotifier;
+import com.philbeaudoin.quebec.server.session.PasswordHasher;
 import com.philbeaudoin.quebec.server.session.ServerSessionManager;
 import com.philbeaudoin.quebec.server.session.ServerSessionManagerImpl;
+import com.philbeaudoin.quebec.server.session.SessionSaveFilter;
 import com.philbeaudoin.quebec.server.user.OAuthManager;
 import com.philbeaudoin.quebec.server.user.OAuthManagerImpl;
 import com.philbeaudoin.quebec.server.user.UserManager;
@@ -46,6 +52,16 @@ import com.philbeaudoin.quebec.shared.game.state.Shuffler;
  */
 public class DispatchServletModule extends ServletModule {
 
+  private final StorageModule storageModule;
+
+  /**
+   * Creates the module.
+   * @param storageModule The module that binds the repositories, it owns the logs they write to.
+   */
+  public DispatchServletModule(StorageModule storageModule) {
+    this.storageModule = storageModule;
+  }
+
   @Override
   public void configureServlets() {
 
@@ -56,15 +72,23 @@ public class DispatchServletModule extends ServletModule {
     bind(ObjectifyServiceWrapper.class).to(ObjectifyServiceWrapperImpl.class);
     bind(ServerSessionManager.class).to(ServerSessionManagerImpl.class);
     bind(GameManager.class).to(GameManagerImpl.class);
+    bind(GameUpdateNotifier.class).to(LocalGameUpdateNotifier.class);
     bind(UserManager.class).to(UserManagerImpl.class);
     bind(OAuthManager.class).to(OAuthManagerImpl.class);
     bind(Shuffler.class).to(JavaRandomShuffler.class);
+    install(storageModule);
 
     bindConstant().annotatedWith(SecurityCookie.class).to(Constants.securityCookieName);
+    bindConstant().annotatedWith(Names.named(PasswordHasher.ITERATIONS)).to(20000);
 
     filter("/*").through(ObjectifyFilter.class);
+    filter("/" + ActionImpl.DEFAULT_SERVICE_NAME).through(SessionSaveFilter.class);
     filter("*").through(HttpSessionSecurityCookieFilter.class);
     serve("/" + ActionImpl.DEFAULT_SERVICE_NAME).with(DispatchServiceImpl.class);
+    if (StorageModule.usesDatastore()) {
+      // Restricted to the admin in web.xml.
+      serve("/tasks/resaveGameInfos").with(GameInfoBackfillServlet.class);
+    }
   }
 
 }
@@ -16,6 +16,8 @@
 
 package com.philbeaudoin.quebec.server.guice;
 
+import javax.servlet.ServletContextEvent;
+
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.servlet.GuiceServletContextListener;
@@ -25,8 +27,16 @@ import com.google.inject.servlet.GuiceServletContextListener;
  */
 public class MyGuiceServletContextListener extends GuiceServletContextListener {
 
+  private final StorageModule storageModule = new StorageModule();
+
   @Override
   protected Injector getInjector() {
-    return Guice.createInjector(new ServerModule(), new DispatchServletModule());
+    return Guice.createInjector(new ServerModule(), new DispatchServletModule(storageModule));
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent servletContextEvent) {
+    super.contextDestroyed(servletContextEvent);
+    storageModule.close();
   }
 }
@@ -26,7 +26,10 @@ import com.philbeaudoin.quebec.server.handlers.AuthenticateWithGoogleAuthorizati
 import com.philbeaudoin.quebec.server.handlers.JoinGameHandler;
 import com.philbeaudoin.quebec.server.handlers.ListGamesHandler;
 import com.philbeaudoin.quebec.server.handlers.LoadGameHandler;
+import com.philbeaudoin.quebec.server.handlers.PerformGameActionHandler;
 import com.philbeaudoin.quebec.server.handlers.SignOutAdminHandler;
+import com.philbeaudoin.quebec.server.handlers.SyncGameHandler;
+import com.philbeaudoin.quebec.server.handlers.WaitForGameUpdateHandler;
 import com.philbeaudoin.quebec.shared.action.AuthenticateWithAdminPasswordAction;
 import com.philbeaudoin.quebec.shared.action.AuthenticateWithDummyAction;
 import com.philbeaudoin.quebec.shared.action.AuthenticateWithGoogleAuthorizationCodeAction;
@@ -36,7 +39,10 @@ import com.philbeaudoin.quebec.shared.action.GetSessionAction;
 import com.philbeaudoin.quebec.shared.action.JoinGameAction;
 import com.philbeaudoin.quebec.shared.action.ListGamesAction;
 import com.philbeaudoin.quebec.shared.action.LoadGameAction;
+import com.philbeaudoin.quebec.shared.action.PerformGameActionAction;
 import com.philbeaudoin.quebec.shared.action.SignOutAdminAction;
+import com.philbeaudoin.quebec.shared.action.SyncGameAction;
+import com.philbeaudoin.quebec.shared.action.WaitForGameUpdateAction;
 
 /**
  * Module which binds the handlers and configurations.
@@ -57,5 +63,8 @@ public class ServerModule extends HandlerModule {
     bindHandler(CreateNewGameAction.class, CreateNewGameHandler.class);
     bindHandler(JoinGameAction.class, JoinGameHandler.class);
     bindHandler(LoadGameAction.class, LoadGameHandler.class);
+    bindHandler(PerformGameActionAction.class, PerformGameActionHandler.class);
+    bindHandler(SyncGameAction.class, SyncGameHandler.class);
+    bindHandler(WaitForGameUpdateAction.class, WaitForGameUpdateHandler.class);
   }
 }
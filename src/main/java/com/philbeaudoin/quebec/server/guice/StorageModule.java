@@ -0,0 +1,125 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.guice;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.inject.AbstractModule;
+import com.philbeaudoin.quebec.server.database.GlobalStringRepository;
+import com.philbeaudoin.quebec.server.database.InMemoryGlobalStringRepository;
+import com.philbeaudoin.quebec.server.database.MappedRecordLog;
+import com.philbeaudoin.quebec.server.database.ObjectifyGlobalStringRepository;
+import com.philbeaudoin.quebec.server.database.RecordLog;
+import com.philbeaudoin.quebec.server.game.GameRepository;
+import com.philbeaudoin.quebec.server.game.InMemoryGameRepository;
+import com.philbeaudoin.quebec.server.game.ObjectifyGameRepository;
+import com.philbeaudoin.quebec.server.session.InMemorySessionRepository;
+import com.philbeaudoin.quebec.server.session.ObjectifySessionRepository;
+import com.philbeaudoin.quebec.server.session.SessionRepository;
+import com.philbeaudoin.quebec.server.user.InMemoryUserRepository;
+import com.philbeaudoin.quebec.server.user.ObjectifyUserRepository;
+import com.philbeaudoin.quebec.server.user.UserRepository;
+
+/**
+ * Module which binds the repositories of the games, sessions, users and global strings to the
+ * storage selected by the {@value #STORAGE} system property:
+ * <ul>
+ * <li>{@code datastore}, the default: the App Engine datastore, through Objectify.</li>
+ * <li>{@code memory}: in memory only, everything is lost when the server stops.</li>
+ * <li>{@code file}: in memory, with every change appended to logs mapped in memory. The logs are
+ *     kept in the directory given by the {@value #DIRECTORY} system property.</li>
+ * </ul>
+ * The logs opened by the module are closed by {@link #close()}, once the server stops.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class StorageModule extends AbstractModule {
+
+  public static final String STORAGE = "quebec.storage";
+  public static final String DIRECTORY = "quebec.storage.directory";
+
+  private static final String DEFAULT_DIRECTORY = "quebec-data";
+
+  private final List<RecordLog> logs = new ArrayList<RecordLog>();
+
+  @Override
+  protected void configure() {
+    String storage = System.getProperty(STORAGE, "datastore");
+    if (usesDatastore()) {
+      bind(GameRepository.class).to(ObjectifyGameRepository.class);
+      bind(SessionRepository.class).to(ObjectifySessionRepository.class);
+      bind(UserRepository.class).to(ObjectifyUserRepository.class);
+      bind(GlobalStringRepository.class).to(ObjectifyGlobalStringRepository.class);
+    } else if (storage.equals("memory") || storage.equals("file")) {
+      File directory = storage.equals("file") ?
+          new File(System.getProperty(DIRECTORY, DEFAULT_DIRECTORY)) : null;
+      UserRepository userRepository = new InMemoryUserRepository(openLog(directory, "users.log"));
+      bind(UserRepository.class).toInstance(userRepository);
+      bind(SessionRepository.class).toInstance(new InMemorySessionRepository(userRepository,
+          openLog(directory, "sessions.log")));
+      bind(GameRepository.class).toInstance(new InMemoryGameRepository(
+          openLog(directory, "games.log")));
+      bind(GlobalStringRepository.class).toInstance(new InMemoryGlobalStringRepository(
+          openLog(directory, "strings.log")));
+    } else {
+      throw new IllegalArgumentException("Unknown storage: " + storage);
+    }
+  }
+
+  /**
+   * Checks whether the repositories are stored in the datastore.
+   * @return True if the repositories are stored in the datastore.
+   */
+  public static boolean usesDatastore() {
+    return System.getProperty(STORAGE, "datastore").equals("datastore");
+  }
+
+  /**
+   * Opens one of the logs of the repositories.
+   * @param directory The directory of the logs, or null if nothing is logged.
+   * @param name The name of the log file.
+   * @return The log, or null if nothing is logged.
+   */
+  private RecordLog openLog(File directory, String name) {
+    if (directory == null) {
+      return null;
+    }
+    directory.mkdirs();
+    File file = new File(directory, name);
+    try {
+      RecordLog log = new MappedRecordLog(file);
+      logs.add(log);
+      return log;
+    } catch (IOException e) {
+      throw new RuntimeException("Cannot open the log " + file + ".", e);
+    }
+  }
+
+  /**
+   * Closes the logs opened by the module. The repositories using them can no longer be used.
+   */
+  public void close() {
+    for (RecordLog log : logs) {
+      log.close();
+    }
+    logs.clear();
+  }
+}
@@ -25,9 +25,11 @@ import com.gwtplatform.dispatch.server.ExecutionContext;
 import com.gwtplatform.dispatch.server.actionhandler.ActionHandler;
 import com.gwtplatform.dispatch.shared.ActionException;
 import com.philbeaudoin.quebec.server.game.GameInfoEntity;
+import com.philbeaudoin.quebec.server.game.GameInfoPage;
 import com.philbeaudoin.quebec.server.game.GameManager;
 import com.philbeaudoin.quebec.shared.action.CreateNewGameAction;
 import com.philbeaudoin.quebec.shared.action.GameListResult;
+import com.philbeaudoin.quebec.shared.game.GameInfoDto;
 
 /**
  * Handles {@link CreateNewGameAction}.
@@ -48,9 +50,10 @@ public class CreateNewGameHandler
       throws ActionException {
     GameInfoEntity newGame = gameManager.get().createNewGame(action.getNbPlayers());
 
-    List<GameInfoEntity> gameInfoEntities = gameManager.get().listOpenGames();
-    gameManager.get().ensureListContainsGame(gameInfoEntities, newGame);
-    return gameManager.get().GameInfoEntitiesToGameListResult(gameInfoEntities);
+    GameInfoPage page = gameManager.get().listGames(null);
+    List<GameInfoDto> games = page.getGames();
+    gameManager.get().ensureListContainsGame(games, newGame);
+    return gameManager.get().createGameListResult(games, page.getNextCursor());
   }
 
   @Override
@@ -16,15 +16,13 @@
 
 package com.philbeaudoin.quebec.server.handlers;
 
-import java.util.List;
-
 import javax.inject.Inject;
 import javax.inject.Provider;
 
 import com.gwtplatform.dispatch.server.ExecutionContext;
 import com.gwtplatform.dispatch.server.actionhandler.ActionHandler;
 import com.gwtplatform.dispatch.shared.ActionException;
-import com.philbeaudoin.quebec.server.game.GameInfoEntity;
+import com.philbeaudoin.quebec.server.game.GameInfoPage;
 import com.philbeaudoin.quebec.server.game.GameManager;
 import com.philbeaudoin.quebec.shared.action.GameListResult;
 import com.philbeaudoin.quebec.shared.action.ListGamesAction;
@@ -45,8 +43,8 @@ public class ListGamesHandler implements ActionHandler<ListGamesAction, GameList
   @Override
   public GameListResult execute(final ListGamesAction action, ExecutionContext context)
       throws ActionException {
-    List<GameInfoEntity> gameInfoEntities = gameManager.get().listOpenGames();
-    return gameManager.get().GameInfoEntitiesToGameListResult(gameInfoEntities);
+    GameInfoPage page = gameManager.get().listGames(action.getCursor());
+    return gameManager.get().createGameListResult(page.getGames(), page.getNextCursor());
   }
 
   @Override
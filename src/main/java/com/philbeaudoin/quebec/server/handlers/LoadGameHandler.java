@@ -21,6 +21,7 @@ import javax.inject.Inject;
 import com.gwtplatform.dispatch.server.ExecutionContext;
 import com.gwtplatform.dispatch.server.actionhandler.ActionHandler;
 import com.gwtplatform.dispatch.shared.ActionException;
+import com.philbeaudoin.quebec.server.game.GameEntity;
 import com.philbeaudoin.quebec.server.game.GameManager;
 import com.philbeaudoin.quebec.shared.action.GameStateResult;
 import com.philbeaudoin.quebec.shared.action.LoadGameAction;
@@ -41,7 +42,8 @@ public class LoadGameHandler implements ActionHandler<LoadGameAction, GameStateR
   @Override
   public GameStateResult execute(final LoadGameAction action, ExecutionContext context)
       throws ActionException {
-    return new GameStateResult(gameManager.loadGame(action.getGameId()));
+    GameEntity gameEntity = gameManager.loadGame(action.getGameId());
+    return new GameStateResult(gameEntity.getGameState(), gameEntity.getVersion());
   }
 
   @Override
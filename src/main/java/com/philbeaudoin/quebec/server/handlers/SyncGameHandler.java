@@ -0,0 +1,59 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.handlers;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import com.gwtplatform.dispatch.server.ExecutionContext;
+import com.gwtplatform.dispatch.server.actionhandler.ActionHandler;
+import com.gwtplatform.dispatch.shared.ActionException;
+import com.philbeaudoin.quebec.server.game.GameManager;
+import com.philbeaudoin.quebec.shared.action.GameSyncResult;
+import com.philbeaudoin.quebec.shared.action.SyncGameAction;
+
+/**
+ * Handles {@link SyncGameAction}.
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class SyncGameHandler implements ActionHandler<SyncGameAction, GameSyncResult> {
+
+  private final Provider<GameManager> gameManager;
+
+  @Inject
+  SyncGameHandler(Provider<GameManager> gameManager) {
+    this.gameManager = gameManager;
+  }
+
+  @Override
+  public GameSyncResult execute(final SyncGameAction action, ExecutionContext context)
+      throws ActionException {
+    return gameManager.get().syncGame(action.getGameId(), action.getVersion());
+  }
+
+  @Override
+  public Class<SyncGameAction> getActionType() {
+    return SyncGameAction.class;
+  }
+
+  @Override
+  public void undo(SyncGameAction action, GameSyncResult result, ExecutionContext context)
+      throws ActionException {
+    // Cannot undo.
+  }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.handlers;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import com.gwtplatform.dispatch.server.ExecutionContext;
+import com.gwtplatform.dispatch.server.actionhandler.ActionHandler;
+import com.gwtplatform.dispatch.shared.ActionException;
+import com.philbeaudoin.quebec.server.game.GameManager;
+import com.philbeaudoin.quebec.server.game.GameUpdateNotifier;
+import com.philbeaudoin.quebec.shared.action.GameSyncResult;
+import com.philbeaudoin.quebec.shared.action.WaitForGameUpdateAction;
+
+/**
+ * Handles {@link WaitForGameUpdateAction}.
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class WaitForGameUpdateHandler
+    implements ActionHandler<WaitForGameUpdateAction, GameSyncResult> {
+
+  // Keeps the request well within the deadline of the server.
+  private static final long TIMEOUT_MILLIS = 25000;
+
+  private final Provider<GameManager> gameManager;
+  private final GameUpdateNotifier gameUpdateNotifier;
+
+  @Inject
+  WaitForGameUpdateHandler(Provider<GameManager> gameManager,
+      GameUpdateNotifier gameUpdateNotifier) {
+    this.gameManager = gameManager;
+    this.gameUpdateNotifier = gameUpdateNotifier;
+  }
+
+  @Override
+  public GameSyncResult execute(final WaitForGameUpdateAction action, ExecutionContext context)
+      throws ActionException {
+    // The notifier only knows the recent updates made through this server, the stored version
+    // tells whether the client is already behind.
+    GameSyncResult result = gameManager.get().syncGame(action.getGameId(), action.getVersion());
+    if (result.getVersion() != action.getVersion()) {
+      return result;
+    }
+    try {
+      gameUpdateNotifier.waitForUpdate(action.getGameId(), action.getVersion(), TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // Sync even if no update was notified, the game may have been updated through another server.
+    return gameManager.get().syncGame(action.getGameId(), action.getVersion());
+  }
+
+  @Override
+  public Class<WaitForGameUpdateAction> getActionType() {
+    return WaitForGameUpdateAction.class;
+  }
+
+  @Override
+  public void undo(WaitForGameUpdateAction action, GameSyncResult result,
+      ExecutionContext context) throws ActionException {
+    // Cannot undo.
+  }
+
+}
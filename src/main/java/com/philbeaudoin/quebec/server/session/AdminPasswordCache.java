@@ -0,0 +1,80 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.inject.Singleton;
+
+/**
+ * Remembers, for the sessions that recently signed in as admin, the fingerprint of the password
+ * that was verified. Signing in again with the same password skips the key derivation. Failed
+ * attempts are never remembered, so guessing the password stays as slow as the hash makes it.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class AdminPasswordCache {
+
+  // Number of sessions for which a verified password is remembered.
+  private static final int MAX_SESSIONS = 100;
+
+  @SuppressWarnings("serial")
+  private final Map<String, String> verifiedFingerprints = new LinkedHashMap<String, String>(16,
+      0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > MAX_SESSIONS;
+    }
+  };
+
+  /**
+   * Checks whether a password was already verified for a session.
+   * @param sessionId The id of the session.
+   * @param fingerprint The fingerprint of the password, see {@link PasswordHasher#fingerprint}.
+   * @return True if that password was verified for the session.
+   */
+  public synchronized boolean isVerified(String sessionId, String fingerprint) {
+    return fingerprint.equals(verifiedFingerprints.get(sessionId));
+  }
+
+  /**
+   * Remembers that a password was verified for a session.
+   * @param sessionId The id of the session.
+   * @param fingerprint The fingerprint of the password, see {@link PasswordHasher#fingerprint}.
+   */
+  public synchronized void putVerified(String sessionId, String fingerprint) {
+    verifiedFingerprints.put(sessionId, fingerprint);
+  }
+
+  /**
+   * Forgets the password verified for a session.
+   * @param sessionId The id of the session.
+   */
+  public synchronized void remove(String sessionId) {
+    verifiedFingerprints.remove(sessionId);
+  }
+
+  /**
+   * Forgets all the verified passwords. Must be called whenever the admin password or the salt
+   * change.
+   */
+  public synchronized void clear() {
+    verifiedFingerprints.clear();
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.philbeaudoin.quebec.server.database.InMemoryStore;
+import com.philbeaudoin.quebec.server.database.RecordLog;
+import com.philbeaudoin.quebec.server.user.UserInfoEntity;
+import com.philbeaudoin.quebec.server.user.UserRepository;
+import com.philbeaudoin.quebec.shared.utils.BinaryReader;
+import com.philbeaudoin.quebec.shared.utils.BinaryWriter;
+
+/**
+ * Implementation of {@link SessionRepository} that keeps the sessions in memory, optionally
+ * logging them to a {@link RecordLog}. The users of the sessions are loaded from a
+ * {@link UserRepository}.
+ * <p />
+ * A session expires with its cookie, a given time after it was first saved. Expired sessions are
+ * no longer loaded, they are regularly removed from memory and are left out of the log when it is
+ * replayed or compacted.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class InMemorySessionRepository extends InMemoryStore implements SessionRepository {
+
+  // The types of records.
+  private static final int SESSION = 0;
+
+  // Sessions last as long as their cookie.
+  private static final long SESSION_LIFETIME_MILLIS =
+      ServerSessionManagerImpl.MAX_SESSION_DURATION_S * 1000L;
+  // Interval between the removals of the expired sessions.
+  private static final long EXPIRY_INTERVAL_MILLIS = 60 * 60 * 1000;
+
+  private final UserRepository userRepository;
+  // The latest record of each session, by id.
+  private final Map<String, byte[]> sessions = new HashMap<String, byte[]>();
+  private long nextExpiryTime;
+
+  /**
+   * Creates a repository, with the sessions of the log if there is one.
+   * @param userRepository The repository of the users of the sessions.
+   * @param log The log to which the changes are appended, or null to keep them in memory only.
+   */
+  public InMemorySessionRepository(UserRepository userRepository, RecordLog log) {
+    super(log);
+    this.userRepository = userRepository;
+    replayLog();
+  }
+
+  @Override
+  public SessionInfoEntity loadSession(String sessionId) {
+    byte record[];
+    synchronized (this) {
+      record = sessions.get(sessionId);
+    }
+    if (record == null) {
+      return null;
+    }
+    BinaryReader reader = new BinaryReader(record);
+    reader.readByte();
+    SessionInfoEntity result = new SessionInfoEntity(reader.readString());
+    if (isExpired(reader.readVarLong(), System.currentTimeMillis())) {
+      return null;
+    }
+    result.admin = reader.readBoolean();
+    long userId = reader.readVarLong();
+    if (userId != -1) {
+      UserInfoEntity userInfoEntity = userRepository.loadUser(userId);
+      if (userInfoEntity != null) {
+        result.setUserInfoEntity(userInfoEntity);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void saveSession(SessionInfoEntity sessionInfoEntity) {
+    UserInfoEntity userInfoEntity = sessionInfoEntity.getUserInfoEntity();
+    long now = System.currentTimeMillis();
+    long creationTime = now;
+    synchronized (this) {
+      byte record[] = sessions.get(sessionInfoEntity.getId());
+      if (record != null) {
+        creationTime = getCreationTime(record);
+      }
+      if (now >= nextExpiryTime) {
+        removeExpiredSessions(now);
+        nextExpiryTime = now + EXPIRY_INTERVAL_MILLIS;
+      }
+    }
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(SESSION);
+    writer.writeString(sessionInfoEntity.getId());
+    writer.writeVarLong(creationTime);
+    writer.writeBoolean(sessionInfoEntity.isAdmin());
+    writer.writeVarLong(userInfoEntity == null ? -1 : userInfoEntity.getId());
+    write(writer);
+  }
+
+  @Override
+  protected void apply(byte record[]) {
+    BinaryReader reader = new BinaryReader(record);
+    int type = reader.readByte();
+    if (type != SESSION) {
+      throw new IllegalArgumentException("Unknown record type: " + type);
+    }
+    String sessionId = reader.readString();
+    if (isExpired(reader.readVarLong(), System.currentTimeMillis())) {
+      sessions.remove(sessionId);
+    } else {
+      sessions.put(sessionId, record);
+    }
+  }
+
+  @Override
+  protected List<byte[]> snapshot() {
+    removeExpiredSessions(System.currentTimeMillis());
+    return new ArrayList<byte[]>(sessions.values());
+  }
+
+  /**
+   * Removes the expired sessions from memory. Called with the repository locked.
+   * @param now The current time, in milliseconds.
+   */
+  private void removeExpiredSessions(long now) {
+    Iterator<byte[]> iterator = sessions.values().iterator();
+    while (iterator.hasNext()) {
+      if (isExpired(getCreationTime(iterator.next()), now)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private static long getCreationTime(byte record[]) {
+    BinaryReader reader = new BinaryReader(record);
+    reader.readByte();
+    reader.readString();
+    return reader.readVarLong();
+  }
+
+  private static boolean isExpired(long creationTime, long now) {
+    return now - creationTime > SESSION_LIFETIME_MILLIS;
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.session;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlecode.objectify.Objectify;
+import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapper;
+
+/**
+ * Implementation of {@link SessionRepository} that stores the sessions in the datastore.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class ObjectifySessionRepository implements SessionRepository, ObjectifyServiceWrapper {
+
+  private final ObjectifyServiceWrapper objectifyServiceWrapper;
+
+  @Inject
+  public ObjectifySessionRepository(ObjectifyServiceWrapper objectifyServiceWrapper) {
+    this.objectifyServiceWrapper = objectifyServiceWrapper;
+  }
+
+  @Override
+  public Objectify ofy() {
+    return objectifyServiceWrapper.ofy();
+  }
+
+  @Override
+  public SessionInfoEntity loadSession(String sessionId) {
+    return ofy().load().type(SessionInfoEntity.class).id(sessionId).get();
+  }
+
+  @Override
+  public void saveSession(SessionInfoEntity sessionInfoEntity) {
+    ofy().save().entity(sessionInfoEntity).now();
+  }
+}
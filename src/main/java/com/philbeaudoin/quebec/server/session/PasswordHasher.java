@@ -0,0 +1,148 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.session;
+
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Hashes passwords with PBKDF2. The number of iterations is configured through the constant
+ * named {@link #ITERATIONS} and stored along with each hash, so it can be raised without
+ * invalidating the existing passwords. Passwords hashed with the salted MD5 used before are still
+ * recognized, see {@link #needsRehash}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class PasswordHasher {
+
+  /**
+   * The name of the constant holding the number of PBKDF2 iterations for new hashes.
+   */
+  public static final String ITERATIONS = "passwordHashIterations";
+
+  private static final String PREFIX = "pbkdf2$";
+  private static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+  private static final int KEY_LENGTH_BITS = 160;
+  // PBKDF2 needs a non-empty salt, and the global salt may not be set.
+  private static final String SALT_PREFIX = "quebec$";
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  private static final char HEX_DIGITS[] = "0123456789abcdef".toCharArray();
+
+  private final int iterations;
+  private final HashFunction legacyHashFunction;
+  private final HashFunction fingerprintHashFunction;
+
+  @Inject
+  public PasswordHasher(@Named(ITERATIONS) int iterations) {
+    this.iterations = iterations;
+    legacyHashFunction = Hashing.md5();
+    fingerprintHashFunction = Hashing.sha256();
+  }
+
+  /**
+   * Hashes a password with the configured number of iterations.
+   * @param password The password.
+   * @param salt The salt.
+   * @return The hashed password, holding the number of iterations.
+   */
+  public String hash(String password, String salt) {
+    return PREFIX + iterations + "$" + pbkdf2(password, salt, iterations);
+  }
+
+  /**
+   * Checks a password against a hash, in constant time.
+   * @param password The password to check.
+   * @param salt The salt with which the hash was computed.
+   * @param hashedPassword The hashed password, returned by {@link #hash} or a legacy MD5 hash.
+   * @return True if the password matches the hash.
+   */
+  public boolean verify(String password, String salt, String hashedPassword) {
+    String expected;
+    if (hashedPassword.startsWith(PREFIX)) {
+      int separator = hashedPassword.indexOf('$', PREFIX.length());
+      if (separator < 0) {
+        return false;
+      }
+      int hashIterations;
+      try {
+        hashIterations = Integer.parseInt(hashedPassword.substring(PREFIX.length(), separator));
+      } catch (NumberFormatException e) {
+        return false;
+      }
+      expected = PREFIX + hashIterations + "$" + pbkdf2(password, salt, hashIterations);
+    } else {
+      expected = legacyHashFunction.hashString(salt + password).toString();
+    }
+    return MessageDigest.isEqual(expected.getBytes(UTF8), hashedPassword.getBytes(UTF8));
+  }
+
+  /**
+   * Checks whether a hash should be replaced by a new one once the password is known, because it
+   * is a legacy hash or it uses a different number of iterations.
+   * @param hashedPassword The hashed password.
+   * @return True if the password should be hashed again.
+   */
+  public boolean needsRehash(String hashedPassword) {
+    return !hashedPassword.startsWith(PREFIX + iterations + "$");
+  }
+
+  /**
+   * Computes a fast fingerprint of a password attempt, used to remember the attempts that were
+   * verified without running the key derivation again. The fingerprint covers the hash it was
+   * verified against, so it no longer matches once the password or the salt change. It is only
+   * kept in memory.
+   * @param password The password.
+   * @param salt The salt.
+   * @param hashedPassword The hashed password against which the password is verified.
+   * @return The fingerprint.
+   */
+  public String fingerprint(String password, String salt, String hashedPassword) {
+    return fingerprintHashFunction.hashString(
+        hashedPassword + "\u0000" + salt + "\u0000" + password, UTF8).toString();
+  }
+
+  private static String pbkdf2(String password, String salt, int iterations) {
+    try {
+      SecretKeyFactory factory = SecretKeyFactory.getInstance(ALGORITHM);
+      PBEKeySpec keySpec = new PBEKeySpec(password.toCharArray(),
+          (SALT_PREFIX + salt).getBytes(UTF8), iterations, KEY_LENGTH_BITS);
+      return toHex(factory.generateSecret(keySpec).getEncoded());
+    } catch (GeneralSecurityException e) {
+      throw new RuntimeException("Cannot hash password.", e);
+    }
+  }
+
+  private static String toHex(byte bytes[]) {
+    char result[] = new char[2 * bytes.length];
+    for (int i = 0; i < bytes.length; ++i) {
+      result[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+      result[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+    }
+    return new String(result);
+  }
+}
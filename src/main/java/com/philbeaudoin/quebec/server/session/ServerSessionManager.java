@@ -29,11 +29,21 @@ public interface ServerSessionManager {
 
   /**
    * Returns the current session info. If the session exists in the datastore it is returned,
-   * otherwise a new one is created and stored. 
+   * otherwise a new one is created and stored. The session is only looked up once per request,
+   * further calls return the same entity.
    * @return The current session's info.
    */
   SessionInfoEntity getSessionInfo();
 
+  /**
+   * Saves the current session info in the datastore if it was created or changed during the
+   * request. Signing in or out, as a user or as the admin, saves the session right away, since
+   * the client may send its next request as soon as it gets the response. The other changes, such
+   * as the creation of the session, are saved by {@link SessionSaveFilter} at the end of every
+   * request.
+   */
+  void saveSessionInfoChanges();
+
   /**
    * Retrieves the current session entity given the user provided admin password. If the session
    * exists in the datastore it is returned, otherwise a new one is created and stored. If the admin
@@ -44,7 +54,7 @@ public interface ServerSessionManager {
   SessionInfoEntity getSessionInfoEntityGivenAdminPassword(String inputPassword);
 
   /**
-   * Attaches the specified user information to the current session and save it in the datastore.
+   * Attaches the specified user information to the current session.
    * @param userInfoEntity The user information to attach to this session.
    * @return The current session's info, with the user info attached.
    */
@@ -23,17 +23,14 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
 import com.google.inject.Inject;
 import com.google.inject.servlet.RequestScoped;
-import com.googlecode.objectify.Key;
-import com.googlecode.objectify.Objectify;
-import com.googlecode.objectify.VoidWork;
 import com.gwtplatform.dispatch.server.guice.SecureRandomSingleton;
 import com.philbeaudoin.quebec.client.session.ClientSessionManager;
+import com.philbeaudoin.quebec.server.database.GlobalStringCache;
 import com.philbeaudoin.quebec.server.database.GlobalStringEntity;
-import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapper;
+import com.philbeaudoin.quebec.server.database.GlobalStringRepository;
+import com.philbeaudoin.quebec.server.database.RepositoryWork;
 import com.philbeaudoin.quebec.server.exceptions.OperationNotAllowedException;
 import com.philbeaudoin.quebec.server.user.UserInfoEntity;
 import com.philbeaudoin.quebec.shared.Constants;
@@ -46,29 +43,38 @@ import com.philbeaudoin.quebec.shared.user.UserInfo;
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 @RequestScoped
-public class ServerSessionManagerImpl implements ServerSessionManager, ObjectifyServiceWrapper {
+public class ServerSessionManagerImpl implements ServerSessionManager {
 
-  private final static int MAX_SESSION_DURATION_S = 30 * 24 * 60 * 60;  // 30 Days.
+  final static int MAX_SESSION_DURATION_S = 30 * 24 * 60 * 60;  // 30 Days.
 
-  private final ObjectifyServiceWrapper objectifyServiceWrapper;
+  private final SessionRepository sessionRepository;
+  private final GlobalStringRepository globalStringRepository;
   private final SecureRandom random;
   private final HttpServletRequest request;
   private final HttpServletResponse response;
-  private final HashFunction hashFunction;
+  private final GlobalStringCache globalStringCache;
+  private final PasswordHasher passwordHasher;
+  private final AdminPasswordCache adminPasswordCache;
+
+  // The session of the request, resolved the first time it is needed.
+  private SessionInfoEntity sessionInfoEntity;
+  // True if the session has been created or changed and must be saved at the end of the request.
+  private boolean sessionInfoChanged;
 
   @Inject
-  public ServerSessionManagerImpl(ObjectifyServiceWrapper objectifyServiceWrapper,
-      SecureRandomSingleton random, HttpServletRequest request, HttpServletResponse response) {
-    this.objectifyServiceWrapper = objectifyServiceWrapper;
+  public ServerSessionManagerImpl(SessionRepository sessionRepository,
+      GlobalStringRepository globalStringRepository,
+      SecureRandomSingleton random, HttpServletRequest request, HttpServletResponse response,
+      GlobalStringCache globalStringCache, PasswordHasher passwordHasher,
+      AdminPasswordCache adminPasswordCache) {
+    this.sessionRepository = sessionRepository;
+    this.globalStringRepository = globalStringRepository;
     this.random = random;
     this.request = request;
     this.response = response;
-    hashFunction = Hashing.md5();
-  }
-
-  @Override
-  public Objectify ofy() {
-    return objectifyServiceWrapper.ofy();
+    this.globalStringCache = globalStringCache;
+    this.passwordHasher = passwordHasher;
+    this.adminPasswordCache = adminPasswordCache;
   }
 
   @Override
@@ -80,14 +86,13 @@ public class ServerSessionManagerImpl implements ServerSessionManager, Objectify
   public SessionInfoEntity getSessionInfoEntityGivenAdminPassword(String inputPassword) {
     SessionInfoEntity entity = retrieveOrCreateSessionInfo();
 
-    String saltString = loadSalt();
-    String adminPasswordString = loadAdminPassword(saltString);
-    String hashedInputPassword = hashPassword(inputPassword, saltString);
-    boolean admin = hashedInputPassword.equals(adminPasswordString);
+    boolean admin = verifyAdminPassword(entity.getId(),
+        inputPassword == null ? "" : inputPassword);
 
     if (admin != entity.isAdmin()) {
       entity.setAdmin(admin);
-      ofy().save().entity(entity);
+      sessionInfoChanged = true;
+      saveSessionInfoChanges();
     }
 
     return entity;
@@ -99,7 +104,8 @@ public class ServerSessionManagerImpl implements ServerSessionManager, Objectify
 
     SessionInfoEntity entity = retrieveOrCreateSessionInfo();
     entity.setUserInfoEntity(userInfoEntity);
-    ofy().save().entity(entity).now();
+    sessionInfoChanged = true;
+    saveSessionInfoChanges();
 
     return entity;
   }
@@ -109,7 +115,8 @@ public class ServerSessionManagerImpl implements ServerSessionManager, Objectify
     SessionInfoEntity entity = retrieveOrCreateSessionInfo();
 
     entity.clear();
-    ofy().save().entity(entity);
+    sessionInfoChanged = true;
+    saveSessionInfoChanges();
 
     return entity;
   }
@@ -120,21 +127,29 @@ public class ServerSessionManagerImpl implements ServerSessionManager, Objectify
 
     if (entity.isAdmin()) {
       entity.setAdmin(false);
-      ofy().save().entity(entity);
+      sessionInfoChanged = true;
+      saveSessionInfoChanges();
     }
+    adminPasswordCache.remove(entity.getId());
 
     return entity;
   }
 
+  @Override
+  public void saveSessionInfoChanges() {
+    if (sessionInfoChanged) {
+      sessionRepository.saveSession(sessionInfoEntity);
+      sessionInfoChanged = false;
+    }
+  }
+
   @Override
   public void saveAdminPassword(String inputPassword) throws OperationNotAllowedException {
     SessionInfo sessionInfo = getSessionInfo();
     if (!sessionInfo.isAdmin() || inputPassword == null) {
       throw new OperationNotAllowedException();
     }
-    GlobalStringEntity passwordEntity = new GlobalStringEntity(GlobalStringEntity.ADMIN_PASSWORD_ID,
-        hashPassword(inputPassword, loadSalt()));
-    ofy().save().entity(passwordEntity);
+    saveAdminPasswordHash(passwordHasher.hash(inputPassword, loadSalt()));
   }
 
   @Override
@@ -148,14 +163,18 @@ public class ServerSessionManagerImpl implements ServerSessionManager, Objectify
     final GlobalStringEntity saltEntity = new GlobalStringEntity(
         GlobalStringEntity.SALT_ID, salt);
     final GlobalStringEntity passwordEntity = new GlobalStringEntity(
-        GlobalStringEntity.ADMIN_PASSWORD_ID, hashPassword(inputPassword, salt));
-    ofy().transact(new VoidWork() {
+        GlobalStringEntity.ADMIN_PASSWORD_ID, passwordHasher.hash(inputPassword, salt));
+    globalStringRepository.transact(new RepositoryWork<Void>() {
       @Override
-      public void vrun() {
-        ofy().save().entity(saltEntity);
-        ofy().save().entity(passwordEntity);
+      public Void run() {
+        globalStringRepository.saveGlobalString(saltEntity);
+        globalStringRepository.saveGlobalString(passwordEntity);
+        return null;
       }
     });
+    globalStringCache.invalidate(GlobalStringEntity.SALT_ID);
+    globalStringCache.invalidate(GlobalStringEntity.ADMIN_PASSWORD_ID);
+    adminPasswordCache.clear();
   }
 
   @Override
@@ -176,33 +195,62 @@ public class ServerSessionManagerImpl implements ServerSessionManager, Objectify
     };
   }
 
-  private Key<GlobalStringEntity> getAdminPasswordKey() {
-    return Key.create(GlobalStringEntity.class, GlobalStringEntity.ADMIN_PASSWORD_ID);
-  }
-
-  private Key<GlobalStringEntity> getSaltKey() {
-    return Key.create(GlobalStringEntity.class, GlobalStringEntity.SALT_ID);
+  /**
+   * Checks the admin password. A password already verified for the session is accepted without
+   * running the key derivation again. A password still hashed the legacy way is hashed again with
+   * the current parameters once verified.
+   * @param sessionId The id of the current session.
+   * @param inputPassword The password sent by the user.
+   * @return True if the password is the admin password.
+   */
+  private boolean verifyAdminPassword(String sessionId, String inputPassword) {
+    String saltString = loadSalt();
+    String adminPasswordString = globalStringCache.get(GlobalStringEntity.ADMIN_PASSWORD_ID);
+    if (adminPasswordString == null) {
+      // No admin password has been set yet, the empty password is accepted.
+      return inputPassword.isEmpty();
+    }
+    String fingerprint = passwordHasher.fingerprint(inputPassword, saltString,
+        adminPasswordString);
+    if (adminPasswordCache.isVerified(sessionId, fingerprint)) {
+      return true;
+    }
+    if (!passwordHasher.verify(inputPassword, saltString, adminPasswordString)) {
+      adminPasswordCache.remove(sessionId);
+      return false;
+    }
+    if (passwordHasher.needsRehash(adminPasswordString)) {
+      adminPasswordString = passwordHasher.hash(inputPassword, saltString);
+      saveAdminPasswordHash(adminPasswordString);
+      fingerprint = passwordHasher.fingerprint(inputPassword, saltString, adminPasswordString);
+    }
+    adminPasswordCache.putVerified(sessionId, fingerprint);
+    return true;
   }
 
-  private String loadAdminPassword(String saltString) {
-    GlobalStringEntity adminPassword = ofy().load().key(getAdminPasswordKey()).get();
-    return adminPassword != null ? adminPassword.getString() : hashPassword("", saltString);
+  private void saveAdminPasswordHash(String adminPasswordString) {
+    globalStringRepository.saveGlobalString(new GlobalStringEntity(
+        GlobalStringEntity.ADMIN_PASSWORD_ID, adminPasswordString));
+    globalStringCache.invalidate(GlobalStringEntity.ADMIN_PASSWORD_ID);
+    adminPasswordCache.clear();
   }
 
   private String loadSalt() {
-    GlobalStringEntity salt = ofy().load().key(getSaltKey()).get();
-    return salt != null ? salt.getString() : "";
+    String salt = globalStringCache.get(GlobalStringEntity.SALT_ID);
+    return salt != null ? salt : "";
   }
 
-  private String hashPassword(String inputPassword, String saltString) {
-    return hashFunction.hashString(saltString + inputPassword).toString();
+  private SessionInfoEntity retrieveOrCreateSessionInfo() {
+    if (sessionInfoEntity == null) {
+      sessionInfoEntity = loadOrCreateSessionInfo();
+    }
+    return sessionInfoEntity;
   }
 
-  private SessionInfoEntity retrieveOrCreateSessionInfo() {
+  private SessionInfoEntity loadOrCreateSessionInfo() {
     Cookie sessionCookie = getSessionCookie();
     if (sessionCookie != null) {
-      SessionInfoEntity entity = ofy().load().type(SessionInfoEntity.class).id(
-          sessionCookie.getValue()).get();
+      SessionInfoEntity entity = sessionRepository.loadSession(sessionCookie.getValue());
 
       if (entity != null) {
         // TODO(beaudoin): Check if the cookie has expired. If so, clear it.
@@ -217,7 +265,7 @@ public class ServerSessionManagerImpl implements ServerSessionManager, Objectify
     response.addCookie(sessionCookie);
 
     SessionInfoEntity entity = new SessionInfoEntity(sessionCookie.getValue());
-    ofy().save().entity(entity);
+    sessionInfoChanged = true;
 
     return entity;
   }
@@ -39,6 +39,10 @@ public class SessionInfoEntity implements SessionInfo {
     this.id = id;
   }
 
+  public String getId() {
+    return id;
+  }
+
   @Override
   public boolean isAdmin() {
     return admin;
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.session;
+
+/**
+ * Stores the sessions. See {@link com.philbeaudoin.quebec.server.guice.StorageModule} for the
+ * available implementations.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface SessionRepository {
+
+  /**
+   * Loads a session, along with its user.
+   * @param sessionId The id of the session.
+   * @return The session, or null if there is no such session.
+   */
+  SessionInfoEntity loadSession(String sessionId);
+
+  /**
+   * Saves a session.
+   * @param sessionInfoEntity The session to save. Its user, if any, must have been saved.
+   */
+  void saveSession(SessionInfoEntity sessionInfoEntity);
+}
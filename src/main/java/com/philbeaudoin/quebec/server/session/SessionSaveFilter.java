@@ -0,0 +1,66 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.session;
+
+import java.io.IOException;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import com.google.inject.Singleton;
+
+/**
+ * Saves the changes made to the session at the end of the request, so that a request changing the
+ * session many times writes it only once. The response may already be complete by then, so the
+ * changes the next request depends on, signing in or out, are saved as soon as they are made. It must be nested within the {@code ObjectifyFilter}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class SessionSaveFilter implements Filter {
+
+  private final Provider<ServerSessionManager> serverSessionManager;
+
+  @Inject
+  SessionSaveFilter(Provider<ServerSessionManager> serverSessionManager) {
+    this.serverSessionManager = serverSessionManager;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) throws ServletException {
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      serverSessionManager.get().saveSessionInfoChanges();
+    }
+  }
+
+  @Override
+  public void destroy() {
+  }
+}
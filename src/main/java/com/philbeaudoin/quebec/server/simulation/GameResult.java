@@ -0,0 +1,94 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.simulation;
+
+/**
+ * The outcome of a game played by {@link HeadlessGameRunner}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class GameResult {
+
+  private final long seed;
+  private final int scores[];
+  private final int nbMoves;
+  private final long durationMillis;
+
+  GameResult(long seed, int scores[], int nbMoves, long durationMillis) {
+    this.seed = seed;
+    this.scores = scores;
+    this.nbMoves = nbMoves;
+    this.durationMillis = durationMillis;
+  }
+
+  /**
+   * @return The seed used to set up the game.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Returns the final score of a seat.
+   * @param seat The index of the seat, in the order in which the players were given.
+   * @return The score of the player in that seat.
+   */
+  public int getScore(int seat) {
+    return scores[seat];
+  }
+
+  /**
+   * @return The number of seats.
+   */
+  public int getNbSeats() {
+    return scores.length;
+  }
+
+  /**
+   * Computes the share of the win of a seat: 1 for a sole winner, split evenly between the
+   * players tied for the highest score, 0 for the others.
+   * @param seat The index of the seat.
+   * @return The share of the win.
+   */
+  public double getWinShare(int seat) {
+    int bestScore = Integer.MIN_VALUE;
+    int nbWinners = 0;
+    for (int score : scores) {
+      if (score > bestScore) {
+        bestScore = score;
+        nbWinners = 1;
+      } else if (score == bestScore) {
+        nbWinners++;
+      }
+    }
+    return scores[seat] == bestScore ? 1.0 / nbWinners : 0;
+  }
+
+  /**
+   * @return The number of actions performed during the game, including the scoring phases.
+   */
+  public int getNbMoves() {
+    return nbMoves;
+  }
+
+  /**
+   * @return The time taken to play the game, in milliseconds.
+   */
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+}
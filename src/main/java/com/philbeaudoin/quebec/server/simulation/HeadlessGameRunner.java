@@ -0,0 +1,236 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.inject.Provider;
+import com.philbeaudoin.quebec.server.ai.AiBrainSimpleParallel;
+import com.philbeaudoin.quebec.shared.PlayerColor;
+import com.philbeaudoin.quebec.shared.ScoringPhase;
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
+import com.philbeaudoin.quebec.shared.game.action.ActionPerformScoringPhase;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.state.JavaRandomShuffler;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+import com.philbeaudoin.quebec.shared.player.AiBrain;
+import com.philbeaudoin.quebec.shared.player.AiBrainMcts;
+import com.philbeaudoin.quebec.shared.player.AiBrainRandom;
+import com.philbeaudoin.quebec.shared.player.AiBrainSimple;
+import com.philbeaudoin.quebec.shared.player.AiBrainSimple2;
+import com.philbeaudoin.quebec.shared.player.Player;
+import com.philbeaudoin.quebec.shared.player.PlayerLocalAi;
+import com.philbeaudoin.quebec.shared.player.PlayerState;
+
+/**
+ * Plays complete games between artificial intelligences without any rendering, to measure the
+ * strength of the brains and the speed of the rules engine. Each game is set up from a seed, so
+ * a game can be reproduced as long as the brains do not use randomness.
+ * <p />
+ * It can be run from the command line with the number of games, the number of games played in
+ * parallel and the brain of each seat, for example:
+ * {@code HeadlessGameRunner 100 4 simple simple2 mcts random}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class HeadlessGameRunner {
+
+  // Safety net against a rule or a brain that would make a game last forever.
+  private static final int MAX_MOVES = 10000;
+
+  private final List<Provider<? extends AiBrain>> seats;
+
+  /**
+   * Creates a runner for games between a given set of brains.
+   * @param seats A provider of brain for each seat, in the order in which the players play. A new
+   *     brain is obtained for each game, so that brains are never shared between games played in
+   *     parallel.
+   */
+  public HeadlessGameRunner(List<Provider<? extends AiBrain>> seats) {
+    assert seats.size() >= 2 && seats.size() <= PlayerColor.NORMAL.length;
+    this.seats = new ArrayList<Provider<? extends AiBrain>>(seats);
+  }
+
+  /**
+   * Plays a complete game, until the {@link ScoringPhase#FINISH_GAME} phase. The scoring phases
+   * are performed automatically.
+   * @param seed The seed used to shuffle the tiles.
+   * @return The result of the game.
+   */
+  public GameResult playGame(long seed) {
+    long startTime = System.currentTimeMillis();
+    GameControllerBasic gameController = new GameControllerBasic(new JavaRandomShuffler(seed));
+    GameState gameState = new GameState();
+    List<Player> players = new ArrayList<Player>(seats.size());
+    for (int seat = 0; seat < seats.size(); ++seat) {
+      players.add(new PlayerLocalAi(PlayerColor.NORMAL[seat], "Seat " + (seat + 1),
+          seats.get(seat).get()));
+    }
+    gameController.initGame(gameState, players);
+
+    int nbMoves = 0;
+    while (true) {
+      PossibleActions possibleActions = gameState.getPossibleActions();
+      if (possibleActions == null || possibleActions.getNbActions() == 0) {
+        throw new IllegalStateException("No possible action in game " + seed + " after " +
+            nbMoves + " moves.");
+      }
+      GameAction gameAction = possibleActions.getAction(0);
+      if (gameAction instanceof ActionPerformScoringPhase) {
+        if (((ActionPerformScoringPhase) gameAction).getScoringPhase() ==
+            ScoringPhase.FINISH_GAME) {
+          break;
+        }
+      } else {
+        PlayerLocalAi player = (PlayerLocalAi) gameState.getCurrentPlayer().getPlayer();
+        gameAction = player.getMove(gameController, gameState);
+      }
+      if (nbMoves == MAX_MOVES) {
+        throw new IllegalStateException("Game " + seed + " did not finish after " + nbMoves +
+            " moves.");
+      }
+      GameStateChange gameStateChange = gameAction.execute(gameController, gameState);
+      // Like the state copied by the client, the state has no possible actions until a change
+      // sets them.
+      gameState.setPossibleActions(null);
+      gameStateChange.apply(gameController, gameState);
+      nbMoves++;
+    }
+
+    List<PlayerState> playerStates = gameState.getPlayerStates();
+    int scores[] = new int[playerStates.size()];
+    for (int seat = 0; seat < scores.length; ++seat) {
+      scores[seat] = playerStates.get(seat).getScore();
+    }
+    return new GameResult(seed, scores, nbMoves, System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Plays a number of games, some of them in parallel. The games use consecutive seeds.
+   * @param nbGames The number of games to play.
+   * @param firstSeed The seed of the first game.
+   * @param parallelism The maximum number of games played at the same time.
+   * @return The results of the games, in the order of their seeds.
+   */
+  public List<GameResult> playGames(int nbGames, long firstSeed, int parallelism) {
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<Future<GameResult>> futures = new ArrayList<Future<GameResult>>(nbGames);
+      for (int game = 0; game < nbGames; ++game) {
+        final long seed = firstSeed + game;
+        futures.add(executor.submit(new Callable<GameResult>() {
+          @Override
+          public GameResult call() {
+            return playGame(seed);
+          }
+        }));
+      }
+      List<GameResult> results = new ArrayList<GameResult>(nbGames);
+      for (Future<GameResult> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while playing games.", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to play a game.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Plays games between brains and prints the average score and share of wins of each seat, and
+   * the number of games played per second.
+   * @param args The number of games, the number of games to play in parallel, then the name of
+   *     the brain of each seat: {@code random}, {@code simple}, {@code simple2}, {@code parallel}
+   *     or {@code mcts}. The {@code parallel} brains share one thread per available processor.
+   */
+  public static void main(String[] args) {
+    if (args.length < 4) {
+      System.err.println("Usage: HeadlessGameRunner <nbGames> <parallelism> <brain> <brain>...");
+      System.exit(1);
+    }
+    int nbGames = Integer.parseInt(args[0]);
+    int parallelism = Integer.parseInt(args[1]);
+    int nbSearchThreads = Runtime.getRuntime().availableProcessors();
+    ExecutorService searchExecutor = AiBrainSimpleParallel.createExecutor(nbSearchThreads);
+    List<GameResult> results;
+    long durationMillis;
+    try {
+      List<Provider<? extends AiBrain>> seats = new ArrayList<Provider<? extends AiBrain>>();
+      for (int i = 2; i < args.length; ++i) {
+        seats.add(brainProvider(args[i], searchExecutor, nbSearchThreads));
+      }
+      long startTime = System.currentTimeMillis();
+      results = new HeadlessGameRunner(seats).playGames(nbGames, 0, parallelism);
+      durationMillis = System.currentTimeMillis() - startTime;
+    } finally {
+      searchExecutor.shutdownNow();
+    }
+
+    long nbMoves = 0;
+    for (GameResult result : results) {
+      nbMoves += result.getNbMoves();
+    }
+    for (int seat = 0; seat < args.length - 2; ++seat) {
+      double totalScore = 0;
+      double totalWins = 0;
+      for (GameResult result : results) {
+        totalScore += result.getScore(seat);
+        totalWins += result.getWinShare(seat);
+      }
+      System.out.println("Seat " + (seat + 1) + " (" + args[seat + 2] + "): average score " +
+          totalScore / nbGames + ", wins " + totalWins / nbGames);
+    }
+    System.out.println(nbGames + " games, " + nbMoves + " moves in " + durationMillis + " ms: " +
+        nbGames * 1000.0 / durationMillis + " games/s.");
+  }
+
+  private static Provider<? extends AiBrain> brainProvider(final String name,
+      final ExecutorService searchExecutor, final int nbSearchThreads) {
+    Provider<AiBrain> provider = new Provider<AiBrain>() {
+      @Override
+      public AiBrain get() {
+        if (name.equals("random")) {
+          return new AiBrainRandom();
+        } else if (name.equals("simple")) {
+          return new AiBrainSimple(true);
+        } else if (name.equals("simple2")) {
+          return new AiBrainSimple2(true);
+        } else if (name.equals("parallel")) {
+          return new AiBrainSimpleParallel(searchExecutor, nbSearchThreads);
+        } else if (name.equals("mcts")) {
+          return new AiBrainMcts();
+        }
+        throw new IllegalArgumentException("Unknown brain: " + name);
+      }
+    };
+    // Fail before playing any game if the name is unknown.
+    provider.get();
+    return provider;
+  }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.user;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.philbeaudoin.quebec.server.database.InMemoryStore;
+import com.philbeaudoin.quebec.server.database.RecordLog;
+import com.philbeaudoin.quebec.shared.utils.BinaryReader;
+import com.philbeaudoin.quebec.shared.utils.BinaryWriter;
+
+/**
+ * Implementation of {@link UserRepository} that keeps the users in memory, optionally logging
+ * them to a {@link RecordLog}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class InMemoryUserRepository extends InMemoryStore implements UserRepository {
+
+  // The types of records.
+  private static final int USER = 0;
+  private static final int GOOGLE_USER = 1;
+
+  // The latest record of each user, by id.
+  private final Map<Long, byte[]> users = new HashMap<Long, byte[]>();
+  // The id of the user of each Google id.
+  private final Map<String, Long> googleUsers = new HashMap<String, Long>();
+  private long nextId = 1;
+
+  /**
+   * Creates a repository, with the users of the log if there is one.
+   * @param log The log to which the changes are appended, or null to keep them in memory only.
+   */
+  public InMemoryUserRepository(RecordLog log) {
+    super(log);
+    replayLog();
+  }
+
+  @Override
+  public UserInfoEntity loadUser(long userId) {
+    byte record[];
+    synchronized (this) {
+      record = users.get(userId);
+    }
+    return record == null ? null : decodeUser(record);
+  }
+
+  @Override
+  public Map<Long, UserInfoEntity> loadUsers(Collection<Long> userIds) {
+    List<byte[]> records = new ArrayList<byte[]>(userIds.size());
+    synchronized (this) {
+      for (long userId : userIds) {
+        byte record[] = users.get(userId);
+        if (record != null) {
+          records.add(record);
+        }
+      }
+    }
+    Map<Long, UserInfoEntity> result = new HashMap<Long, UserInfoEntity>();
+    for (byte record[] : records) {
+      UserInfoEntity userInfoEntity = decodeUser(record);
+      result.put(userInfoEntity.getId(), userInfoEntity);
+    }
+    return result;
+  }
+
+  @Override
+  public void saveUser(UserInfoEntity userInfoEntity) {
+    synchronized (this) {
+      if (userInfoEntity.id == null) {
+        userInfoEntity.id = nextId++;
+      }
+    }
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(USER);
+    writer.writeVarLong(userInfoEntity.id);
+    writer.writeString(userInfoEntity.googleId);
+    writer.writeString(userInfoEntity.googleTokenResponse);
+    writer.writeString(userInfoEntity.email);
+    writer.writeString(userInfoEntity.name);
+    write(writer);
+  }
+
+  @Override
+  public GoogleUserEntity loadGoogleUser(String googleId) {
+    Long userId;
+    synchronized (this) {
+      userId = googleUsers.get(googleId);
+    }
+    UserInfoEntity userInfoEntity = userId == null ? null : loadUser(userId);
+    return userInfoEntity == null ? null : GoogleUserEntity.Create(googleId, userInfoEntity);
+  }
+
+  @Override
+  public void saveGoogleUser(GoogleUserEntity googleUserEntity) {
+    write(encodeGoogleUser(googleUserEntity.getGoogleId(),
+        googleUserEntity.getUserInfoEntity().getId()));
+  }
+
+  @Override
+  protected void apply(byte record[]) {
+    BinaryReader reader = new BinaryReader(record);
+    int type = reader.readByte();
+    switch (type) {
+    case USER:
+      long userId = reader.readVarLong();
+      users.put(userId, record);
+      nextId = Math.max(nextId, userId + 1);
+      break;
+    case GOOGLE_USER:
+      String googleId = reader.readString();
+      googleUsers.put(googleId, reader.readVarLong());
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown record type: " + type);
+    }
+  }
+
+  @Override
+  protected List<byte[]> snapshot() {
+    List<byte[]> result = new ArrayList<byte[]>(users.values());
+    for (Map.Entry<String, Long> googleUser : googleUsers.entrySet()) {
+      result.add(encodeGoogleUser(googleUser.getKey(), googleUser.getValue()).toByteArray());
+    }
+    return result;
+  }
+
+  private static BinaryWriter encodeGoogleUser(String googleId, long userId) {
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(GOOGLE_USER);
+    writer.writeString(googleId);
+    writer.writeVarLong(userId);
+    return writer;
+  }
+
+  private static UserInfoEntity decodeUser(byte record[]) {
+    BinaryReader reader = new BinaryReader(record);
+    reader.readByte();
+    UserInfoEntity result = UserInfoEntity.Create();
+    result.id = reader.readVarLong();
+    result.googleId = reader.readString();
+    result.googleTokenResponse = reader.readString();
+    result.email = reader.readString();
+    result.name = reader.readString();
+    return result;
+  }
+}
@@ -30,37 +30,34 @@ import com.google.api.services.oauth2.Oauth2;
 import com.google.api.services.oauth2.model.Tokeninfo;
 import com.google.api.services.plus.Plus;
 import com.google.api.services.plus.model.Person;
-import com.googlecode.objectify.Key;
-import com.googlecode.objectify.Objectify;
 import com.gwtplatform.dispatch.shared.ActionException;
+import com.philbeaudoin.quebec.server.database.GlobalStringCache;
 import com.philbeaudoin.quebec.server.database.GlobalStringEntity;
-import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapper;
+import com.philbeaudoin.quebec.server.database.GlobalStringRepository;
 import com.philbeaudoin.quebec.server.exceptions.OperationNotAllowedException;
 import com.philbeaudoin.quebec.server.session.ServerSessionManager;
 import com.philbeaudoin.quebec.shared.session.SessionInfo;
 
-public class OAuthManagerImpl implements OAuthManager, ObjectifyServiceWrapper {
+public class OAuthManagerImpl implements OAuthManager {
 
   private static final String CLIENT_ID = "161973045206.apps.googleusercontent.com";
   private static final String APPLICATION_NAME = "Quebec Boardgame";
 
-  private final ObjectifyServiceWrapper objectifyServiceWrapper;
+  private final GlobalStringRepository globalStringRepository;
   private final HttpTransport transport;
   private final JsonFactory jsonFactory;
   private final ServerSessionManager sessionManager;
+  private final GlobalStringCache globalStringCache;
 
   @Inject
-  public OAuthManagerImpl(ObjectifyServiceWrapper objectifyServiceWrapper, HttpTransport transport,
-      JsonFactory jsonFactory, ServerSessionManager sessionManager) {
-    this.objectifyServiceWrapper = objectifyServiceWrapper;
+  public OAuthManagerImpl(GlobalStringRepository globalStringRepository,
+      HttpTransport transport, JsonFactory jsonFactory, ServerSessionManager sessionManager,
+      GlobalStringCache globalStringCache) {
+    this.globalStringRepository = globalStringRepository;
     this.transport = transport;
     this.jsonFactory = jsonFactory;
     this.sessionManager = sessionManager;
-  }
-
-  @Override
-  public Objectify ofy() {
-    return objectifyServiceWrapper.ofy();
+    this.globalStringCache = globalStringCache;
   }
 
   @Override
@@ -69,9 +66,9 @@ public class OAuthManagerImpl implements OAuthManager, ObjectifyServiceWrapper {
     if (!sessionInfo.isAdmin() || clientSecret == null) {
       throw new OperationNotAllowedException();
     }
-    GlobalStringEntity passwordEntity = new GlobalStringEntity(
-        GlobalStringEntity.GOOGLE_OAUTH_CLIENT_SECRET, clientSecret);
-    ofy().save().entity(passwordEntity);
+    globalStringRepository.saveGlobalString(new GlobalStringEntity(
+        GlobalStringEntity.GOOGLE_OAUTH_CLIENT_SECRET, clientSecret));
+    globalStringCache.invalidate(GlobalStringEntity.GOOGLE_OAUTH_CLIENT_SECRET);
   }
 
   @Override
@@ -154,12 +151,8 @@ public class OAuthManagerImpl implements OAuthManager, ObjectifyServiceWrapper {
     return newest.toString();
   }
 
-  private Key<GlobalStringEntity> getClientSecretKey() {
-    return Key.create(GlobalStringEntity.class, GlobalStringEntity.GOOGLE_OAUTH_CLIENT_SECRET);
-  }
-
   private String loadClientSecret() {
-    return ofy().load().key(getClientSecretKey()).get().getString();
+    return globalStringCache.get(GlobalStringEntity.GOOGLE_OAUTH_CLIENT_SECRET);
   }
 
 }
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.user;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Objectify;
+import com.googlecode.objectify.Work;
+import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapper;
+import com.philbeaudoin.quebec.server.database.RepositoryWork;
+
+/**
+ * Implementation of {@link UserRepository} that stores the users in the datastore.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class ObjectifyUserRepository implements UserRepository, ObjectifyServiceWrapper {
+
+  private final ObjectifyServiceWrapper objectifyServiceWrapper;
+
+  @Inject
+  public ObjectifyUserRepository(ObjectifyServiceWrapper objectifyServiceWrapper) {
+    this.objectifyServiceWrapper = objectifyServiceWrapper;
+  }
+
+  @Override
+  public Objectify ofy() {
+    return objectifyServiceWrapper.ofy();
+  }
+
+  @Override
+  public <R> R transact(final RepositoryWork<R> work) {
+    return ofy().transact(new Work<R>() {
+      @Override
+      public R run() {
+        return work.run();
+      }
+    });
+  }
+
+  @Override
+  public UserInfoEntity loadUser(long userId) {
+    return ofy().load().type(UserInfoEntity.class).id(userId).get();
+  }
+
+  @Override
+  public Map<Long, UserInfoEntity> loadUsers(Collection<Long> userIds) {
+    List<Key<UserInfoEntity>> keys = new ArrayList<Key<UserInfoEntity>>(userIds.size());
+    for (long userId : userIds) {
+      keys.add(Key.create(UserInfoEntity.class, userId));
+    }
+    Map<Long, UserInfoEntity> result = new HashMap<Long, UserInfoEntity>();
+    for (UserInfoEntity userInfoEntity : ofy().load().keys(keys).values()) {
+      result.put(userInfoEntity.getId(), userInfoEntity);
+    }
+    return result;
+  }
+
+  @Override
+  public void saveUser(UserInfoEntity userInfoEntity) {
+    ofy().save().entity(userInfoEntity).now();
+  }
+
+  @Override
+  public GoogleUserEntity loadGoogleUser(String googleId) {
+    return ofy().load().type(GoogleUserEntity.class).id(googleId).get();
+  }
+
+  @Override
+  public void saveGoogleUser(GoogleUserEntity googleUserEntity) {
+    ofy().save().entity(googleUserEntity).now();
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.user;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.inject.Singleton;
+import com.philbeaudoin.quebec.shared.user.UserInfo;
+import com.philbeaudoin.quebec.shared.user.UserInfoDto;
+
+/**
+ * Keeps the display information of the users recently listed as players, so that listing games
+ * does not have to load them from the datastore every time. The information of a user must be
+ * updated here whenever it is saved through this server. Changes made through another server are
+ * seen once the user is evicted.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@Singleton
+public class UserInfoCache {
+
+  // Number of users for which the information is kept.
+  private static final int MAX_USERS = 1000;
+
+  @SuppressWarnings("serial")
+  private final Map<Long, UserInfoDto> users = new LinkedHashMap<Long, UserInfoDto>(16, 0.75f,
+      true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, UserInfoDto> eldest) {
+      return size() > MAX_USERS;
+    }
+  };
+
+  /**
+   * Returns the information of a user, if it is cached.
+   * @param userId The id of the user.
+   * @return The information of the user, or null if it is not cached.
+   */
+  public synchronized UserInfoDto get(long userId) {
+    return users.get(userId);
+  }
+
+  /**
+   * Caches the information of a user, replacing the one that was there.
+   * @param userInfo The information of the user.
+   * @return The cached copy of the information.
+   */
+  public synchronized UserInfoDto put(UserInfo userInfo) {
+    UserInfoDto userInfoDto = new UserInfoDto(userInfo);
+    users.put(userInfo.getId(), userInfoDto);
+    return userInfoDto;
+  }
+}
@@ -5,36 +5,32 @@ import java.security.SecureRandom;
 
 import javax.inject.Inject;
 
-import com.googlecode.objectify.Objectify;
-import com.googlecode.objectify.Work;
 import com.gwtplatform.dispatch.shared.ActionException;
-import com.philbeaudoin.quebec.server.database.ObjectifyServiceWrapper;
+import com.philbeaudoin.quebec.server.database.RepositoryWork;
 import com.philbeaudoin.quebec.server.session.ServerSessionManager;
 import com.philbeaudoin.quebec.server.session.SessionInfoEntity;
 
-public class UserManagerImpl implements UserManager, ObjectifyServiceWrapper {
+public class UserManagerImpl implements UserManager {
 
-  private final ObjectifyServiceWrapper objectifyServiceWrapper;
+  private final UserRepository userRepository;
   private final OAuthManager oauthManager;
   private final ServerSessionManager sessionManager;
+  private final UserInfoCache userInfoCache;
   private final SecureRandom random;
 
 
   @Inject
-  public UserManagerImpl(ObjectifyServiceWrapper objectifyServiceWrapper,
+  public UserManagerImpl(UserRepository userRepository,
       OAuthManager oauthManager,
-      ServerSessionManager sessionManager) {
-    this.objectifyServiceWrapper = objectifyServiceWrapper;
+      ServerSessionManager sessionManager,
+      UserInfoCache userInfoCache) {
+    this.userRepository = userRepository;
     this.oauthManager = oauthManager;
     this.sessionManager = sessionManager;
+    this.userInfoCache = userInfoCache;
     this.random = new SecureRandom();
   }
 
-  @Override
-  public Objectify ofy() {
-    return objectifyServiceWrapper.ofy();
-  }
-
   @Override
   public SessionInfoEntity signIntoSessionWithGoogleAuthenticationCode(String code)
       throws ActionException {
@@ -59,7 +55,7 @@ public class UserManagerImpl implements UserManager, ObjectifyServiceWrapper {
     }
 
     try {
-      userInfo = ofy().transact(new UpdateOrCreateUserWithGoogleId(userToSignIn));
+      userInfo = userRepository.transact(new UpdateOrCreateUserWithGoogleId(userToSignIn));
     } catch(Exception e) {
       throw new ActionException(e.getMessage());
     }
@@ -73,7 +69,9 @@ public class UserManagerImpl implements UserManager, ObjectifyServiceWrapper {
     } catch (IOException e) {
       throw new ActionException("Failed to merge Google token responses. " + e.getMessage());
     }
-    ofy().save().entity(userInfo).now();
+    userRepository.saveUser(userInfo);
+    // The name or email may have changed since the user was last listed.
+    userInfoCache.put(userInfo);
 
     return sessionManager.attachUserInfoToSession(userInfo);
   }
@@ -98,17 +96,17 @@ public class UserManagerImpl implements UserManager, ObjectifyServiceWrapper {
     userInfo.setEmail("dummy" + randomString + "@dummy.com");
     userInfo.setName("Dummy " + randomString);
 
-    ofy().save().entity(userInfo).now();
+    userRepository.saveUser(userInfo);
 
     return sessionManager.attachUserInfoToSession(userInfo);
   }
 
   /**
    * Class meant to be performed in a transaction. Will either get the {@link UserInfoEntity} given
-   * the provided google id. If no user correspond to the provided user id in the datastore, a new
+   * the provided google id. If no user correspond to the provided user id in the repository, a new
    * one will be created.
    */
-  private class UpdateOrCreateUserWithGoogleId implements Work<UserInfoEntity> {
+  private class UpdateOrCreateUserWithGoogleId implements RepositoryWork<UserInfoEntity> {
     private final UserInfoEntity userToSignIn;
     UpdateOrCreateUserWithGoogleId(UserInfoEntity userToSignIn) {
       assert(userToSignIn.getEmail() != null);
@@ -117,8 +115,8 @@ public class UserManagerImpl implements UserManager, ObjectifyServiceWrapper {
 
     @Override
     public UserInfoEntity run() {
-      GoogleUserEntity googleUserEntity = ofy().load().type(GoogleUserEntity.class)
-          .id(userToSignIn.getGoogleId()).get();
+      GoogleUserEntity googleUserEntity =
+          userRepository.loadGoogleUser(userToSignIn.getGoogleId());
       UserInfoEntity userInfoEntity;
       boolean userInfoEntitymodified = false;
       if (googleUserEntity != null) {
@@ -126,7 +124,7 @@ public class UserManagerImpl implements UserManager, ObjectifyServiceWrapper {
       } else {
         userInfoEntitymodified = true;
         userInfoEntity = UserInfoEntity.CreateWithGoogleId(userToSignIn.getGoogleId());
-        ofy().save().entity(userInfoEntity).now();
+        userRepository.saveUser(userInfoEntity);
       }
       String email = userToSignIn.getEmail();
       if (!email.equals(userInfoEntity.getEmail())) {
@@ -139,11 +137,11 @@ public class UserManagerImpl implements UserManager, ObjectifyServiceWrapper {
         userInfoEntitymodified = true;
       }
       if (userInfoEntitymodified) {
-        ofy().save().entity(userInfoEntity).now();
+        userRepository.saveUser(userInfoEntity);
       }
       if (googleUserEntity == null) {
         googleUserEntity = GoogleUserEntity.Create(userToSignIn.getGoogleId(), userInfoEntity);
-        ofy().save().entity(googleUserEntity).now();
+        userRepository.saveGoogleUser(googleUserEntity);
       }
       return userInfoEntity;
     }
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.philbeaudoin.quebec.server.user;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.philbeaudoin.quebec.server.database.RepositoryWork;
+
+/**
+ * Stores the users, along with the {@link GoogleUserEntity} used to find them from their Google
+ * id. See {@link com.philbeaudoin.quebec.server.guice.StorageModule} for the available
+ * implementations.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface UserRepository {
+
+  /**
+   * Runs a work in a transaction.
+   * @param work The work to run, it must only use this repository.
+   * @return The result of the work.
+   */
+  <R> R transact(RepositoryWork<R> work);
+
+  /**
+   * Loads a user.
+   * @param userId The id of the user.
+   * @return The user, or null if there is no such user.
+   */
+  UserInfoEntity loadUser(long userId);
+
+  /**
+   * Loads a number of users in a single batch.
+   * @param userIds The ids of the users.
+   * @return The users that were found, by id.
+   */
+  Map<Long, UserInfoEntity> loadUsers(Collection<Long> userIds);
+
+  /**
+   * Saves a user. A new user is given its id.
+   * @param userInfoEntity The user to save.
+   */
+  void saveUser(UserInfoEntity userInfoEntity);
+
+  /**
+   * Loads the entity connecting a Google id to its user.
+   * @param googleId The Google id.
+   * @return The entity, or null if no user has this Google id.
+   */
+  GoogleUserEntity loadGoogleUser(String googleId);
+
+  /**
+   * Saves the entity connecting a Google id to its user.
+   * @param googleUserEntity The entity to save. Its user must have been saved.
+   */
+  void saveGoogleUser(GoogleUserEntity googleUserEntity);
+}
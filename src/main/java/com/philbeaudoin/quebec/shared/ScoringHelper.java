@@ -16,11 +16,7 @@
 
 package com.philbeaudoin.quebec.shared;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
-
-import com.philbeaudoin.quebec.shared.game.state.Board;
+import com.philbeaudoin.quebec.shared.game.state.BuildingGroups;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
 import com.philbeaudoin.quebec.shared.game.state.TileState;
 import com.philbeaudoin.quebec.shared.game.statechange.GameStateChangeComposite;
@@ -29,7 +25,6 @@ import com.philbeaudoin.quebec.shared.game.statechange.GameStateChangeScorePoint
 import com.philbeaudoin.quebec.shared.location.CubeDestinationInfluenceZone;
 import com.philbeaudoin.quebec.shared.location.CubeDestinationPlayer;
 import com.philbeaudoin.quebec.shared.player.PlayerState;
-import com.philbeaudoin.quebec.shared.utils.Vector2d;
 
 /**
  * A utility class to perform scoring.
@@ -193,59 +188,10 @@ public class ScoringHelper {
    */
   public static ScoringInformation computeBuildingsScoringInformation(GameState gameState) {
     ScoringInformation result = new ScoringInformation();
+    BuildingGroups buildingGroups = gameState.getBuildingGroups();
     for (PlayerColor playerColor : PlayerColor.NORMAL) {
-      Set<TileState> visited = new HashSet<TileState>();
-      int totalScore = 0;
-      BuildingGroupScore largestGroup = null;
-      for (TileState tileState : gameState.getTileStates()) {
-        if (tileState.getStarTokenColor() == playerColor && !visited.contains(tileState)) {
-          BuildingGroupScore group = new BuildingGroupScore();
-          scoreGroup(gameState, playerColor, tileState, visited, group);
-          totalScore += group.starScore;
-          if (largestGroup == null || group.valueScore > largestGroup.valueScore) {
-            largestGroup = group;
-          }
-        }
-      }
-      if (largestGroup != null) {
-        // Remove the star score and add the value score of the largest group.
-        totalScore -= largestGroup.starScore;
-        totalScore += largestGroup.valueScore;
-      }
-      result.setScore(playerColor, totalScore);
+      result.setScore(playerColor, buildingGroups.getScore(playerColor));
     }
     return result;
   }
-
-  private static void scoreGroup(GameState gameState, PlayerColor playerColor, TileState tileState,
-      Set<TileState> visited, BuildingGroupScore group) {
-    assert tileState.getStarTokenColor() == playerColor;
-    int nbStars = tileState.getNbStars();
-    assert nbStars > 0 && nbStars <= 3;
-    int valueScore = nbStars * (nbStars + 1) / 2;
-    assert !visited.contains(tileState);
-
-    visited.add(tileState);
-    group.starScore += nbStars;
-    group.valueScore += valueScore;
-
-    // Find valid neighbors.
-    ArrayList<Vector2d> neighbors = Board.neighborsForLocation(tileState.getLocation());
-    for (Vector2d neighbor : neighbors) {
-      TileState neighborTileState = gameState.findTileAtLocation(neighbor);
-      if (neighborTileState != null && neighborTileState.getStarTokenColor() == playerColor &&
-          !visited.contains(neighborTileState)) {
-        scoreGroup(gameState, playerColor, neighborTileState, visited, group);
-      }
-    }
-  }
-
-  /**
-   * Keep tracks of the score, for a group of building, using either the number of stars or the
-   * larger value.
-   */
-  private static class BuildingGroupScore {
-    int starScore;
-    int valueScore;
-  }
 }
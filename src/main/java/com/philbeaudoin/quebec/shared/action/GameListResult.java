@@ -23,16 +23,19 @@ import com.gwtplatform.dispatch.shared.Result;
 import com.philbeaudoin.quebec.shared.game.GameInfoDto;
 
 /**
- * Returns a list of games
+ * Returns a page of games, along with the cursor to pass to {@link ListGamesAction} to obtain the
+ * next page.
  *
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 public class GameListResult implements Result {
 
   private ArrayList<GameInfoDto> games;
+  private String nextCursor;
 
-  public GameListResult(final List<GameInfoDto> games) {
+  public GameListResult(final List<GameInfoDto> games, String nextCursor) {
     this.games = new ArrayList<GameInfoDto>(games);
+    this.nextCursor = nextCursor;
   }
 
   /**
@@ -45,4 +48,12 @@ public class GameListResult implements Result {
   public ArrayList<GameInfoDto> getGames() {
     return games;
   }
+
+  /**
+   * Access the cursor at which the next page of games starts.
+   * @return The cursor, or null if there are no more games.
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
 }
@@ -18,18 +18,28 @@ package com.philbeaudoin.quebec.shared.action;
 
 import com.gwtplatform.dispatch.shared.Result;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.state.GameStateCodec;
 
 /**
- * Returns the complete state of a given game.
+ * Returns the complete state of a given game, along with its version. The version must be sent
+ * back when performing an action in the game. The game state is sent encoded with
+ * {@link GameStateCodec} when possible, which is much smaller than the serialized object graph.
  *
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 public class GameStateResult implements Result {
 
+  private byte[] encodedGameState;
   private GameState gameState;
+  private long version;
 
-  public GameStateResult(final GameState gameState) {
-    this.gameState = gameState;
+  public GameStateResult(final GameState gameState, final long version) {
+    if (GameStateCodec.canEncode(gameState)) {
+      this.encodedGameState = GameStateCodec.encode(gameState);
+    } else {
+      this.gameState = gameState;
+    }
+    this.version = version;
   }
 
   /**
@@ -40,6 +50,14 @@ public class GameStateResult implements Result {
   }
 
   public GameState getGameState() {
+    if (gameState == null && encodedGameState != null) {
+      gameState = GameStateCodec.decode(encodedGameState);
+      encodedGameState = null;
+    }
     return gameState;
   }
+
+  public long getVersion() {
+    return version;
+  }
 }
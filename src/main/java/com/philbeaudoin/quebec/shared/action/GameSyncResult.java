@@ -0,0 +1,83 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gwtplatform.dispatch.shared.Result;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+
+/**
+ * Returns what a client needs to bring its state of a game up to date. When the client is not too
+ * far behind, this is the list of changes made by the moves played since its version, to be
+ * applied in order. Otherwise it is the complete game state.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class GameSyncResult implements Result {
+
+  private ArrayList<GameStateChange> changes;
+  private GameStateResult gameStateResult;
+  private long version;
+
+  /**
+   * Creates a result holding the changes made since the version of the client.
+   * @param changes The changes, in the order in which they must be applied. Empty if the client
+   *     is up to date.
+   * @param version The version of the game state once the changes are applied.
+   */
+  public GameSyncResult(final List<GameStateChange> changes, final long version) {
+    this.changes = new ArrayList<GameStateChange>(changes);
+    this.version = version;
+  }
+
+  /**
+   * Creates a result holding the complete game state.
+   * @param gameStateResult The game state along with its version.
+   */
+  public GameSyncResult(final GameStateResult gameStateResult) {
+    this.gameStateResult = gameStateResult;
+    this.version = gameStateResult.getVersion();
+  }
+
+  /**
+   * For serialization only.
+   */
+  @SuppressWarnings("unused")
+  private GameSyncResult() {
+  }
+
+  /**
+   * @return The changes to apply to the game state of the client, or null if the complete game
+   *     state is returned instead.
+   */
+  public List<GameStateChange> getChanges() {
+    return changes;
+  }
+
+  /**
+   * @return The complete game state, or null if the changes are returned instead.
+   */
+  public GameStateResult getGameStateResult() {
+    return gameStateResult;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+}
@@ -19,12 +19,30 @@ package com.philbeaudoin.quebec.shared.action;
 import com.gwtplatform.dispatch.shared.ActionImpl;
 
 /**
- * An action to obtain the list of games from the server.
+ * An action to obtain a page of the list of games from the server.
  *
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 public class ListGamesAction extends ActionImpl<GameListResult> {
 
+  String cursor;
+
+  /**
+   * Creates an action to obtain the first page of games.
+   */
   public ListGamesAction() {
   }
+
+  /**
+   * Creates an action to obtain the page of games following a previous one.
+   * @param cursor The cursor returned with the previous page, see
+   *     {@link GameListResult#getNextCursor()}.
+   */
+  public ListGamesAction(final String cursor) {
+    this.cursor = cursor;
+  }
+
+  public String getCursor() {
+    return cursor;
+  }
 }
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.action;
+
+import com.gwtplatform.dispatch.shared.ActionImpl;
+
+/**
+ * An action indicating that the currently signed-in user performs one of the possible actions of a
+ * game. The action is identified by its index in the possible actions of the given version of the
+ * game state, so it is rejected if the game has changed in the meantime.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class PerformGameActionAction extends ActionImpl<GameStateResult> {
+
+  long gameId;
+  long version;
+  int actionIndex;
+
+  public PerformGameActionAction(final long gameId, final long version, final int actionIndex) {
+    this.gameId = gameId;
+    this.version = version;
+    this.actionIndex = actionIndex;
+  }
+
+  /**
+   * For serialization only.
+   */
+  @SuppressWarnings("unused")
+  private PerformGameActionAction() {
+  }
+
+  public long getGameId() {
+    return gameId;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public int getActionIndex() {
+    return actionIndex;
+  }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.action;
+
+import com.gwtplatform.dispatch.shared.ActionImpl;
+
+/**
+ * An action that waits until a game is updated past the version known by the client, then
+ * returns the changes made since that version like {@link SyncGameAction}. The server answers
+ * after a while even if nothing happened, the client should then simply send it again.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class WaitForGameUpdateAction extends ActionImpl<GameSyncResult> {
+
+  long gameId;
+  long version;
+
+  public WaitForGameUpdateAction(final long gameId, final long version) {
+    this.gameId = gameId;
+    this.version = version;
+  }
+
+  /**
+   * For serialization only.
+   */
+  @SuppressWarnings("unused")
+  private WaitForGameUpdateAction() {
+  }
+
+  public long getGameId() {
+    return gameId;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+}
@@ -16,17 +16,16 @@
 
 package com.philbeaudoin.quebec.shared.game;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.google.inject.Inject;
 import com.philbeaudoin.quebec.shared.InfluenceType;
 import com.philbeaudoin.quebec.shared.PlayerColor;
-import com.philbeaudoin.quebec.shared.game.action.ActionMoveArchitect;
+import com.philbeaudoin.quebec.shared.ScoringPhase;
 import com.philbeaudoin.quebec.shared.game.action.ActionPerformScoringPhase;
-import com.philbeaudoin.quebec.shared.game.action.ActionSendCubesToZone;
-import com.philbeaudoin.quebec.shared.game.action.ActionSendWorkers;
-import com.philbeaudoin.quebec.shared.game.action.ActionTakeLeaderCard;
 import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.MoveBuffer;
 import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
 import com.philbeaudoin.quebec.shared.game.state.Board;
 import com.philbeaudoin.quebec.shared.game.state.BoardAction;
@@ -36,7 +35,6 @@ import com.philbeaudoin.quebec.shared.game.state.Shuffler;
 import com.philbeaudoin.quebec.shared.game.state.Tile;
 import com.philbeaudoin.quebec.shared.game.state.TileDeck;
 import com.philbeaudoin.quebec.shared.game.state.TileState;
-import com.philbeaudoin.quebec.shared.message.Message;
 import com.philbeaudoin.quebec.shared.player.Player;
 import com.philbeaudoin.quebec.shared.player.PlayerState;
 import com.philbeaudoin.quebec.shared.utils.Vector2d;
@@ -51,11 +49,13 @@ public class GameControllerBasic implements GameController {
 
   // Number of cubes per player for a 2, 3, 4, 5 player game.
   private static final int CUBES_FOR_N_PLAYERS[] = { 25, 25, 22, 20 };
+  // The values() of an enum allocates a new array on each call.
+  private static final InfluenceType[] INFLUENCE_TYPES = InfluenceType.values();
 
   private final Shuffler shuffler;
 
   @Inject
-  GameControllerBasic(Shuffler shuffler) {
+  public GameControllerBasic(Shuffler shuffler) {
     this.shuffler = shuffler;
   }
 
@@ -67,73 +67,117 @@ public class GameControllerBasic implements GameController {
 
   @Override
   public void configurePossibleActions(GameState gameState) {
-    int century = gameState.getCentury();
-
-    PlayerState currentPlayer = gameState.getCurrentPlayer();
-    int nbActiveCubes = currentPlayer.getNbActiveCubes();
-
-    if (currentPlayer.getNbTotalCubes() == 0) {
+    if (gameState.getCurrentPlayer().getNbTotalCubes() == 0) {
       // Trigger the scoring right now.
-      PossibleActions possibleActions = new PossibleActions(new Message.Text("scoringPhaseBegins"));
-      possibleActions.add(new ActionPerformScoringPhase());
-      gameState.setPossibleActions(possibleActions);
+      gameState.setPossibleActions(
+          ActionPerformScoringPhase.createPossibleActions(ScoringPhase.INIT_SCORING));
       return;
     }
 
-    PossibleActions possibleActions = new PossibleActions();
-    gameState.setPossibleActions(possibleActions);
+    gameState.setPossibleActions(createTurnPossibleActions(gameState));
+  }
+
+  /**
+   * Creates the possible actions of a player who starts his turn with cubes left, from the moves
+   * of {@link #generateMoves}. The AI search overrides this to generate the moves in its own
+   * buffers instead, only for the turns it explores.
+   * @param gameState The game state.
+   * @return The possible actions.
+   */
+  protected PossibleActions createTurnPossibleActions(GameState gameState) {
+    MoveBuffer moves = new MoveBuffer();
+    generateMoves(gameState, moves);
+    return new PossibleActions(moves, gameState.getTileStates());
+  }
+
+  /**
+   * Generates the moves the current player can make at the start of his turn, in the order of the
+   * possible actions set by {@link #configurePossibleActions}. The moves are only generated if the
+   * current player has cubes left, otherwise the scoring must begin. Nothing is allocated unless
+   * the buffer needs to grow, so this can be called repeatedly with the same buffer.
+   * @param gameState The game state.
+   * @param moves The buffer to which to add the moves, see {@link MoveBuffer}.
+   */
+  public void generateMoves(GameState gameState, MoveBuffer moves) {
+    int century = gameState.getCentury();
+
+    PlayerState currentPlayer = gameState.getCurrentPlayer();
+    int nbActiveCubes = currentPlayer.getNbActiveCubes();
 
     // If the player holds his own architect and it's not the first century, then he must move it
     // back to the board.
     boolean mustMoveArchitect = century > 0 && currentPlayer.isHoldingArchitect();
 
     // Mark moving architect actions.
-    getPossibleMoveArchitectActions(gameState, possibleActions);
+    generateMoveArchitectMoves(gameState, moves);
+    if (mustMoveArchitect) {
+      return;
+    }
 
     // Mark sending workers as a possible action.
-    for (TileState tileState : gameState.getTileStates()) {
-      if (!mustMoveArchitect &&
-          tileState.getArchitect().isArchitectColor() &&
+    List<TileState> tileStates = gameState.getTileStates();
+    int nbTileStates = tileStates.size();
+    for (int i = 0; i < nbTileStates; ++i) {
+      TileState tileState = tileStates.get(i);
+      if (tileState.getArchitect().isArchitectColor() &&
           nbActiveCubes >= tileState.getCubesPerSpot() &&
           tileState.getColorInSpot(2) == PlayerColor.NONE) {
-        possibleActions.add(new ActionSendWorkers(true, tileState.getTile()));
+        moves.add(MoveBuffer.sendWorkers(i));
       }
     }
 
     // Mark moving one cube to influence zones as a possible action.
-    if (!mustMoveArchitect && nbActiveCubes >= 1) {
-      for (InfluenceType influenceZone : InfluenceType.values()) {
-        possibleActions.add(new ActionSendCubesToZone(1, true, influenceZone));
+    if (nbActiveCubes >= 1) {
+      for (InfluenceType influenceZone : INFLUENCE_TYPES) {
+        moves.add(MoveBuffer.sendCubeToZone(influenceZone));
       }
     }
 
     // Mark getting a leader card as a possible action.
-    if (!mustMoveArchitect && currentPlayer.getLeaderCard() == null) {
-      for (LeaderCard leaderCard : gameState.getAvailableLeaderCards()) {
-        possibleActions.add(new ActionTakeLeaderCard(leaderCard));
+    if (currentPlayer.getLeaderCard() == null) {
+      List<LeaderCard> availableLeaderCards = gameState.getAvailableLeaderCards();
+      int nbAvailableLeaderCards = availableLeaderCards.size();
+      for (int i = 0; i < nbAvailableLeaderCards; ++i) {
+        moves.add(MoveBuffer.takeLeaderCard(availableLeaderCards.get(i)));
       }
     }
   }
 
-
   @Override
   public void getPossibleMoveArchitectActions(GameState gameState,
       PossibleActions possibleActions) {
+    MoveBuffer moves = new MoveBuffer();
+    generateMoveArchitectMoves(gameState, moves);
+    List<TileState> tileStates = gameState.getTileStates();
+    for (int i = 0; i < moves.size(); ++i) {
+      possibleActions.add(MoveBuffer.toAction(moves.get(i), tileStates));
+    }
+  }
+
+  /**
+   * Generates the moves of the current player's architect, in the order of the possible actions
+   * added by {@link #getPossibleMoveArchitectActions}.
+   * @param gameState The game state.
+   * @param moves The buffer to which to add the moves, see {@link MoveBuffer}.
+   */
+  public void generateMoveArchitectMoves(GameState gameState, MoveBuffer moves) {
     PlayerState currentPlayer = gameState.getCurrentPlayer();
     int century = gameState.getCentury();
     boolean canMoveArchitect = false;
-    for (TileState tileState : gameState.getTileStates()) {
-      canMoveArchitect = addArchitectMoveActionIfPossible(century, possibleActions, currentPlayer,
-          tileState) || canMoveArchitect;
+    List<TileState> tileStates = gameState.getTileStates();
+    int nbTileStates = tileStates.size();
+    for (int i = 0; i < nbTileStates; ++i) {
+      canMoveArchitect = addArchitectMoveIfPossible(century, moves, currentPlayer,
+          tileStates.get(i), i) || canMoveArchitect;
     }
 
     if (!canMoveArchitect) {
       // No tile to move architect to, make it possible to end the round by moving the architect.
-      possibleActions.add(new ActionMoveArchitect(null, false, 0));
+      moves.add(MoveBuffer.moveArchitect(-1, false, 0));
       // If the player has the yellow leader, he can also move the neutral architect.
       if (currentPlayer.getLeaderCard() == LeaderCard.ECONOMIC &&
           !currentPlayer.isHoldingNeutralArchitect()) {
-        possibleActions.add(new ActionMoveArchitect(null, true, 0));
+        moves.add(MoveBuffer.moveArchitect(-1, true, 0));
       }
     }
   }
@@ -187,8 +231,7 @@ public class GameControllerBasic implements GameController {
     }
     playerStates.get(0).setCurrentPlayer(true);
 
-    List<TileState> tileStates = gameState.getTileStates();
-    tileStates.clear();
+    List<TileState> tileStates = new ArrayList<TileState>(Tile.NB_TILES);
     TileDeck tileDeck = new TileDeck(shuffler);
     for (int column = 0; column < 18; ++column) {
       for (int line = 0; line < 8; ++line) {
@@ -201,6 +244,7 @@ public class GameControllerBasic implements GameController {
         }
       }
     }
+    gameState.setTileStates(tileStates);
 
     List<LeaderCard> availableLeaderCards = gameState.getAvailableLeaderCards();
     availableLeaderCards.clear();
@@ -220,22 +264,22 @@ public class GameControllerBasic implements GameController {
   }
 
   /**
-   * Adds an action to move the architect to the specified tile, if possible.
+   * Adds a move of the architect to the specified tile, if possible.
    * @param century The current century.
-   * @param possibleActions The list of possible actions to add to.
+   * @param moves The buffer to which to add the moves.
    * @param currentPlayer The current player.
    * @param tileState The tile on to which to send the architect, if possible.
+   * @param tileIndex The index of the tile in the list of tile states.
    * @return True if the architect can be moved to that tile, false otherwise.
    */
-  private boolean addArchitectMoveActionIfPossible(int century,
-      PossibleActions possibleActions, PlayerState currentPlayer,
-      TileState tileState) {
+  private boolean addArchitectMoveIfPossible(int century, MoveBuffer moves,
+      PlayerState currentPlayer, TileState tileState, int tileIndex) {
     if (tileState.isAvailableForArchitect(century)) {
       int cubesToActivate = Math.min(3, currentPlayer.getNbPassiveCubes());
-      possibleActions.add(new ActionMoveArchitect(tileState.getTile(), false, cubesToActivate));
+      moves.add(MoveBuffer.moveArchitect(tileIndex, false, cubesToActivate));
       // If the player has the yellow leader, he can also move the neutral architect.
       if (currentPlayer.getLeaderCard() == LeaderCard.ECONOMIC) {
-        possibleActions.add(new ActionMoveArchitect(tileState.getTile(), true, cubesToActivate));
+        moves.add(MoveBuffer.moveArchitect(tileIndex, true, cubesToActivate));
       }
       return true;
     }
@@ -56,4 +56,9 @@ public interface GameInfo {
    * @return The index of the currently active player or -1 if there are no active player.
    */
   int getCurrentPlayerIndex();
+
+  /**
+   * @return The date at which the last move was played, or null if no move has been played yet.
+   */
+  Date getLastMoveDate();
 }
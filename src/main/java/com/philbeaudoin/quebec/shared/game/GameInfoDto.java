@@ -29,6 +29,7 @@ public class GameInfoDto implements GameInfo, IsSerializable {
   ArrayList<UserInfoDto> players;
   Date creationDate;
   int currentPlayerIndex;
+  Date lastMoveDate;
 
   public GameInfoDto(GameInfo gameInfo) {
     assert(gameInfo != null);
@@ -39,6 +40,9 @@ public class GameInfoDto implements GameInfo, IsSerializable {
       this.players.add(userInfo == null ? null : new UserInfoDto(userInfo));
     }
     this.creationDate = new Date(gameInfo.getCreationDate().getTime());
+    this.currentPlayerIndex = gameInfo.getCurrentPlayerIndex();
+    Date gameLastMoveDate = gameInfo.getLastMoveDate();
+    this.lastMoveDate = gameLastMoveDate == null ? null : new Date(gameLastMoveDate.getTime());
   }
 
   /**
@@ -73,6 +77,11 @@ public class GameInfoDto implements GameInfo, IsSerializable {
     return currentPlayerIndex;
   }
 
+  @Override
+  public Date getLastMoveDate() {
+    return lastMoveDate;
+  }
+
   public UserInfoDto getPlayerInfoDto(int index) {
     return players.get(index);
   }
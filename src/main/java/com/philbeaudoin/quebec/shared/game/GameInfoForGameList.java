@@ -61,6 +61,7 @@ public class GameInfoForGameList implements GameInfo {
   @Override public UserInfo getPlayerInfo(int index) { return gameInfoDto.getPlayerInfo(index); }
   @Override public Date getCreationDate() { return gameInfoDto.getCreationDate(); }
   @Override public int getCurrentPlayerIndex() { return gameInfoDto.getCurrentPlayerIndex(); }
+  @Override public Date getLastMoveDate() { return gameInfoDto.getLastMoveDate(); }
 
   /**
    * @return The attached game info.
@@ -98,6 +98,20 @@ public class ActionMoveArchitect implements GameActionOnTile {
 
   @Override
   public GameStateChange execute(GameController gameController, GameState gameState) {
+    return execute(gameState, destinationTile, neutralArchitect, cubesToActivate, followup);
+  }
+
+  /**
+   * Executes the move of an architect, see {@link MoveBuffer#execute}.
+   * @param gameState The game state.
+   * @param destinationTile The tile to move the architect to, or null to move it out of the board.
+   * @param neutralArchitect True to indicate that it's the neutral architect moving.
+   * @param cubesToActivate the number of cubes to move from passive to active.
+   * @param followup The change to apply following this one, or null for the default one.
+   * @return The change resulting from the move.
+   */
+  static GameStateChange execute(GameState gameState, Tile destinationTile,
+      boolean neutralArchitect, int cubesToActivate, GameStateChange followup) {
     GameStateChangeComposite result = new GameStateChangeComposite();
     PlayerState playerState = gameState.getCurrentPlayer();
     PlayerColor activePlayer = playerState.getColor();
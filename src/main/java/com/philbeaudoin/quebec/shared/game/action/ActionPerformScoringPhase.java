@@ -44,6 +44,8 @@ import com.philbeaudoin.quebec.shared.location.CubeDestinationPlayer;
 import com.philbeaudoin.quebec.shared.location.LeaderDestinationBoard;
 import com.philbeaudoin.quebec.shared.location.LeaderDestinationPlayer;
 import com.philbeaudoin.quebec.shared.message.Message;
+import com.philbeaudoin.quebec.shared.message.MessageSupplier;
+import com.philbeaudoin.quebec.shared.message.TextBoxInfo;
 import com.philbeaudoin.quebec.shared.player.PlayerState;
 
 /**
@@ -51,7 +53,7 @@ import com.philbeaudoin.quebec.shared.player.PlayerState;
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 @SuppressWarnings("serial")
-public class ActionPerformScoringPhase implements GameAction {
+public class ActionPerformScoringPhase implements GameAction, MessageSupplier {
 
   private ScoringPhase scoringPhase;
   private GameStateChange followup;
@@ -64,6 +66,41 @@ public class ActionPerformScoringPhase implements GameAction {
     return new ActionPerformScoringPhase(ScoringPhase.PREPARE_NEXT_CENTURY, followup);
   }
 
+  /**
+   * Creates the possible actions when a given scoring phase must be performed: the single action
+   * performing that phase, with a text box explaining it.
+   * @param scoringPhase The scoring phase to perform.
+   * @return The newly created possible actions.
+   */
+  public static PossibleActions createPossibleActions(ScoringPhase scoringPhase) {
+    ActionPerformScoringPhase action = new ActionPerformScoringPhase(scoringPhase);
+    // The message depends on the game state after the previous phase, so it's only created when
+    // shown.
+    PossibleActions possibleActions = new PossibleActions(new TextBoxInfo(action));
+    possibleActions.add(action);
+    return possibleActions;
+  }
+
+  /**
+   * Finds the scoring phase of possible actions created by {@link #createPossibleActions}.
+   * @param possibleActions The possible actions.
+   * @return The scoring phase to perform, or null if the possible actions were not created by
+   *     {@link #createPossibleActions}.
+   */
+  public static ScoringPhase getScoringPhase(PossibleActions possibleActions) {
+    if (possibleActions.getNbActions() != 1 ||
+        !(possibleActions.getAction(0) instanceof ActionPerformScoringPhase)) {
+      return null;
+    }
+    ActionPerformScoringPhase action = (ActionPerformScoringPhase) possibleActions.getAction(0);
+    TextBoxInfo textBoxInfo = possibleActions.getTextBoxInfo();
+    if (action.followup != null || textBoxInfo == null ||
+        textBoxInfo.getMessageSupplier() != action || !possibleActions.getCanSelectBoardAction()) {
+      return null;
+    }
+    return action.scoringPhase;
+  }
+
   private ActionPerformScoringPhase(ScoringPhase scoringPhase) {
     this(scoringPhase, null);
   }
@@ -106,13 +143,8 @@ public class ActionPerformScoringPhase implements GameAction {
     if (scoringPhase != ScoringPhase.PREPARE_NEXT_CENTURY &&
         scoringPhase != ScoringPhase.FINISH_GAME) {
       // TODO(beaudoin): Handle game end somehow.
-      ActionPerformScoringPhase nextAction = new ActionPerformScoringPhase(
-          scoringPhase.nextScoringPhase(century));
-      GameState nextGameState = new GameState(gameState);
-      result.apply(gameController, nextGameState);
-      PossibleActions possibleActions = new PossibleActions(nextAction.getMessage(nextGameState));
-      possibleActions.add(nextAction);
-      result.add(new GameStateChangeQueuePossibleActions(possibleActions));
+      result.add(new GameStateChangeQueuePossibleActions(
+          createPossibleActions(scoringPhase.nextScoringPhase(century))));
     }
 
     if (followup != null) {
@@ -189,6 +221,14 @@ public class ActionPerformScoringPhase implements GameAction {
     }
   }
 
+  /**
+   * Returns the scoring phase performed by this action.
+   * @return The scoring phase.
+   */
+  public ScoringPhase getScoringPhase() {
+    return scoringPhase;
+  }
+
   @Override
   public boolean isAutomatic() {
     return false;
@@ -204,6 +244,7 @@ public class ActionPerformScoringPhase implements GameAction {
    * @param gameState the current game state.
    * @return The message.
    */
+  @Override
   public Message getMessage(GameState gameState) {
     switch (scoringPhase) {
     case INIT_SCORING:
@@ -62,6 +62,20 @@ public class ActionSendCubesToZone implements GameActionOnInfluenceZone {
 
   @Override
   public GameStateChange execute(GameController gameController, GameState gameState) {
+    return execute(gameState, nbCubes, fromActive, to, followup);
+  }
+
+  /**
+   * Executes sending cubes to an influence zone, see {@link MoveBuffer#execute}.
+   * @param gameState The game state.
+   * @param nbCubes The number of cubes to send.
+   * @param fromActive True if the cubes come from the active reserve.
+   * @param to The influence zone.
+   * @param followup The change to apply following this one.
+   * @return The change resulting from sending the cubes.
+   */
+  static GameStateChange execute(GameState gameState, int nbCubes, boolean fromActive,
+      InfluenceType to, GameStateChange followup) {
     PlayerState playerState = gameState.getCurrentPlayer();
     PlayerColor activePlayer = playerState.getColor();
 
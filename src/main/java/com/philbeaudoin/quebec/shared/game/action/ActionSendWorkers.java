@@ -67,11 +67,24 @@ public class ActionSendWorkers implements GameActionOnTile {
 
   @Override
   public GameStateChange execute(GameController gameController, GameState gameState) {
+    return execute(gameState, fromActive, gameState.findTileState(destinationTile), followup);
+  }
+
+  /**
+   * Executes sending workers, see {@link MoveBuffer#execute}.
+   * @param gameState The game state.
+   * @param fromActive True if the cubes come from the active reserve.
+   * @param tileState The state of the destination tile.
+   * @param followup The change to apply following this one, or null for the default one.
+   * @return The change resulting from sending the workers.
+   */
+  static GameStateChange execute(GameState gameState, boolean fromActive, TileState tileState,
+      GameStateChange followup) {
     GameStateChangeComposite result = new GameStateChangeComposite();
     PlayerState playerState = gameState.getCurrentPlayer();
     PlayerColor activePlayer = playerState.getColor();
+    Tile destinationTile = tileState.getTile();
 
-    TileState tileState = gameState.findTileState(destinationTile);
     int destinationSpot = -1;
     for (int spot = 0; spot < 3; ++spot) {
       if (tileState.getColorInSpot(spot) == PlayerColor.NONE) {
@@ -110,7 +123,7 @@ public class ActionSendWorkers implements GameActionOnTile {
     // Check if the action should be executed.
     if (followup != null) {
       result.add(followup);
-    } else if (canExecuteBoardAction(playerState, tileState)) {
+    } else if (canExecuteBoardAction(fromActive, playerState, tileState)) {
       Vector2d tileLocation = tileState.getLocation();
       BoardAction action = Board.actionForTileLocation(tileLocation.getColumn(),
           tileLocation.getLine());
@@ -144,11 +157,12 @@ public class ActionSendWorkers implements GameActionOnTile {
    * @return True if the player can execute the board action.
    */
   public boolean canExecuteBoardAction(GameState gameState) {
-    return canExecuteBoardAction(gameState.getCurrentPlayer(),
+    return canExecuteBoardAction(fromActive, gameState.getCurrentPlayer(),
         gameState.findTileState(destinationTile));
   }
 
-  private boolean canExecuteBoardAction(PlayerState playerState, TileState tileState) {
+  private static boolean canExecuteBoardAction(boolean fromActive, PlayerState playerState,
+      TileState tileState) {
     return fromActive &&
         (!playerState.ownsArchitect(tileState.getArchitect()) ||
         playerState.getLeaderCard() == LeaderCard.RELIGIOUS);
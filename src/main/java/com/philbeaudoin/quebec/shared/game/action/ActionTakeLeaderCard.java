@@ -67,6 +67,18 @@ public class ActionTakeLeaderCard implements GameAction, HasLeaderCard {
 
   @Override
   public GameStateChange execute(GameController gameController, GameState gameState) {
+    return execute(gameState, leaderCard, followup);
+  }
+
+  /**
+   * Executes taking a leader card, see {@link MoveBuffer#execute}.
+   * @param gameState The game state.
+   * @param leaderCard The leader card.
+   * @param followup The change to apply following this one.
+   * @return The change resulting from taking the leader card.
+   */
+  static GameStateChange execute(GameState gameState, LeaderCard leaderCard,
+      GameStateChange followup) {
     GameStateChangeComposite result = new GameStateChangeComposite();
     PlayerState playerState = gameState.getCurrentPlayer();
     PlayerColor activePlayer = playerState.getColor();
@@ -0,0 +1,230 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.game.action;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.philbeaudoin.quebec.shared.InfluenceType;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.state.LeaderCard;
+import com.philbeaudoin.quebec.shared.game.state.Tile;
+import com.philbeaudoin.quebec.shared.game.state.TileState;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChangeNextPlayer;
+
+/**
+ * A reusable list of moves, each encoded in a single int. A move code holds the type of the
+ * action, the index of its tile in the list of tile states of the game, a flag and a small value
+ * whose meaning depends on the type. Moves are turned into {@link GameAction} only when needed, see
+ * {@link #toAction}, and the AI executes them without creating actions, see {@link #execute}. The
+ * list of tile states never changes order during a game, so a move code is valid for any state of
+ * the game in which it was generated.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@SuppressWarnings("serial")
+public class MoveBuffer implements Serializable {
+
+  public static final int TYPE_MOVE_ARCHITECT = 0;
+  public static final int TYPE_SEND_WORKERS = 1;
+  public static final int TYPE_SEND_CUBES_TO_ZONE = 2;
+  public static final int TYPE_TAKE_LEADER_CARD = 3;
+
+  // Bits 0-2 hold the type, bit 3 the flag, bits 4-10 the tile index and bits 11-18 the value.
+  private static final int TYPE_MASK = 0x7;
+  private static final int FLAG = 0x8;
+  private static final int TILE_SHIFT = 4;
+  private static final int TILE_MASK = 0x7f;
+  private static final int NO_TILE = TILE_MASK;
+  private static final int VALUE_SHIFT = 11;
+  private static final int VALUE_MASK = 0xff;
+
+  private static final int INITIAL_CAPACITY = 32;
+
+  // The values() of an enum allocates a new array on each call.
+  private static final InfluenceType[] INFLUENCE_TYPES = InfluenceType.values();
+  private static final LeaderCard[] LEADER_CARDS = LeaderCard.values();
+
+  private int moves[];
+  private int size;
+
+  /**
+   * Creates an empty move buffer.
+   */
+  public MoveBuffer() {
+    moves = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Removes all the moves from the buffer, keeping its capacity.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Adds a move at the end of the buffer.
+   * @param move The move code.
+   */
+  public void add(int move) {
+    if (size == moves.length) {
+      int newMoves[] = new int[2 * moves.length];
+      System.arraycopy(moves, 0, newMoves, 0, size);
+      moves = newMoves;
+    }
+    moves[size++] = move;
+  }
+
+  /**
+   * The number of moves in the buffer.
+   * @return The number of moves.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Access a given move.
+   * @param index The index of the move to access.
+   * @return The move code.
+   */
+  public int get(int index) {
+    assert index < size;
+    return moves[index];
+  }
+
+  /**
+   * Encodes the move of an architect. See {@link ActionMoveArchitect}.
+   * @param tileIndex The index of the destination tile in the list of tile states, or -1 to move
+   *     the architect out of the board.
+   * @param neutralArchitect True if it's the neutral architect moving.
+   * @param cubesToActivate The number of cubes to move from passive to active.
+   * @return The move code.
+   */
+  public static int moveArchitect(int tileIndex, boolean neutralArchitect, int cubesToActivate) {
+    return encode(TYPE_MOVE_ARCHITECT, tileIndex, neutralArchitect, cubesToActivate);
+  }
+
+  /**
+   * Encodes sending active workers to a tile. See {@link ActionSendWorkers}.
+   * @param tileIndex The index of the destination tile in the list of tile states.
+   * @return The move code.
+   */
+  public static int sendWorkers(int tileIndex) {
+    return encode(TYPE_SEND_WORKERS, tileIndex, true, 0);
+  }
+
+  /**
+   * Encodes sending a single active cube to an influence zone. See {@link ActionSendCubesToZone}.
+   * @param influenceZone The influence zone.
+   * @return The move code.
+   */
+  public static int sendCubeToZone(InfluenceType influenceZone) {
+    return encode(TYPE_SEND_CUBES_TO_ZONE, -1, true, influenceZone.ordinal());
+  }
+
+  /**
+   * Encodes taking a leader card. See {@link ActionTakeLeaderCard}.
+   * @param leaderCard The leader card.
+   * @return The move code.
+   */
+  public static int takeLeaderCard(LeaderCard leaderCard) {
+    return encode(TYPE_TAKE_LEADER_CARD, -1, false, leaderCard.ordinal());
+  }
+
+  /**
+   * Returns the type of a move, one of the {@code TYPE_} constants.
+   * @param move The move code.
+   * @return The type of the move.
+   */
+  public static int getType(int move) {
+    return move & TYPE_MASK;
+  }
+
+  /**
+   * Returns the index of the tile of a move in the list of tile states.
+   * @param move The move code.
+   * @return The index of the tile, or -1 if the move has no tile.
+   */
+  public static int getTileIndex(int move) {
+    int tileIndex = (move >> TILE_SHIFT) & TILE_MASK;
+    return tileIndex == NO_TILE ? -1 : tileIndex;
+  }
+
+  /**
+   * Turns a move into the game action it stands for.
+   * @param move The move code.
+   * @param tileStates The list of tile states of the game in which the move was generated.
+   * @return The newly created game action.
+   */
+  public static GameAction toAction(int move, List<TileState> tileStates) {
+    int tileIndex = getTileIndex(move);
+    Tile tile = tileIndex == -1 ? null : tileStates.get(tileIndex).getTile();
+    boolean flag = (move & FLAG) != 0;
+    int value = (move >> VALUE_SHIFT) & VALUE_MASK;
+    switch (getType(move)) {
+    case TYPE_MOVE_ARCHITECT:
+      return new ActionMoveArchitect(tile, flag, value);
+    case TYPE_SEND_WORKERS:
+      return new ActionSendWorkers(flag, tile);
+    case TYPE_SEND_CUBES_TO_ZONE:
+      return new ActionSendCubesToZone(1, flag, INFLUENCE_TYPES[value]);
+    case TYPE_TAKE_LEADER_CARD:
+      return new ActionTakeLeaderCard(LEADER_CARDS[value]);
+    default:
+      assert false : "Unknown move type";
+      return null;
+    }
+  }
+
+  /**
+   * Executes a move without creating the game action it stands for. The result is the same as
+   * executing the action returned by {@link #toAction}.
+   * @param move The move code.
+   * @param gameState The game state in which the move was generated, or one of the same game.
+   * @return The change resulting from the move.
+   */
+  public static GameStateChange execute(int move, GameState gameState) {
+    int tileIndex = getTileIndex(move);
+    List<TileState> tileStates = gameState.getTileStates();
+    boolean flag = (move & FLAG) != 0;
+    int value = (move >> VALUE_SHIFT) & VALUE_MASK;
+    switch (getType(move)) {
+    case TYPE_MOVE_ARCHITECT:
+      return ActionMoveArchitect.execute(gameState,
+          tileIndex == -1 ? null : tileStates.get(tileIndex).getTile(), flag, value, null);
+    case TYPE_SEND_WORKERS:
+      return ActionSendWorkers.execute(gameState, flag, tileStates.get(tileIndex), null);
+    case TYPE_SEND_CUBES_TO_ZONE:
+      return ActionSendCubesToZone.execute(gameState, 1, flag, INFLUENCE_TYPES[value],
+          new GameStateChangeNextPlayer());
+    case TYPE_TAKE_LEADER_CARD:
+      return ActionTakeLeaderCard.execute(gameState, LEADER_CARDS[value],
+          new GameStateChangeNextPlayer());
+    default:
+      assert false : "Unknown move type";
+      return null;
+    }
+  }
+
+  private static int encode(int type, int tileIndex, boolean flag, int value) {
+    assert tileIndex < NO_TILE && value <= VALUE_MASK;
+    int tile = tileIndex == -1 ? NO_TILE : tileIndex;
+    return type | (flag ? FLAG : 0) | (tile << TILE_SHIFT) | (value << VALUE_SHIFT);
+  }
+}
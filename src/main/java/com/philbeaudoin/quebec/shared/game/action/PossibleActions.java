@@ -18,7 +18,9 @@ package com.philbeaudoin.quebec.shared.game.action;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 
+import com.philbeaudoin.quebec.shared.game.state.TileState;
 import com.philbeaudoin.quebec.shared.message.Message;
 import com.philbeaudoin.quebec.shared.message.TextBoxInfo;
 
@@ -30,9 +32,15 @@ import com.philbeaudoin.quebec.shared.message.TextBoxInfo;
 public class PossibleActions implements Serializable {
 
   private TextBoxInfo textBoxInfo;
-  private ArrayList<GameAction> gameActions = new ArrayList<GameAction>();
+  private ArrayList<GameAction> gameActions;
   private boolean canSelectBoardAction;
 
+  // When the actions are given as moves, they are only turned into game actions when accessed.
+  // In that case gameActions is null until all the moves have been turned into actions.
+  private MoveBuffer moves;
+  private List<TileState> tileStates;
+  private GameAction movesActions[];
+
   /**
    * Creates a list of possible actions without an information message. Assumes the user can select
    * a board action, so the renderer should display a tooltip on the board action on hover.
@@ -50,6 +58,20 @@ public class PossibleActions implements Serializable {
   public PossibleActions(TextBoxInfo textBoxInfo, boolean canSelectBoardAction) {
     this.textBoxInfo = textBoxInfo;
     this.canSelectBoardAction = canSelectBoardAction;
+    gameActions = new ArrayList<GameAction>();
+  }
+
+  /**
+   * Creates a list of possible actions without an information message from moves. The game
+   * actions are only created when they are accessed. Assumes the user can select a board action.
+   * @param moves The moves. The list of possible actions takes ownership of the buffer, it must not
+   *     be modified afterwards.
+   * @param tileStates The list of tile states of the game in which the moves were generated.
+   */
+  public PossibleActions(MoveBuffer moves, List<TileState> tileStates) {
+    this.canSelectBoardAction = true;
+    this.moves = moves;
+    this.tileStates = tileStates;
   }
 
   /**
@@ -75,7 +97,7 @@ public class PossibleActions implements Serializable {
    * @return The number of actions.
    */
   public int getNbActions() {
-    return gameActions.size();
+    return moves != null ? moves.size() : gameActions.size();
   }
 
   /**
@@ -84,6 +106,7 @@ public class PossibleActions implements Serializable {
    */
   public void accept(GameActionVisitor visitor) {
     visitor.setPossibleActions(this);
+    createActionsFromMoves();
     for (GameAction gameAction : gameActions) {
       gameAction.accept(visitor);
     }
@@ -94,6 +117,7 @@ public class PossibleActions implements Serializable {
    * @param gameAction The action to add.
    */
   public void add(GameAction gameAction) {
+    createActionsFromMoves();
     gameActions.add(gameAction);
   }
 
@@ -111,10 +135,62 @@ public class PossibleActions implements Serializable {
    * @return The action
    */
   public GameAction getAction(int actionIndex) {
-    return gameActions.get(actionIndex);
+    if (moves == null) {
+      return gameActions.get(actionIndex);
+    }
+    if (movesActions == null) {
+      movesActions = new GameAction[moves.size()];
+    }
+    GameAction gameAction = movesActions[actionIndex];
+    if (gameAction == null) {
+      gameAction = MoveBuffer.toAction(moves.get(actionIndex), tileStates);
+      movesActions[actionIndex] = gameAction;
+    }
+    return gameAction;
+  }
+
+  /**
+   * Finds the index of an action among the possible actions. Actions are compared by identity.
+   * @param gameAction The action to look for.
+   * @return The index of the action, or -1 if it is not one of the possible actions.
+   */
+  public int indexOf(GameAction gameAction) {
+    int nbActions = getNbActions();
+    for (int actionIndex = 0; actionIndex < nbActions; ++actionIndex) {
+      if (getAction(actionIndex) == gameAction) {
+        return actionIndex;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the moves from which the game actions are created, if the actions were given as moves
+   * and none was added since.
+   * @return The moves, or null if the actions are not given as moves. Must not be modified.
+   */
+  public MoveBuffer getMoves() {
+    return moves;
   }
 
   public boolean getCanSelectBoardAction() {
     return canSelectBoardAction;
   }
+
+  /**
+   * Turns all the moves into game actions, if the actions were given as moves.
+   */
+  private void createActionsFromMoves() {
+    if (moves == null) {
+      return;
+    }
+    int nbMoves = moves.size();
+    gameActions = new ArrayList<GameAction>(nbMoves);
+    for (int i = 0; i < nbMoves; ++i) {
+      gameActions.add(getAction(i));
+    }
+    moves = null;
+    tileStates = null;
+    movesActions = null;
+  }
 }
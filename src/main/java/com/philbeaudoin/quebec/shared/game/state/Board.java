@@ -31,9 +31,22 @@ public class Board {
   private static final int NB_LINES = 8;
   private static final int NB_COLUMNS = 18;
 
+  /**
+   * The number of locations in the grid covering the board, {@link #indexForLocation(int, int)}
+   * returns a value between 0 and NB_LOCATIONS - 1.
+   */
+  public static final int NB_LOCATIONS = NB_COLUMNS * NB_LINES;
+
   // Keeps the location of the action associated to each tile location.
   private static final BoardAction[] boardActions = new BoardAction[16];
-  private static final BoardAction[] locToAction = new BoardAction[NB_COLUMNS * NB_LINES];
+  private static final BoardAction[] locToAction = new BoardAction[NB_LOCATIONS];
+  // Keeps the neighboring locations that can hold a tile, for each location.
+  private static final int[][] locToNeighbors = new int[NB_LOCATIONS][];
+
+  // The tables are complete before any thread can use the class, GWT supports static initializers.
+  static {
+    initTables();
+  }
 
   /**
    * Checks if the given location is valid for holding a tile.
@@ -42,7 +55,6 @@ public class Board {
    * @return {@code true} if the location is valid, {@code false} otherwise.
    */
   public static boolean isLocationValid(int column, int line) {
-    initIfNeeded();
     return locToAction[locToIndex(column, line)] != null;
   }
 
@@ -54,7 +66,6 @@ public class Board {
    *     tile.
    */
   public static BoardAction actionForTileLocation(int column, int line) {
-    initIfNeeded();
     return locToAction[locToIndex(column, line)];
   }
 
@@ -63,7 +74,6 @@ public class Board {
    * @return An array with all the board actions.
    */
   public static BoardAction[] getAllActions() {
-    initIfNeeded();
     return boardActions;
   }
 
@@ -146,51 +156,92 @@ public class Board {
     return result;
   }
 
+  /**
+   * Returns the index of a location in the grid covering the board. Not every location of the
+   * grid is valid for holding a tile.
+   * @param column The location column.
+   * @param line The location line.
+   * @return The index of the location, or -1 if the location is outside the board.
+   */
+  public static int indexForLocation(int column, int line) {
+    if (column < 0 || column >= NB_COLUMNS || line < 0 || line >= NB_LINES) {
+      return -1;
+    }
+    return locToIndex(column, line);
+  }
+
+  /**
+   * Find the neighboring locations that can hold a tile, for a given location. The returned array
+   * is precomputed and shared, so it must not be modified. Iterating over it does not allocate.
+   * @param locationIndex The index of the location, as returned by
+   *     {@link #indexForLocation(int, int)}.
+   * @return The indices of the neighboring locations holding a tile.
+   */
+  public static int[] neighborIndicesForLocation(int locationIndex) {
+    return locToNeighbors[locationIndex];
+  }
+
   private static int locToIndex(int column, int line) {
     return line * NB_COLUMNS + column;
   }
 
-  private static void initIfNeeded() {
-    if (boardActions[0] == null) {
-      boardActions[0] = new BoardActionBlueAny();
-      boardActions[1] = new BoardActionYellowActivateThree();
-      boardActions[2] = new BoardActionRedTwoToCitadel();
-      boardActions[3] = new BoardActionPurpleOneToCitadelOneToAny();
-      boardActions[4] = new BoardActionRedTwoToPurpleOrYellow();
-      boardActions[5] = new BoardActionYellowMoveArchitect();
-      boardActions[6] = new BoardActionRedTwoToRedOrBlue();
-      boardActions[7] = new BoardActionPurpleAny();
-      boardActions[8] = new BoardActionYellowAny();
-      boardActions[9] = new BoardActionBlueScoreForCubesInHand();
-      boardActions[10] = new BoardActionPurpleOnePointOneToAnyActivateOne();
-      boardActions[11] = new BoardActionBlueScoreForZones();
-      boardActions[12] = new BoardActionYellowFillOneSpot();
-      boardActions[13] = new BoardActionBlueAddStar();
-      boardActions[14] = new BoardActionPurpleOneToAnyMoveTwo();
-      boardActions[15] = new BoardActionRedAny();
-
-      addSymmetricalActions(2, 1, 0);
-      addSymmetricalActions(4, 1, 0);
-      addSymmetricalActions(6, 1, 1);
-      addSymmetricalActions(8, 1, 1);
-      addSymmetricalActions(3, 2, 2);
-      addSymmetricalActions(5, 2, 3);
-      addSymmetricalActions(7, 2, 4);
-      addSymmetricalActions(0, 3, 2);
-      addSymmetricalActions(2, 3, 2);
-      addSymmetricalActions(4, 3, 5);
-      addSymmetricalActions(8, 3, 3);
-      addSymmetricalActions(1, 4, 5);
-      addSymmetricalActions(5, 4, 3);
-      addSymmetricalActions(7, 4, 11);
-      addSymmetricalActions(0, 5, 7);
-      addSymmetricalActions(2, 5, 7);
-      addSymmetricalActions(4, 5, 5);
-      addSymmetricalActions(6, 5, 6);
-      addSymmetricalActions(3, 6, 6);
-      addSymmetricalActions(7, 6, 11);
-      addSymmetricalActions(6, 7, 6);
-      addSymmetricalActions(8, 7, 14);
+  private static void initTables() {
+    boardActions[0] = new BoardActionBlueAny();
+    boardActions[1] = new BoardActionYellowActivateThree();
+    boardActions[2] = new BoardActionRedTwoToCitadel();
+    boardActions[3] = new BoardActionPurpleOneToCitadelOneToAny();
+    boardActions[4] = new BoardActionRedTwoToPurpleOrYellow();
+    boardActions[5] = new BoardActionYellowMoveArchitect();
+    boardActions[6] = new BoardActionRedTwoToRedOrBlue();
+    boardActions[7] = new BoardActionPurpleAny();
+    boardActions[8] = new BoardActionYellowAny();
+    boardActions[9] = new BoardActionBlueScoreForCubesInHand();
+    boardActions[10] = new BoardActionPurpleOnePointOneToAnyActivateOne();
+    boardActions[11] = new BoardActionBlueScoreForZones();
+    boardActions[12] = new BoardActionYellowFillOneSpot();
+    boardActions[13] = new BoardActionBlueAddStar();
+    boardActions[14] = new BoardActionPurpleOneToAnyMoveTwo();
+    boardActions[15] = new BoardActionRedAny();
+
+    addSymmetricalActions(2, 1, 0);
+    addSymmetricalActions(4, 1, 0);
+    addSymmetricalActions(6, 1, 1);
+    addSymmetricalActions(8, 1, 1);
+    addSymmetricalActions(3, 2, 2);
+    addSymmetricalActions(5, 2, 3);
+    addSymmetricalActions(7, 2, 4);
+    addSymmetricalActions(0, 3, 2);
+    addSymmetricalActions(2, 3, 2);
+    addSymmetricalActions(4, 3, 5);
+    addSymmetricalActions(8, 3, 3);
+    addSymmetricalActions(1, 4, 5);
+    addSymmetricalActions(5, 4, 3);
+    addSymmetricalActions(7, 4, 11);
+    addSymmetricalActions(0, 5, 7);
+    addSymmetricalActions(2, 5, 7);
+    addSymmetricalActions(4, 5, 5);
+    addSymmetricalActions(6, 5, 6);
+    addSymmetricalActions(3, 6, 6);
+    addSymmetricalActions(7, 6, 11);
+    addSymmetricalActions(6, 7, 6);
+    addSymmetricalActions(8, 7, 14);
+
+    int neighbors[] = new int[6];
+    for (int line = 0; line < NB_LINES; ++line) {
+      for (int column = 0; column < NB_COLUMNS; ++column) {
+        int nbNeighbors = 0;
+        for (Vector2d neighbor : neighborsForLocation(new Vector2d(column, line))) {
+          int neighborIndex = locToIndex(neighbor.getColumn(), neighbor.getLine());
+          if (locToAction[neighborIndex] != null) {
+            neighbors[nbNeighbors++] = neighborIndex;
+          }
+        }
+        int locationNeighbors[] = new int[nbNeighbors];
+        for (int i = 0; i < nbNeighbors; ++i) {
+          locationNeighbors[i] = neighbors[i];
+        }
+        locToNeighbors[locToIndex(column, line)] = locationNeighbors;
+      }
     }
   }
 
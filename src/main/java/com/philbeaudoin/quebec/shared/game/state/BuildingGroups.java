@@ -0,0 +1,274 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.game.state;
+
+import java.util.List;
+
+import com.philbeaudoin.quebec.shared.PlayerColor;
+
+/**
+ * Keeps track of the groups of adjacent buildings holding star tokens of the same color, in order
+ * to compute the building score of each player. Each player scores the stars on all its buildings,
+ * except for its largest group which scores its value instead: 1, 3 or 6 points for a building with
+ * 1, 2 or 3 stars. When two groups have the same value, the one containing the earliest tile of
+ * the game state is the largest.
+ * <p />
+ * The groups are kept in a disjoint-set over the board locations, updated incrementally when a star
+ * token is added or increased. Disjoint sets cannot split, so every write is journaled: removing or
+ * decreasing the star token that was last added or increased rolls the journal back, as happens
+ * when a change is undone. Any other removal marks the groups as dirty and they are rebuilt from
+ * the tile states the next time they are queried.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class BuildingGroups {
+
+  private static final int NB_COLORS = PlayerColor.NORMAL.length;
+
+  // All the tracked values are packed in a single array so that they can be journaled uniformly.
+  // Per location: the parent in the disjoint-set and the color ordinal of the star token, and for
+  // roots the size, stars, value and position of the earliest tile of the group. Per color: the
+  // value, stars, position and one member of the largest group, and the total number of stars.
+  private static final int PARENT = 0;
+  private static final int COLOR = PARENT + Board.NB_LOCATIONS;
+  private static final int SIZE = COLOR + Board.NB_LOCATIONS;
+  private static final int STARS = SIZE + Board.NB_LOCATIONS;
+  private static final int VALUE = STARS + Board.NB_LOCATIONS;
+  private static final int FIRST = VALUE + Board.NB_LOCATIONS;
+  private static final int BEST_VALUE = FIRST + Board.NB_LOCATIONS;
+  private static final int BEST_STARS = BEST_VALUE + NB_COLORS;
+  private static final int BEST_FIRST = BEST_STARS + NB_COLORS;
+  private static final int BEST_MEMBER = BEST_FIRST + NB_COLORS;
+  private static final int TOTAL_STARS = BEST_MEMBER + NB_COLORS;
+  private static final int DATA_SIZE = TOTAL_STARS + NB_COLORS;
+
+  private static final int NO_LOCATION = -1;
+
+  private final int data[] = new int[DATA_SIZE];
+
+  // The position of the tile at each location in the list of tile states.
+  private final int positionForLocation[] = new int[Board.NB_LOCATIONS];
+
+  // Pairs of (index in data, previous value), only recorded while an update can be rolled back.
+  private int journal[] = new int[128];
+  private int journalSize;
+
+  // For each incremental update still in the journal: the location, the star token color ordinal
+  // and number of stars before the update, and the journal size before the update.
+  private int updates[] = new int[64];
+  private int nbUpdates;
+
+  private boolean dirty = true;
+
+  private final GameState gameState;
+
+  /**
+   * Creates the building groups of a game state.
+   * @param gameState The game state to track.
+   */
+  BuildingGroups(GameState gameState) {
+    this.gameState = gameState;
+  }
+
+  /**
+   * Computes the building score of a player.
+   * @param playerColor The color of the player, must not be NONE or NEUTRAL.
+   * @return The number of points the player would get for its buildings.
+   */
+  public int getScore(PlayerColor playerColor) {
+    if (dirty) {
+      rebuild(gameState.getTileStates());
+    }
+    int color = playerColor.normalColorIndex();
+    int score = data[TOTAL_STARS + color];
+    if (data[BEST_MEMBER + color] != NO_LOCATION) {
+      score += data[BEST_VALUE + color] - data[BEST_STARS + color];
+    }
+    return score;
+  }
+
+  /**
+   * Marks the groups as needing a rebuild, for example after the tile states were replaced.
+   */
+  void invalidate() {
+    dirty = true;
+  }
+
+  /**
+   * Updates the groups following a change in the star token of a tile.
+   * @param tileState The tile state whose star token changed.
+   * @param previousColor The color of the star token before the change.
+   * @param previousNbStars The number of stars on the token before the change.
+   */
+  void onStarTokenChanged(TileState tileState, PlayerColor previousColor, int previousNbStars) {
+    if (dirty) {
+      return;
+    }
+    PlayerColor color = tileState.getStarTokenColor();
+    int nbStars = tileState.getNbStars();
+    int location = tileState.getLocationIndex();
+    if (color == previousColor && nbStars == previousNbStars) {
+      return;
+    }
+    if (nbUpdates > 0 && updates[4 * nbUpdates - 4] == location &&
+        updates[4 * nbUpdates - 3] == color.ordinal() && updates[4 * nbUpdates - 2] == nbStars) {
+      // Reverting the last update, roll back the journal.
+      nbUpdates--;
+      int journalMark = updates[4 * nbUpdates + 3];
+      while (journalSize > journalMark) {
+        journalSize -= 2;
+        data[journal[journalSize]] = journal[journalSize + 1];
+      }
+      return;
+    }
+    if (previousColor == PlayerColor.NONE && color.isNormalColor()) {
+      pushUpdate(location, previousColor, previousNbStars);
+      addBuilding(location, color, nbStars);
+    } else if (previousColor == color && previousColor.isNormalColor() &&
+        nbStars > previousNbStars) {
+      pushUpdate(location, previousColor, previousNbStars);
+      int root = find(location);
+      int colorIndex = color.normalColorIndex();
+      set(STARS + root, data[STARS + root] + nbStars - previousNbStars);
+      set(VALUE + root, data[VALUE + root] + value(nbStars) - value(previousNbStars));
+      set(TOTAL_STARS + colorIndex, data[TOTAL_STARS + colorIndex] + nbStars - previousNbStars);
+      updateLargestGroup(colorIndex, root);
+    } else {
+      dirty = true;
+    }
+  }
+
+  private void rebuild(List<TileState> tileStates) {
+    journalSize = 0;
+    nbUpdates = 0;
+    for (int i = 0; i < DATA_SIZE; ++i) {
+      data[i] = 0;
+    }
+    for (int i = 0; i < Board.NB_LOCATIONS; ++i) {
+      data[PARENT + i] = NO_LOCATION;
+    }
+    for (int i = 0; i < NB_COLORS; ++i) {
+      data[BEST_MEMBER + i] = NO_LOCATION;
+    }
+    for (int position = 0; position < tileStates.size(); ++position) {
+      positionForLocation[tileStates.get(position).getLocationIndex()] = position;
+    }
+    dirty = false;
+    for (TileState tileState : tileStates) {
+      PlayerColor color = tileState.getStarTokenColor();
+      if (color.isNormalColor()) {
+        addBuilding(tileState.getLocationIndex(), color, tileState.getNbStars());
+      }
+    }
+  }
+
+  private void addBuilding(int location, PlayerColor color, int nbStars) {
+    int colorIndex = color.normalColorIndex();
+    set(PARENT + location, location);
+    set(COLOR + location, color.ordinal());
+    set(SIZE + location, 1);
+    set(STARS + location, nbStars);
+    set(VALUE + location, value(nbStars));
+    set(FIRST + location, positionForLocation[location]);
+    set(TOTAL_STARS + colorIndex, data[TOTAL_STARS + colorIndex] + nbStars);
+
+    int root = location;
+    int neighbors[] = Board.neighborIndicesForLocation(location);
+    for (int i = 0; i < neighbors.length; ++i) {
+      int neighbor = neighbors[i];
+      if (data[PARENT + neighbor] != NO_LOCATION && data[COLOR + neighbor] == color.ordinal()) {
+        root = union(root, find(neighbor));
+      }
+    }
+    updateLargestGroup(colorIndex, root);
+  }
+
+  private void updateLargestGroup(int colorIndex, int root) {
+    int bestMember = data[BEST_MEMBER + colorIndex];
+    int value = data[VALUE + root];
+    int first = data[FIRST + root];
+    // Groups only grow, so if the largest group is involved in the update it remains the largest.
+    if (bestMember == NO_LOCATION || find(bestMember) == root ||
+        value > data[BEST_VALUE + colorIndex] ||
+        value == data[BEST_VALUE + colorIndex] && first < data[BEST_FIRST + colorIndex]) {
+      set(BEST_VALUE + colorIndex, value);
+      set(BEST_STARS + colorIndex, data[STARS + root]);
+      set(BEST_FIRST + colorIndex, first);
+      set(BEST_MEMBER + colorIndex, root);
+    }
+  }
+
+  // No path compression, so that unions can be rolled back through the journal.
+  private int find(int location) {
+    int result = location;
+    while (data[PARENT + result] != result) {
+      result = data[PARENT + result];
+    }
+    return result;
+  }
+
+  private int union(int root1, int root2) {
+    if (root1 == root2) {
+      return root1;
+    }
+    if (data[SIZE + root1] < data[SIZE + root2]) {
+      int swap = root1;
+      root1 = root2;
+      root2 = swap;
+    }
+    set(PARENT + root2, root1);
+    set(SIZE + root1, data[SIZE + root1] + data[SIZE + root2]);
+    set(STARS + root1, data[STARS + root1] + data[STARS + root2]);
+    set(VALUE + root1, data[VALUE + root1] + data[VALUE + root2]);
+    set(FIRST + root1, Math.min(data[FIRST + root1], data[FIRST + root2]));
+    return root1;
+  }
+
+  private static int value(int nbStars) {
+    return nbStars * (nbStars + 1) / 2;
+  }
+
+  private void set(int index, int value) {
+    if (nbUpdates > 0) {
+      if (journalSize + 2 > journal.length) {
+        journal = grow(journal);
+      }
+      journal[journalSize++] = index;
+      journal[journalSize++] = data[index];
+    }
+    data[index] = value;
+  }
+
+  private void pushUpdate(int location, PlayerColor previousColor, int previousNbStars) {
+    if (4 * nbUpdates + 4 > updates.length) {
+      updates = grow(updates);
+    }
+    updates[4 * nbUpdates] = location;
+    updates[4 * nbUpdates + 1] = previousColor.ordinal();
+    updates[4 * nbUpdates + 2] = previousNbStars;
+    updates[4 * nbUpdates + 3] = journalSize;
+    nbUpdates++;
+  }
+
+  private static int[] grow(int array[]) {
+    int result[] = new int[array.length * 2];
+    for (int i = 0; i < array.length; ++i) {
+      result[i] = array[i];
+    }
+    return result;
+  }
+}
@@ -18,10 +18,12 @@ package com.philbeaudoin.quebec.shared.game.state;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 
 import com.philbeaudoin.quebec.shared.InfluenceType;
 import com.philbeaudoin.quebec.shared.PlayerColor;
 import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateUndoLog;
 import com.philbeaudoin.quebec.shared.player.PlayerState;
 import com.philbeaudoin.quebec.shared.utils.Vector2d;
 
@@ -45,6 +47,16 @@ public class GameState implements Serializable {
 
   private PossibleActions possibleActions;
 
+  // When non-null, the changes applied to this state record what they need to be undone.
+  private transient GameStateUndoLog undoLog;
+
+  // Indexes over the tile states, built lazily so they are rebuilt after deserialization and
+  // after a copy, then kept up to date as architects move.
+  private transient TileState tileStateForTile[];
+  private transient TileState tileStateForLocation[];
+  private transient TileState tileStateUnderArchitect[];
+  private transient BuildingGroups buildingGroups;
+
   public GameState() {
     playerStates = new ArrayList<PlayerState>();
     tileStates = new ArrayList<TileState>();
@@ -60,25 +72,54 @@ public class GameState implements Serializable {
    * @param other The game state to copy.
    */
   public GameState(GameState other) {
-    gameId = other.gameId;
-    century = other.century;
-    playerStates = new ArrayList<PlayerState>(other.playerStates.size());
-    for (PlayerState playerState : other.playerStates) {
-      playerStates.add(new PlayerState(playerState));
-    }
+    this();
+    other.copyInto(this);
+  }
 
-    tileStates = new ArrayList<TileState>(other.tileStates.size());
-    for (TileState tileState : other.tileStates) {
-      tileStates.add(new TileState(tileState));
+  /**
+   * Copies this game state into another one, reusing the player, tile and influence zone states
+   * already held by the target so that repeated copies do not allocate. As with the copy
+   * constructor, the possible actions are not copied: they are cleared in the target.
+   * @param target The game state to overwrite.
+   */
+  public void copyInto(GameState target) {
+    target.invalidateTileIndexes();
+    target.gameId = gameId;
+    target.century = century;
+    target.possibleActions = null;
+
+    ArrayList<PlayerState> targetPlayerStates = target.playerStates;
+    int nbPlayerStates = playerStates.size();
+    for (int i = 0; i < nbPlayerStates; ++i) {
+      if (i < targetPlayerStates.size()) {
+        playerStates.get(i).copyInto(targetPlayerStates.get(i));
+      } else {
+        targetPlayerStates.add(new PlayerState(playerStates.get(i)));
+      }
+    }
+    while (targetPlayerStates.size() > nbPlayerStates) {
+      targetPlayerStates.remove(targetPlayerStates.size() - 1);
     }
 
-    availableLeaderCards = new ArrayList<LeaderCard>(other.availableLeaderCards.size());
-    for (LeaderCard leaderCard : other.availableLeaderCards) {
-      availableLeaderCards.add(leaderCard); // Leader cards are unmutable.
+    ArrayList<TileState> targetTileStates = target.tileStates;
+    int nbTileStates = tileStates.size();
+    for (int i = 0; i < nbTileStates; ++i) {
+      if (i < targetTileStates.size()) {
+        tileStates.get(i).copyInto(targetTileStates.get(i));
+      } else {
+        targetTileStates.add(new TileState(tileStates.get(i)));
+      }
+    }
+    while (targetTileStates.size() > nbTileStates) {
+      targetTileStates.remove(targetTileStates.size() - 1);
     }
 
+    // Leader cards are unmutable.
+    target.availableLeaderCards.clear();
+    target.availableLeaderCards.addAll(availableLeaderCards);
+
     for (int i = 0; i < influenceZoneState.length; ++i) {
-      influenceZoneState[i] = new InfluenceZoneState(other.influenceZoneState[i]);
+      influenceZoneState[i].copyInto(target.influenceZoneState[i]);
     }
   }
 
@@ -137,7 +178,8 @@ public class GameState implements Serializable {
   }
 
   /**
-   * Get the states of all the tiles.
+   * Get the states of all the tiles. The returned list must not be modified, use
+   * {@link #setTileStates(List)} instead.
    * @return The tile states.
    */
   public ArrayList<TileState> getTileStates() {
@@ -145,18 +187,23 @@ public class GameState implements Serializable {
   }
 
   /**
-   * Get the state of a given tile. The tiles are compared by pointer, so they must come from the
-   * same pool.
+   * Replace the states of all the tiles.
+   * @param newTileStates The new tile states.
+   */
+  public void setTileStates(List<TileState> newTileStates) {
+    invalidateTileIndexes();
+    tileStates.clear();
+    tileStates.addAll(newTileStates);
+  }
+
+  /**
+   * Get the state of a given tile.
    * @param tile The tile for which to get the state.
    * @return The state of that tile, {@code null} if not found.
    */
   public TileState findTileState(Tile tile) {
-    for (TileState tileState : tileStates) {
-      if (tileState.getTile() == tile) {
-        return tileState;
-      }
-    }
-    return null;
+    buildTileIndexesIfNeeded();
+    return tileStateForTile[tile.getIndex()];
   }
 
   /**
@@ -165,12 +212,8 @@ public class GameState implements Serializable {
    * @return The state of that tile, {@code null} if this architect was not found on any tile.
    */
   public TileState findTileUnderArchitect(PlayerColor playerColor) {
-    for (TileState tileState : tileStates) {
-      if (tileState.getArchitect() == playerColor) {
-        return tileState;
-      }
-    }
-    return null;
+    buildTileIndexesIfNeeded();
+    return tileStateUnderArchitect[playerColor.architectIndex()];
   }
 
   /**
@@ -179,12 +222,99 @@ public class GameState implements Serializable {
    * @return The state of that tile, {@code null} if no tile was found at that location.
    */
   public TileState findTileAtLocation(Vector2d location) {
+    int locationIndex = Board.indexForLocation(location.getColumn(), location.getLine());
+    if (locationIndex < 0) {
+      return null;
+    }
+    buildTileIndexesIfNeeded();
+    return tileStateForLocation[locationIndex];
+  }
+
+  /**
+   * Get the state of the tile at a specific location.
+   * @param locationIndex The index of the location at which to look for a tile, as returned by
+   *     {@link Board#indexForLocation(int, int)}.
+   * @return The state of that tile, {@code null} if no tile was found at that location.
+   */
+  public TileState findTileAtLocationIndex(int locationIndex) {
+    buildTileIndexesIfNeeded();
+    return tileStateForLocation[locationIndex];
+  }
+
+  /**
+   * Called by a tile state owned by this game state when its architect changes.
+   * @param tileState The tile state whose architect changed.
+   * @param previousArchitect The architect previously on that tile, can be NONE.
+   */
+  void onArchitectChanged(TileState tileState, PlayerColor previousArchitect) {
+    if (tileStateUnderArchitect == null) {
+      return;
+    }
+    if (previousArchitect.isArchitectColor() &&
+        tileStateUnderArchitect[previousArchitect.architectIndex()] == tileState) {
+      tileStateUnderArchitect[previousArchitect.architectIndex()] = null;
+    }
+    PlayerColor architect = tileState.getArchitect();
+    if (architect.isArchitectColor()) {
+      tileStateUnderArchitect[architect.architectIndex()] = tileState;
+    }
+  }
+
+  /**
+   * Access the groups of adjacent buildings of each player, used for building scoring.
+   * @return The building groups, kept up to date as star tokens change.
+   */
+  public BuildingGroups getBuildingGroups() {
+    buildTileIndexesIfNeeded();
+    if (buildingGroups == null) {
+      buildingGroups = new BuildingGroups(this);
+    }
+    return buildingGroups;
+  }
+
+  /**
+   * Called by a tile state owned by this game state when its star token changes.
+   * @param tileState The tile state whose star token changed.
+   * @param previousColor The color of the star token before the change.
+   * @param previousNbStars The number of stars on the token before the change.
+   */
+  void onStarTokenChanged(TileState tileState, PlayerColor previousColor, int previousNbStars) {
+    if (buildingGroups != null) {
+      buildingGroups.onStarTokenChanged(tileState, previousColor, previousNbStars);
+    }
+  }
+
+  private void invalidateTileIndexes() {
+    if (tileStateForTile == null) {
+      return;
+    }
+    for (TileState tileState : tileStates) {
+      tileState.setOwner(null);
+    }
+    tileStateForTile = null;
+    tileStateForLocation = null;
+    tileStateUnderArchitect = null;
+    if (buildingGroups != null) {
+      buildingGroups.invalidate();
+    }
+  }
+
+  private void buildTileIndexesIfNeeded() {
+    if (tileStateForTile != null) {
+      return;
+    }
+    tileStateForTile = new TileState[Tile.NB_TILES];
+    tileStateForLocation = new TileState[Board.NB_LOCATIONS];
+    tileStateUnderArchitect = new TileState[PlayerColor.ARCHITECT.length];
     for (TileState tileState : tileStates) {
-      if (tileState.getLocation().equals(location)) {
-        return tileState;
+      tileState.setOwner(this);
+      tileStateForTile[tileState.getTile().getIndex()] = tileState;
+      tileStateForLocation[tileState.getLocationIndex()] = tileState;
+      PlayerColor architect = tileState.getArchitect();
+      if (architect.isArchitectColor()) {
+        tileStateUnderArchitect[architect.architectIndex()] = tileState;
       }
     }
-    return null;
   }
 
   /**
@@ -248,6 +378,25 @@ public class GameState implements Serializable {
     this.possibleActions = possibleActions;
   }
 
+  /**
+   * Access the undo log in which the changes applied to this state record the information they
+   * need to be undone.
+   * @return The undo log, or {@code null} if changes applied to this state cannot be undone.
+   */
+  public GameStateUndoLog getUndoLog() {
+    return undoLog;
+  }
+
+  /**
+   * Set the undo log in which the changes applied to this state record the information they need
+   * to be undone. The undo log is not copied nor serialized with the game state.
+   * @param undoLog The undo log, or {@code null} if changes applied to this state will not be
+   *     undone.
+   */
+  public void setUndoLog(GameStateUndoLog undoLog) {
+    this.undoLog = undoLog;
+  }
+
   /**
    * Switch to the next player and setup the board for it.
    */
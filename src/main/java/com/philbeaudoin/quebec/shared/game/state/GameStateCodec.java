@@ -0,0 +1,382 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.game.state;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.philbeaudoin.quebec.shared.InfluenceType;
+import com.philbeaudoin.quebec.shared.PlayerColor;
+import com.philbeaudoin.quebec.shared.ScoringPhase;
+import com.philbeaudoin.quebec.shared.game.action.ActionPerformScoringPhase;
+import com.philbeaudoin.quebec.shared.game.action.MoveBuffer;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.player.AiBrain;
+import com.philbeaudoin.quebec.shared.player.AiBrainRandom;
+import com.philbeaudoin.quebec.shared.player.AiBrainSimple;
+import com.philbeaudoin.quebec.shared.player.AiBrainSimple2;
+import com.philbeaudoin.quebec.shared.player.Player;
+import com.philbeaudoin.quebec.shared.player.PlayerLocalAi;
+import com.philbeaudoin.quebec.shared.player.PlayerLocalUser;
+import com.philbeaudoin.quebec.shared.player.PlayerState;
+import com.philbeaudoin.quebec.shared.player.PlayerVisitor;
+import com.philbeaudoin.quebec.shared.utils.BinaryReader;
+import com.philbeaudoin.quebec.shared.utils.BinaryWriter;
+import com.philbeaudoin.quebec.shared.utils.Vector2d;
+
+/**
+ * Encodes a game state in a compact array of bytes and decodes it back. Enums are written as
+ * their ordinal, tiles as their index and counters as varints, so a complete game state takes
+ * about half a kilobyte, more than ten times less than when serialized. The first byte is the
+ * version of the format, so that data written by an older version can be recognized.
+ * <p>
+ * Decoding an encoded game state gives a game state with the same hash, see {@link ZobristHash},
+ * the same players and the same possible actions. Only some game states can be encoded, see
+ * {@link #canEncode}: the others must be serialized.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class GameStateCodec {
+
+  /**
+   * The version of the format written by {@link #encode}.
+   */
+  public static final int FORMAT_VERSION = 1;
+
+  private static final int PLAYER_LOCAL_USER = 0;
+  private static final int PLAYER_LOCAL_AI = 1;
+
+  // The brains that can be encoded.
+  private static final int BRAIN_RANDOM = 0;
+  private static final int BRAIN_SIMPLE = 1;
+  private static final int BRAIN_SIMPLE_2 = 2;
+
+  private static final int FLAG_CURRENT_PLAYER = 1;
+  private static final int FLAG_HOLDING_ARCHITECT = 2;
+  private static final int FLAG_HOLDING_NEUTRAL_ARCHITECT = 4;
+
+  private static final int ACTIONS_NONE = 0;
+  private static final int ACTIONS_MOVES = 1;
+  private static final int ACTIONS_SCORING_PHASE = 2;
+
+  private static final PlayerColor[] COLORS = PlayerColor.values();
+  private static final InfluenceType[] INFLUENCE_TYPES = InfluenceType.values();
+  private static final LeaderCard[] LEADER_CARDS = LeaderCard.values();
+  private static final ScoringPhase[] SCORING_PHASES = ScoringPhase.values();
+
+  private GameStateCodec() {
+  }
+
+  /**
+   * Checks whether a game state can be encoded. This is the case if its players are local users
+   * or artificial intelligences with a simple brain, and if its possible actions are given as
+   * moves or are a scoring phase to perform, see
+   * {@link ActionPerformScoringPhase#createPossibleActions}.
+   * @param gameState The game state.
+   * @return True if the game state can be encoded.
+   */
+  public static boolean canEncode(GameState gameState) {
+    for (PlayerState playerState : gameState.getPlayerStates()) {
+      if (!playerState.getPlayer().accept(canEncodePlayer)) {
+        return false;
+      }
+    }
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    return possibleActions == null || possibleActions.getMoves() != null ||
+        ActionPerformScoringPhase.getScoringPhase(possibleActions) != null;
+  }
+
+  /**
+   * Encodes a game state.
+   * @param gameState The game state to encode, {@link #canEncode} must return true for it.
+   * @return The newly allocated array of bytes.
+   */
+  public static byte[] encode(GameState gameState) {
+    if (!canEncode(gameState)) {
+      throw new IllegalArgumentException("The game state cannot be encoded.");
+    }
+    BinaryWriter writer = new BinaryWriter();
+    writer.writeByte(FORMAT_VERSION);
+    writer.writeVarLong(gameState.getGameId());
+    writer.writeVarInt(gameState.getCentury());
+
+    List<PlayerState> playerStates = gameState.getPlayerStates();
+    writer.writeVarInt(playerStates.size());
+    for (PlayerState playerState : playerStates) {
+      writePlayer(writer, playerState.getPlayer());
+      writer.writeVarInt(playerState.getNbPassiveCubes());
+      writer.writeVarInt(playerState.getNbActiveCubes());
+      writer.writeByte((playerState.isCurrentPlayer() ? FLAG_CURRENT_PLAYER : 0) |
+          (playerState.isHoldingArchitect() ? FLAG_HOLDING_ARCHITECT : 0) |
+          (playerState.isHoldingNeutralArchitect() ? FLAG_HOLDING_NEUTRAL_ARCHITECT : 0));
+      LeaderCard leaderCard = playerState.getLeaderCard();
+      writer.writeVarInt(leaderCard == null ? 0 : leaderCard.ordinal() + 1);
+      writer.writeVarInt(playerState.getScore());
+    }
+
+    List<TileState> tileStates = gameState.getTileStates();
+    writer.writeVarInt(tileStates.size());
+    for (TileState tileState : tileStates) {
+      writer.writeVarInt(tileState.getTile().getIndex());
+      writer.writeVarInt(tileState.getLocation().getColumn());
+      writer.writeVarInt(tileState.getLocation().getLine());
+      writer.writeVarInt(tileState.getArchitect().ordinal());
+      writer.writeBoolean(tileState.isBuildingFacing());
+      writer.writeVarInt(tileState.getStarTokenColor().ordinal());
+      writer.writeVarInt(tileState.getNbStars());
+      for (int spot = 0; spot < 3; ++spot) {
+        writer.writeVarInt(tileState.getColorInSpot(spot).ordinal());
+      }
+    }
+
+    List<LeaderCard> availableLeaderCards = gameState.getAvailableLeaderCards();
+    writer.writeVarInt(availableLeaderCards.size());
+    for (LeaderCard leaderCard : availableLeaderCards) {
+      writer.writeVarInt(leaderCard.ordinal());
+    }
+
+    for (InfluenceType influenceType : INFLUENCE_TYPES) {
+      for (PlayerColor playerColor : PlayerColor.NORMAL) {
+        writer.writeVarInt(gameState.getPlayerCubesInInfluenceZone(influenceType, playerColor));
+      }
+    }
+
+    writePossibleActions(writer, gameState.getPossibleActions());
+    return writer.toByteArray();
+  }
+
+  /**
+   * Decodes a game state encoded by {@link #encode}.
+   * @param bytes The encoded game state.
+   * @return The newly created game state.
+   * @throws IllegalArgumentException If the bytes are not a valid encoded game state.
+   */
+  public static GameState decode(byte bytes[]) {
+    BinaryReader reader = new BinaryReader(bytes);
+    int formatVersion = reader.readByte();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IllegalArgumentException("Unknown format version: " + formatVersion);
+    }
+    GameState gameState = new GameState();
+    gameState.setGameId(reader.readVarLong());
+    gameState.setCentury(reader.readIndex(4));
+
+    int nbPlayers = reader.readIndex(PlayerColor.NORMAL.length + 1);
+    List<PlayerState> playerStates = gameState.getPlayerStates();
+    for (int i = 0; i < nbPlayers; ++i) {
+      PlayerState playerState = new PlayerState(readPlayer(reader));
+      playerState.setNbPassiveCubes(reader.readVarInt());
+      playerState.setNbActiveCubes(reader.readVarInt());
+      int flags = reader.readByte();
+      playerState.setCurrentPlayer((flags & FLAG_CURRENT_PLAYER) != 0);
+      playerState.setHoldingArchitect((flags & FLAG_HOLDING_ARCHITECT) != 0);
+      playerState.setHoldingNeutralArchitect((flags & FLAG_HOLDING_NEUTRAL_ARCHITECT) != 0);
+      int leaderCard = reader.readIndex(LEADER_CARDS.length + 1);
+      playerState.setLeaderCard(leaderCard == 0 ? null : LEADER_CARDS[leaderCard - 1]);
+      playerState.setScore(reader.readVarInt());
+      playerStates.add(playerState);
+    }
+
+    int nbTiles = reader.readIndex(Tile.NB_TILES + 1);
+    List<TileState> tileStates = new ArrayList<TileState>(nbTiles);
+    for (int i = 0; i < nbTiles; ++i) {
+      Tile tile = Tile.forIndex(reader.readIndex(Tile.NB_TILES));
+      int column = reader.readVarInt();
+      int line = reader.readVarInt();
+      if (Board.indexForLocation(column, line) == -1) {
+        throw new IllegalArgumentException("Invalid tile location.");
+      }
+      TileState tileState = new TileState(tile, new Vector2d(column, line));
+      tileState.setArchitect(readColor(reader));
+      tileState.setBuildingFacing(reader.readBoolean());
+      PlayerColor starTokenColor = readColor(reader);
+      tileState.setStarToken(starTokenColor, reader.readIndex(4));
+      for (int spot = 0; spot < 3; ++spot) {
+        tileState.setColorInSpot(spot, readColor(reader));
+      }
+      tileStates.add(tileState);
+    }
+    gameState.setTileStates(tileStates);
+
+    int nbAvailableLeaderCards = reader.readIndex(LEADER_CARDS.length + 1);
+    List<LeaderCard> availableLeaderCards = gameState.getAvailableLeaderCards();
+    for (int i = 0; i < nbAvailableLeaderCards; ++i) {
+      availableLeaderCards.add(LEADER_CARDS[reader.readIndex(LEADER_CARDS.length)]);
+    }
+
+    for (InfluenceType influenceType : INFLUENCE_TYPES) {
+      for (PlayerColor playerColor : PlayerColor.NORMAL) {
+        gameState.setPlayerCubesInInfluenceZone(influenceType, playerColor, reader.readVarInt());
+      }
+    }
+
+    gameState.setPossibleActions(readPossibleActions(reader, gameState.getTileStates()));
+    if (!reader.isAtEnd()) {
+      throw new IllegalArgumentException("Unexpected data after the game state.");
+    }
+    return gameState;
+  }
+
+  private static final PlayerVisitor<Boolean> canEncodePlayer = new PlayerVisitor<Boolean>() {
+    @Override
+    public Boolean visit(PlayerLocalUser host) {
+      return true;
+    }
+
+    @Override
+    public Boolean visit(PlayerLocalAi host) {
+      return getBrainIndex(host.getAiBrain()) != -1 &&
+          host.getName().endsWith(" " + host.getAiBrain().getSuffix());
+    }
+  };
+
+  /**
+   * Checks whether a player can be written with {@link #writePlayer}.
+   * @param player The player.
+   * @return True if the player can be encoded.
+   */
+  public static boolean canEncode(Player player) {
+    return player.accept(canEncodePlayer);
+  }
+
+  /**
+   * Writes a player, for example to store the players of a game outside of its state. The player
+   * must be one that {@link #canEncode(Player)}.
+   * @param writer The writer.
+   * @param player The player to write.
+   */
+  public static void writePlayer(final BinaryWriter writer, Player player) {
+    writer.writeVarInt(player.getColor().ordinal());
+    player.accept(new PlayerVisitor<Void>() {
+      @Override
+      public Void visit(PlayerLocalUser host) {
+        writer.writeByte(PLAYER_LOCAL_USER);
+        writer.writeString(host.getName());
+        return null;
+      }
+
+      @Override
+      public Void visit(PlayerLocalAi host) {
+        // The name given to the player does not include the suffix of the brain.
+        AiBrain aiBrain = host.getAiBrain();
+        String name = host.getName();
+        writer.writeByte(PLAYER_LOCAL_AI);
+        writer.writeString(name.substring(0, name.length() - aiBrain.getSuffix().length() - 1));
+        writer.writeVarInt(getBrainIndex(aiBrain));
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Reads a player written by {@link #writePlayer}.
+   * @param reader The reader.
+   * @return The newly created player.
+   * @throws IllegalArgumentException If the data is not a valid player.
+   */
+  public static Player readPlayer(BinaryReader reader) {
+    PlayerColor color = readColor(reader);
+    if (!color.isNormalColor()) {
+      throw new IllegalArgumentException("Invalid player color.");
+    }
+    int kind = reader.readByte();
+    String name = reader.readString();
+    switch (kind) {
+    case PLAYER_LOCAL_USER:
+      return new PlayerLocalUser(color, name);
+    case PLAYER_LOCAL_AI:
+      return new PlayerLocalAi(color, name, createBrain(reader.readVarInt()));
+    default:
+      throw new IllegalArgumentException("Unknown player kind: " + kind);
+    }
+  }
+
+  private static int getBrainIndex(AiBrain aiBrain) {
+    // Subclasses may hold more state, so only the exact classes can be encoded.
+    if (aiBrain.getClass() == AiBrainRandom.class) {
+      return BRAIN_RANDOM;
+    }
+    if (aiBrain.getClass() == AiBrainSimple.class) {
+      return BRAIN_SIMPLE;
+    }
+    if (aiBrain.getClass() == AiBrainSimple2.class) {
+      return BRAIN_SIMPLE_2;
+    }
+    return -1;
+  }
+
+  private static AiBrain createBrain(int brainIndex) {
+    switch (brainIndex) {
+    case BRAIN_RANDOM:
+      return new AiBrainRandom();
+    case BRAIN_SIMPLE:
+      return new AiBrainSimple();
+    case BRAIN_SIMPLE_2:
+      return new AiBrainSimple2();
+    default:
+      throw new IllegalArgumentException("Unknown brain: " + brainIndex);
+    }
+  }
+
+  private static void writePossibleActions(BinaryWriter writer, PossibleActions possibleActions) {
+    if (possibleActions == null) {
+      writer.writeByte(ACTIONS_NONE);
+      return;
+    }
+    MoveBuffer moves = possibleActions.getMoves();
+    if (moves != null) {
+      writer.writeByte(ACTIONS_MOVES);
+      writer.writeVarInt(moves.size());
+      for (int i = 0; i < moves.size(); ++i) {
+        writer.writeVarInt(moves.get(i));
+      }
+      return;
+    }
+    writer.writeByte(ACTIONS_SCORING_PHASE);
+    writer.writeVarInt(ActionPerformScoringPhase.getScoringPhase(possibleActions).ordinal());
+  }
+
+  private static PossibleActions readPossibleActions(BinaryReader reader,
+      List<TileState> tileStates) {
+    int kind = reader.readByte();
+    switch (kind) {
+    case ACTIONS_NONE:
+      return null;
+    case ACTIONS_MOVES:
+      int nbMoves = reader.readVarInt();
+      MoveBuffer moves = new MoveBuffer();
+      for (int i = 0; i < nbMoves; ++i) {
+        int move = reader.readVarInt();
+        if (MoveBuffer.getType(move) > MoveBuffer.TYPE_TAKE_LEADER_CARD ||
+            MoveBuffer.getTileIndex(move) >= tileStates.size()) {
+          throw new IllegalArgumentException("Invalid move: " + move);
+        }
+        moves.add(move);
+      }
+      return new PossibleActions(moves, tileStates);
+    case ACTIONS_SCORING_PHASE:
+      return ActionPerformScoringPhase.createPossibleActions(
+          SCORING_PHASES[reader.readIndex(SCORING_PHASES.length)]);
+    default:
+      throw new IllegalArgumentException("Unknown kind of possible actions: " + kind);
+    }
+  }
+
+  private static PlayerColor readColor(BinaryReader reader) {
+    return COLORS[reader.readIndex(COLORS.length)];
+  }
+}
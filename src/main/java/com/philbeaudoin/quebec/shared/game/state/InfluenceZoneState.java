@@ -28,15 +28,12 @@ import com.philbeaudoin.quebec.shared.PlayerColor;
 @SuppressWarnings("serial")
 public class InfluenceZoneState implements Serializable {
 
-  private Integer cubesForPlayer[] = new Integer[5];
+  private int cubesForPlayer[] = new int[5];
 
   /**
    * Creates an empty influence zone.
    */
   public InfluenceZoneState() {
-    for (int i = 0; i < 5; i++) {
-      cubesForPlayer[i] = new Integer(0);
-    }
   }
 
   /**
@@ -44,8 +41,16 @@ public class InfluenceZoneState implements Serializable {
    * @param other The influence zone state to copy.
    */
   public InfluenceZoneState(InfluenceZoneState other) {
+    other.copyInto(this);
+  }
+
+  /**
+   * Copies this influence zone state into another one, without allocating.
+   * @param target The influence zone state to overwrite.
+   */
+  public void copyInto(InfluenceZoneState target) {
     for (int i = 0; i < 5; i++) {
-      cubesForPlayer[i] = new Integer(other.cubesForPlayer[i]);
+      target.cubesForPlayer[i] = cubesForPlayer[i];
     }
   }
 
@@ -24,6 +24,24 @@ import java.util.Random;
  */
 public class JavaRandomShuffler implements Shuffler {
 
+  private final long gameSeed;
+
+  /**
+   * Creates a shuffler that always produces the same shuffles.
+   */
+  public JavaRandomShuffler() {
+    this(0);
+  }
+
+  /**
+   * Creates a shuffler whose shuffles depend on a seed, so that each game has a different but
+   * reproducible setup.
+   * @param gameSeed The seed of the game.
+   */
+  public JavaRandomShuffler(long gameSeed) {
+    this.gameSeed = gameSeed;
+  }
+
   /**
    * A Fisher-Yates shuffle inspired from the Java source code, restricted to small ArrayList.
    * @param list The list to shuffle
@@ -31,7 +49,7 @@ public class JavaRandomShuffler implements Shuffler {
    */
   @Override
   public <T> void shuffle(ArrayList<T> list, long seed) {
-    Random random = new Random(seed);
+    Random random = new Random(seed + gameSeed * 0x9E3779B97F4A7C15L);
     int size = list.size();
     for (int i = size; i > 1; i--) {
       swap(list, i - 1, random.nextInt(i));
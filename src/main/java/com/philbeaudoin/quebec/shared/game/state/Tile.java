@@ -28,6 +28,26 @@ import com.philbeaudoin.quebec.shared.InfluenceType;
  */
 @SuppressWarnings("serial")
 public class Tile implements Serializable {
+  /**
+   * The total number of tiles, {@link #getIndex()} returns a value between 0 and NB_TILES - 1.
+   */
+  public static final int NB_TILES = 44;
+
+  // The index of the first tile of each influence type and century.
+  private static final int FIRST_INDEX[][] = new int[4][4];
+
+  static {
+    int index = 0;
+    for (int influenceTypeIndex = 0; influenceTypeIndex < 4; ++influenceTypeIndex) {
+      InfluenceType influenceType = InfluenceType.values()[influenceTypeIndex];
+      for (int century = 0; century < 4; ++century) {
+        FIRST_INDEX[influenceTypeIndex][century] = index;
+        index += InfluenceType.getNbTilesForCentury(influenceType, century);
+      }
+    }
+    assert index == NB_TILES;
+  }
+
   private InfluenceType influenceType;
   private int century;
   private int buildingIndex;
@@ -45,6 +65,24 @@ public class Tile implements Serializable {
   private Tile() {
   }
 
+  /**
+   * Creates the tile with a given index, the inverse of {@link #getIndex()}.
+   * @param index The index of the tile, between 0 and {@code NB_TILES - 1}.
+   * @return The newly created tile.
+   */
+  static Tile forIndex(int index) {
+    assert index >= 0 && index < NB_TILES;
+    for (int influenceTypeIndex = 3; influenceTypeIndex >= 0; --influenceTypeIndex) {
+      for (int century = 3; century >= 0; --century) {
+        int firstIndex = FIRST_INDEX[influenceTypeIndex][century];
+        if (index >= firstIndex) {
+          return new Tile(InfluenceType.values()[influenceTypeIndex], century, index - firstIndex);
+        }
+      }
+    }
+    return null;
+  }
+
   /**
    * @return The type of influence (color) of that tile.
    */
@@ -66,6 +104,14 @@ public class Tile implements Serializable {
     return buildingIndex;
   }
 
+  /**
+   * Returns a unique index identifying this tile among all the tiles of the game.
+   * @return The index of the tile, between 0 and {@code NB_TILES - 1}.
+   */
+  public int getIndex() {
+    return FIRST_INDEX[influenceType.ordinal()][century] + buildingIndex;
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (this == obj)
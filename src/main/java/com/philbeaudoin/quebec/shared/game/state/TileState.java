@@ -17,7 +17,6 @@
 package com.philbeaudoin.quebec.shared.game.state;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 
 import com.philbeaudoin.quebec.shared.PlayerColor;
 import com.philbeaudoin.quebec.shared.utils.Vector2d;
@@ -37,8 +36,16 @@ public class TileState implements Serializable {
   private PlayerColor starTokenColor;
   private int nbStars;
 
-  /* The color of the cubes at each of the three building spots. */
-  private ArrayList<PlayerColor> colorInSpot = new ArrayList<PlayerColor>(3);
+  // The color of the cubes at each of the three building spots, packed as the ordinal of the
+  // player color on SPOT_BITS bits per spot. Keeps copies of the tile state allocation-free.
+  private int colorInSpot;
+
+  private static final int SPOT_BITS = 3;
+  private static final int SPOT_MASK = (1 << SPOT_BITS) - 1;
+  private static final PlayerColor[] COLORS = PlayerColor.values();
+
+  // The game state indexing this tile state, notified when the architect or star token changes.
+  private transient GameState owner;
 
   public TileState(Tile tile, Vector2d location) {
     this.tile = tile;
@@ -61,15 +68,21 @@ public class TileState implements Serializable {
    * @param other The tile state to copy.
    */
   public TileState(TileState other) {
-    this.tile = other.tile;
-    this.location = other.location;
-    this.architect = other.architect;
-    this.buildingFacing = other.buildingFacing;
-    this.starTokenColor = other.starTokenColor;
-    this.nbStars = other.nbStars;
-    for (PlayerColor color : other.colorInSpot) {
-      colorInSpot.add(color);
-    }
+    other.copyInto(this);
+  }
+
+  /**
+   * Copies this tile state into another one, without allocating.
+   * @param target The tile state to overwrite.
+   */
+  public void copyInto(TileState target) {
+    target.tile = tile;
+    target.location = location;
+    target.architect = architect;
+    target.buildingFacing = buildingFacing;
+    target.starTokenColor = starTokenColor;
+    target.nbStars = nbStars;
+    target.colorInSpot = colorInSpot;
   }
 
   /**
@@ -86,6 +99,14 @@ public class TileState implements Serializable {
     return location;
   }
 
+  /**
+   * @return The index of the location of the tile, as returned by
+   *     {@link Board#indexForLocation(int, int)}.
+   */
+  public int getLocationIndex() {
+    return Board.indexForLocation(location.getColumn(), location.getLine());
+  }
+
   /**
    * Retrieves the color of the architect sitting on the tile.
    * @return The player color of the architect, or {@code PlayerColor.NONE} if none.
@@ -99,7 +120,19 @@ public class TileState implements Serializable {
    * param architect The player color of the architect, or {@code PlayerColor.NONE} if none.
    */
   public void setArchitect(PlayerColor architect) {
+    PlayerColor previousArchitect = this.architect;
     this.architect = architect;
+    if (owner != null) {
+      owner.onArchitectChanged(this, previousArchitect);
+    }
+  }
+
+  /**
+   * Sets the game state that indexes this tile state.
+   * @param owner The game state indexing this tile state, or {@code null} if none.
+   */
+  void setOwner(GameState owner) {
+    this.owner = owner;
   }
 
   /**
@@ -110,7 +143,7 @@ public class TileState implements Serializable {
    */
   public PlayerColor getColorInSpot(int spot) {
     assert spot < 3;
-    return colorInSpot.get(spot);
+    return COLORS[(colorInSpot >> (spot * SPOT_BITS)) & SPOT_MASK];
   }
 
   /**
@@ -122,17 +155,16 @@ public class TileState implements Serializable {
   public void setColorInSpot(int spot, PlayerColor playerColor) {
     assert playerColor != PlayerColor.NEUTRAL;
     assert spot < 3;
-    colorInSpot.set(spot, playerColor);
+    int shift = spot * SPOT_BITS;
+    colorInSpot = (colorInSpot & ~(SPOT_MASK << shift)) | (playerColor.ordinal() << shift);
   }
 
   /**
    * Remove all the cubes in the three spots.
    */
   public void clearCubes() {
-    colorInSpot.clear();
-    while (colorInSpot.size() <= 3) {
-      colorInSpot.add(PlayerColor.NONE);
-    }
+    // PlayerColor.NONE has ordinal 0.
+    colorInSpot = 0;
   }
 
   /**
@@ -183,8 +215,13 @@ public class TileState implements Serializable {
     assert starTokenColor != PlayerColor.NEUTRAL;
     assert starTokenColor.isNormalColor() && nbStars > 0 ||
         starTokenColor == PlayerColor.NONE && nbStars == 0;
+    PlayerColor previousStarTokenColor = this.starTokenColor;
+    int previousNbStars = this.nbStars;
     this.starTokenColor = starTokenColor;
     this.nbStars = nbStars;
+    if (owner != null) {
+      owner.onStarTokenChanged(this, previousStarTokenColor, previousNbStars);
+    }
   }
 
   /**
@@ -0,0 +1,160 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.game.state;
+
+import java.util.List;
+
+import com.philbeaudoin.quebec.shared.InfluenceType;
+import com.philbeaudoin.quebec.shared.PlayerColor;
+import com.philbeaudoin.quebec.shared.player.PlayerState;
+
+/**
+ * Computes a Zobrist hash of a game state: the exclusive or of a fixed random key for each
+ * feature of the state. The hash covers the tiles and what is on them, the cubes in the influence
+ * zones, the players' counters and leader cards, the current player and the century. It does not
+ * cover the possible actions. The keys are generated from a fixed seed, so hashes can be compared
+ * across games.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class ZobristHash {
+
+  private static final int NB_COLORS = PlayerColor.values().length;
+  private static final int NB_NORMAL_COLORS = PlayerColor.NORMAL.length;
+  private static final int NB_ZONES = InfluenceType.values().length;
+  private static final int NB_LEADER_CARDS = LeaderCard.values().length;
+  private static final int MAX_CUBES = 25;
+  // Scores are hashed modulo this, scores in a game never get that far apart.
+  private static final int NB_SCORES = 256;
+  private static final int NB_CENTURIES = 4;
+  private static final int MAX_PLAYERS = 5;
+
+  // All the keys are packed in a single array, by feature. Per location: the tile, the architect,
+  // whether the building faces up, the star token and the color in each spot. Per zone and color:
+  // the number of cubes. Per color: the position in the list of players, the number of active and
+  // passive cubes, the score, the architects held, the leader card and whether it's the current
+  // player. Then the leader cards available, the century, the number of players and the player
+  // for whom a hashed value is computed.
+  private static final int TILE = 0;
+  private static final int ARCHITECT = TILE + Board.NB_LOCATIONS * Tile.NB_TILES;
+  private static final int FACING = ARCHITECT + Board.NB_LOCATIONS * NB_COLORS;
+  private static final int STAR_TOKEN = FACING + Board.NB_LOCATIONS;
+  private static final int SPOT = STAR_TOKEN + Board.NB_LOCATIONS * NB_COLORS * 4;
+  private static final int ZONE = SPOT + Board.NB_LOCATIONS * 3 * NB_COLORS;
+  private static final int POSITION = ZONE + NB_ZONES * NB_NORMAL_COLORS * (MAX_CUBES + 1);
+  private static final int ACTIVE_CUBES = POSITION + NB_NORMAL_COLORS * MAX_PLAYERS;
+  private static final int PASSIVE_CUBES = ACTIVE_CUBES + NB_NORMAL_COLORS * (MAX_CUBES + 1);
+  private static final int SCORE = PASSIVE_CUBES + NB_NORMAL_COLORS * (MAX_CUBES + 1);
+  private static final int HOLDING_ARCHITECT = SCORE + NB_NORMAL_COLORS * NB_SCORES;
+  private static final int HOLDING_NEUTRAL_ARCHITECT = HOLDING_ARCHITECT + NB_NORMAL_COLORS;
+  private static final int LEADER_CARD = HOLDING_NEUTRAL_ARCHITECT + NB_NORMAL_COLORS;
+  private static final int CURRENT_PLAYER = LEADER_CARD + NB_NORMAL_COLORS * NB_LEADER_CARDS;
+  private static final int AVAILABLE_LEADER_CARD = CURRENT_PLAYER + NB_NORMAL_COLORS;
+  private static final int CENTURY = AVAILABLE_LEADER_CARD + NB_LEADER_CARDS;
+  private static final int NB_PLAYERS = CENTURY + NB_CENTURIES;
+  private static final int FOR_PLAYER = NB_PLAYERS + MAX_PLAYERS + 1;
+  private static final int NB_KEYS = FOR_PLAYER + NB_COLORS;
+
+  private static final long KEYS[] = new long[NB_KEYS];
+
+  static {
+    // A splitmix64 generator, so the keys are the same everywhere.
+    long seed = 0x5175656265634C4CL;
+    for (int i = 0; i < NB_KEYS; ++i) {
+      seed += 0x9E3779B97F4A7C15L;
+      long key = seed;
+      key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+      key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+      KEYS[i] = key ^ (key >>> 31);
+    }
+  }
+
+  private ZobristHash() {
+  }
+
+  /**
+   * Computes the hash of a game state.
+   * @param gameState The game state to hash.
+   * @return The hash.
+   */
+  public static long hash(GameState gameState) {
+    long result = 0;
+    for (TileState tileState : gameState.getTileStates()) {
+      int location = tileState.getLocationIndex();
+      result ^= KEYS[TILE + location * Tile.NB_TILES + tileState.getTile().getIndex()];
+      result ^= KEYS[ARCHITECT + location * NB_COLORS + tileState.getArchitect().ordinal()];
+      if (tileState.isBuildingFacing()) {
+        result ^= KEYS[FACING + location];
+      }
+      result ^= KEYS[STAR_TOKEN + (location * NB_COLORS +
+          tileState.getStarTokenColor().ordinal()) * 4 + tileState.getNbStars()];
+      for (int spot = 0; spot < 3; ++spot) {
+        result ^= KEYS[SPOT + (location * 3 + spot) * NB_COLORS +
+            tileState.getColorInSpot(spot).ordinal()];
+      }
+    }
+
+    for (int zone = 0; zone < NB_ZONES; ++zone) {
+      InfluenceType influenceType = InfluenceType.values()[zone];
+      for (int color = 0; color < NB_NORMAL_COLORS; ++color) {
+        result ^= KEYS[ZONE + (zone * NB_NORMAL_COLORS + color) * (MAX_CUBES + 1) +
+            gameState.getPlayerCubesInInfluenceZone(influenceType, PlayerColor.NORMAL[color])];
+      }
+    }
+
+    List<PlayerState> playerStates = gameState.getPlayerStates();
+    for (int position = 0; position < playerStates.size(); ++position) {
+      PlayerState playerState = playerStates.get(position);
+      int color = playerState.getColor().normalColorIndex();
+      result ^= KEYS[POSITION + color * MAX_PLAYERS + position];
+      result ^= KEYS[ACTIVE_CUBES + color * (MAX_CUBES + 1) + playerState.getNbActiveCubes()];
+      result ^= KEYS[PASSIVE_CUBES + color * (MAX_CUBES + 1) + playerState.getNbPassiveCubes()];
+      result ^= KEYS[SCORE + color * NB_SCORES + playerState.getScore() % NB_SCORES];
+      if (playerState.isHoldingArchitect()) {
+        result ^= KEYS[HOLDING_ARCHITECT + color];
+      }
+      if (playerState.isHoldingNeutralArchitect()) {
+        result ^= KEYS[HOLDING_NEUTRAL_ARCHITECT + color];
+      }
+      LeaderCard leaderCard = playerState.getLeaderCard();
+      if (leaderCard != null) {
+        result ^= KEYS[LEADER_CARD + color * NB_LEADER_CARDS + leaderCard.ordinal()];
+      }
+      if (playerState.isCurrentPlayer()) {
+        result ^= KEYS[CURRENT_PLAYER + color];
+      }
+    }
+
+    for (LeaderCard leaderCard : gameState.getAvailableLeaderCards()) {
+      result ^= KEYS[AVAILABLE_LEADER_CARD + leaderCard.ordinal()];
+    }
+    result ^= KEYS[CENTURY + gameState.getCentury()];
+    result ^= KEYS[NB_PLAYERS + playerStates.size()];
+    return result;
+  }
+
+  /**
+   * Combines the hash of a game state with a player, for values computed from the point of view
+   * of that player.
+   * @param hash The hash of the game state.
+   * @param playerColor The color of the player.
+   * @return The combined hash.
+   */
+  public static long forPlayer(long hash, PlayerColor playerColor) {
+    return hash ^ KEYS[FOR_PLAYER + playerColor.ordinal()];
+  }
+}
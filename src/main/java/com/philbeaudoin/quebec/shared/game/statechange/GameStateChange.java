@@ -33,6 +33,15 @@ public interface GameStateChange extends Serializable {
    */
   void apply(GameController gameController, GameState gameState);
 
+  /**
+   * Revert this change on the specified game state, where it must be the last change applied.
+   * Changes that destroy information when they are applied record it in the undo log of the game
+   * state, so that log must have been attached when this change was applied.
+   * @param gameController The game controller.
+   * @param gameState The game state on which to revert this change.
+   */
+  void undo(GameController gameController, GameState gameState);
+
   /**
    * Accepts a visitor.
    * @param visitor The visitor.
@@ -36,6 +36,13 @@ public class GameStateChangeComposite implements GameStateChange {
     }
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    for (int i = changes.size() - 1; i >= 0; --i) {
+      changes.get(i).undo(gameController, gameState);
+    }
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
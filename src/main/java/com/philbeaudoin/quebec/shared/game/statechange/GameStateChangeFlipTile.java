@@ -51,10 +51,25 @@ public class GameStateChangeFlipTile implements GameStateChange {
   @Override
   public void apply(GameController gameController, GameState gameState) {
     TileState tileState = gameState.findTileState(tile);
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      undoLog.pushBoolean(tileState.isBuildingFacing());
+      undoLog.pushObject(tileState.getStarTokenColor());
+      undoLog.pushInt(tileState.getNbStars());
+    }
     tileState.setBuildingFacing(true);
     tileState.setStarToken(this.starTokenColor, nbStars);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    TileState tileState = gameState.findTileState(tile);
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    int previousNbStars = undoLog.popInt();
+    tileState.setStarToken((PlayerColor) undoLog.popObject(), previousNbStars);
+    tileState.setBuildingFacing(undoLog.popBoolean());
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
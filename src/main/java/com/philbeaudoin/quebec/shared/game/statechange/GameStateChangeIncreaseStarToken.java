@@ -51,12 +51,23 @@ public class GameStateChangeIncreaseStarToken implements GameStateChange {
   @Override
   public void apply(GameController gameController, GameState gameState) {
     TileState tileState = gameState.findTileState(tile);
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      undoLog.pushBoolean(tileState.isBuildingFacing());
+    }
     tileState.setBuildingFacing(true);
     int nbStars = tileState.getNbStars();
     assert nbStars + 1 == nbStarsAfter;
     tileState.setStarToken(tileState.getStarTokenColor(), nbStarsAfter);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    TileState tileState = gameState.findTileState(tile);
+    tileState.setStarToken(tileState.getStarTokenColor(), nbStarsAfter - 1);
+    tileState.setBuildingFacing(gameState.getUndoLog().popBoolean());
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
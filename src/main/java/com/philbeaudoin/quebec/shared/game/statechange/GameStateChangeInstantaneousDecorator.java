@@ -53,6 +53,11 @@ public class GameStateChangeInstantaneousDecorator implements GameStateChange {
     decorated.apply(gameController, gameState);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    decorated.undo(gameController, gameState);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
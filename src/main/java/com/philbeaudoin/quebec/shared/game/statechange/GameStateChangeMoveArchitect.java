@@ -49,6 +49,12 @@ public class GameStateChangeMoveArchitect implements GameStateChange {
     to.addTo(gameState);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    to.removeFrom(gameState);
+    from.addTo(gameState);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
@@ -52,6 +52,13 @@ public class GameStateChangeMoveCubes implements GameStateChange {
     to.addTo(nbCubes, gameState);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    assert to.getNbCubes(gameState) >= nbCubes;
+    to.removeFrom(nbCubes, gameState);
+    from.addTo(nbCubes, gameState);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
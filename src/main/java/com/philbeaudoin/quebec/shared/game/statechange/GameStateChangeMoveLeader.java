@@ -16,8 +16,11 @@
 
 package com.philbeaudoin.quebec.shared.game.statechange;
 
+import java.util.List;
+
 import com.philbeaudoin.quebec.shared.game.GameController;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.game.state.LeaderCard;
 import com.philbeaudoin.quebec.shared.location.LeaderDestination;
 
 /**
@@ -44,10 +47,28 @@ public class GameStateChangeMoveLeader implements GameStateChange {
 
   @Override
   public void apply(GameController gameController, GameState gameState) {
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      // Leader cards returned to the board are appended, remember where this one was.
+      undoLog.pushInt(gameState.getAvailableLeaderCards().indexOf(from.getLeaderCard()));
+    }
     from.removeFrom(gameState);
     to.addTo(gameState);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    to.removeFrom(gameState);
+    from.addTo(gameState);
+    int index = gameState.getUndoLog().popInt();
+    if (index >= 0) {
+      List<LeaderCard> leaderCards = gameState.getAvailableLeaderCards();
+      LeaderCard leaderCard = leaderCards.remove(leaderCards.size() - 1);
+      assert leaderCard == from.getLeaderCard();
+      leaderCards.add(index, leaderCard);
+    }
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
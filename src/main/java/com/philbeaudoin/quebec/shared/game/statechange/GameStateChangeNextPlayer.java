@@ -46,12 +46,21 @@ public class GameStateChangeNextPlayer implements GameStateChange {
 
   @Override
   public void apply(GameController gameController, GameState gameState) {
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      undoLog.pushTurn(gameState);
+    }
     gameState.nextPlayer();
     if (prepareActions) {
       gameController.configurePossibleActions(gameState);
     }
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    gameState.getUndoLog().popTurn(gameState);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
@@ -47,6 +47,10 @@ public class GameStateChangePrepareAction implements GameStateChange {
 
   @Override
   public void apply(GameController gameController, GameState gameState) {
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      undoLog.pushTurn(gameState);
+    }
     PossibleActions possibleActions = boardAction.getPossibleActions(gameController, gameState,
         triggeringTile);
     if (possibleActions != null && possibleActions.getNbActions() > 0) {
@@ -57,6 +61,11 @@ public class GameStateChangePrepareAction implements GameStateChange {
     }
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    gameState.getUndoLog().popTurn(gameState);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
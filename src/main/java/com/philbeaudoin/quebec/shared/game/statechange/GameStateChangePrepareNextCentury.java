@@ -29,9 +29,18 @@ public class GameStateChangePrepareNextCentury implements GameStateChange {
 
   @Override
   public void apply(GameController gameController, GameState gameState) {
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      undoLog.pushSnapshot(gameState);
+    }
     gameController.prepareNextCentury(gameState);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    gameState.getUndoLog().popSnapshot(gameState);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
@@ -44,9 +44,18 @@ public class GameStateChangeQueuePossibleActions implements GameStateChange {
 
   @Override
   public void apply(GameController gameController, GameState gameState) {
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      undoLog.pushObject(gameState.getPossibleActions());
+    }
     gameState.setPossibleActions(possibleActions);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    gameState.setPossibleActions((PossibleActions) gameState.getUndoLog().popObject());
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
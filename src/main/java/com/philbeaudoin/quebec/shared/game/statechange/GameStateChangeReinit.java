@@ -32,6 +32,10 @@ public class GameStateChangeReinit implements GameStateChange {
 
   @Override
   public void apply(GameController gameController, GameState gameState) {
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      undoLog.pushSnapshot(gameState);
+    }
     ArrayList<Player> players = new ArrayList<Player>();
     for (PlayerState playerState : gameState.getPlayerStates()) {
       players.add(playerState.getPlayer());
@@ -39,6 +43,11 @@ public class GameStateChangeReinit implements GameStateChange {
     gameController.initGame(gameState, players);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    gameState.getUndoLog().popSnapshot(gameState);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
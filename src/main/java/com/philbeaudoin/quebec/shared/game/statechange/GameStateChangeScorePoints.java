@@ -50,6 +50,12 @@ public class GameStateChangeScorePoints implements GameStateChange {
     playerState.setScore(playerState.getScore() + nbPoints);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    PlayerState playerState = gameState.getPlayerState(scoringPlayer);
+    playerState.setScore(playerState.getScore() - nbPoints);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
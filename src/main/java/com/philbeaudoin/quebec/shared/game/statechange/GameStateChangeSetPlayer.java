@@ -41,9 +41,18 @@ public class GameStateChangeSetPlayer implements GameStateChange {
 
   @Override
   public void apply(GameController gameController, GameState gameState) {
+    GameStateUndoLog undoLog = gameState.getUndoLog();
+    if (undoLog != null) {
+      undoLog.pushTurn(gameState);
+    }
     gameState.setCurrentPlayer(playerColor);
   }
 
+  @Override
+  public void undo(GameController gameController, GameState gameState) {
+    gameState.getUndoLog().popTurn(gameState);
+  }
+
   @Override
   public <T> T accept(GameStateChangeVisitor<T> visitor) {
     return visitor.visit(this);
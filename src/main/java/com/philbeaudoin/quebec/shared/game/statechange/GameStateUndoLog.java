@@ -0,0 +1,150 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.game.statechange;
+
+import java.util.ArrayList;
+
+import com.philbeaudoin.quebec.shared.PlayerColor;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+import com.philbeaudoin.quebec.shared.player.PlayerState;
+
+/**
+ * A stack recording the information that a {@link GameStateChange} destroys when it is applied,
+ * so that it can later be undone. Changes that are their own inverse, like moving cubes, do not
+ * record anything. The log must be attached to the game state with
+ * {@link GameState#setUndoLog(GameStateUndoLog)} before applying the changes to undo, and the
+ * changes must be undone in the reverse order in which they were applied.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class GameStateUndoLog {
+
+  private final ArrayList<Object> objects = new ArrayList<Object>();
+  private int ints[] = new int[64];
+  private int nbInts;
+
+  /**
+   * Records an object.
+   * @param object The object to record, can be {@code null}.
+   */
+  public void pushObject(Object object) {
+    objects.add(object);
+  }
+
+  /**
+   * Retrieves the last object recorded and removes it from the log.
+   * @return The last object recorded.
+   */
+  public Object popObject() {
+    return objects.remove(objects.size() - 1);
+  }
+
+  /**
+   * Records an integer.
+   * @param value The integer to record.
+   */
+  public void pushInt(int value) {
+    if (nbInts == ints.length) {
+      int newInts[] = new int[ints.length * 2];
+      for (int i = 0; i < nbInts; ++i) {
+        newInts[i] = ints[i];
+      }
+      ints = newInts;
+    }
+    ints[nbInts++] = value;
+  }
+
+  /**
+   * Retrieves the last integer recorded and removes it from the log.
+   * @return The last integer recorded.
+   */
+  public int popInt() {
+    assert nbInts > 0;
+    return ints[--nbInts];
+  }
+
+  /**
+   * Records a boolean.
+   * @param value The boolean to record.
+   */
+  public void pushBoolean(boolean value) {
+    pushInt(value ? 1 : 0);
+  }
+
+  /**
+   * Retrieves the last boolean recorded and removes it from the log.
+   * @return The last boolean recorded.
+   */
+  public boolean popBoolean() {
+    return popInt() != 0;
+  }
+
+  /**
+   * Checks whether the log is empty, that is, whether every recorded change has been undone.
+   * @return True if nothing is recorded in the log.
+   */
+  public boolean isEmpty() {
+    return nbInts == 0 && objects.isEmpty();
+  }
+
+  /**
+   * Records the current player and the possible actions of a game state, the two pieces of
+   * information that are overwritten when the turn moves on.
+   * @param gameState The game state to record.
+   */
+  void pushTurn(GameState gameState) {
+    PlayerColor currentPlayer = PlayerColor.NONE;
+    for (PlayerState playerState : gameState.getPlayerStates()) {
+      if (playerState.isCurrentPlayer()) {
+        currentPlayer = playerState.getColor();
+      }
+    }
+    pushObject(currentPlayer);
+    pushObject(gameState.getPossibleActions());
+  }
+
+  /**
+   * Restores the current player and the possible actions recorded with
+   * {@link #pushTurn(GameState)}.
+   * @param gameState The game state to restore.
+   */
+  void popTurn(GameState gameState) {
+    gameState.setPossibleActions((PossibleActions) popObject());
+    gameState.setCurrentPlayer((PlayerColor) popObject());
+  }
+
+  /**
+   * Records a complete copy of a game state, including its possible actions. Only meant for the
+   * rare changes that rewrite large parts of the game state through the game controller.
+   * @param gameState The game state to record.
+   */
+  void pushSnapshot(GameState gameState) {
+    pushObject(new GameState(gameState));
+    pushObject(gameState.getPossibleActions());
+  }
+
+  /**
+   * Restores a game state recorded with {@link #pushSnapshot(GameState)}.
+   * @param gameState The game state to restore.
+   */
+  void popSnapshot(GameState gameState) {
+    PossibleActions possibleActions = (PossibleActions) popObject();
+    ((GameState) popObject()).copyInto(gameState);
+    gameState.setPossibleActions(possibleActions);
+  }
+}
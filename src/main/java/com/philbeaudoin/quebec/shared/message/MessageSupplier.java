@@ -0,0 +1,36 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.message;
+
+import java.io.Serializable;
+
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+
+/**
+ * An object that can create a message from the game state in which it is displayed. Used for
+ * messages that are expensive to compute, so they are only created when they are rendered.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface MessageSupplier extends Serializable {
+  /**
+   * Returns the message for the given game state.
+   * @param gameState The game state in which the message is displayed.
+   * @return The message.
+   */
+  Message getMessage(GameState gameState);
+}
@@ -18,18 +18,21 @@ package com.philbeaudoin.quebec.shared.message;
 
 import java.io.Serializable;
 
+import com.philbeaudoin.quebec.shared.game.state.GameState;
 import com.philbeaudoin.quebec.shared.location.Location;
 import com.philbeaudoin.quebec.shared.location.LocationTopCenter;
 
 /**
  * Information about a text box, including the message, the logical location where it should be
- * anchored as well as the object it should be pointing to if any.
+ * anchored as well as the object it should be pointing to if any. The message can be given
+ * directly or by a {@link MessageSupplier}, in which case it is only created when rendered.
  *
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 @SuppressWarnings("serial")
 public class TextBoxInfo implements Serializable {
   private Message message;
+  private MessageSupplier messageSupplier;
   private Location anchor;
   private Location pointTo;
   public TextBoxInfo(Message message, Location anchor, Location pointTo) {
@@ -50,14 +53,37 @@ public class TextBoxInfo implements Serializable {
     this.anchor = new LocationTopCenter();
     this.pointTo = null;
   }
+  public TextBoxInfo(MessageSupplier messageSupplier) {
+    assert messageSupplier != null;
+    this.messageSupplier = messageSupplier;
+    this.anchor = new LocationTopCenter();
+    this.pointTo = null;
+  }
   /**
    * For serialization only.
    */
   @SuppressWarnings("unused")
   private TextBoxInfo() {
   }
-  public Message getMessage() {
-    return message;
+  /**
+   * Returns the message of the text box, creating it if it's given by a {@link MessageSupplier}.
+   * @param gameState The game state in which the text box is displayed. Can be null if the message
+   *     is not given by a supplier.
+   * @return The message.
+   */
+  public Message getMessage(GameState gameState) {
+    if (message != null) {
+      return message;
+    }
+    assert gameState != null;
+    return messageSupplier.getMessage(gameState);
+  }
+  /**
+   * @return The supplier creating the message of the text box, or null if the message is given
+   *     directly.
+   */
+  public MessageSupplier getMessageSupplier() {
+    return messageSupplier;
   }
   public Location getAnchor() {
     return anchor;
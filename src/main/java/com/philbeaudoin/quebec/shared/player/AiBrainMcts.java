@@ -0,0 +1,332 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.player;
+
+import java.util.List;
+
+import com.philbeaudoin.quebec.shared.ScoringHelper;
+import com.philbeaudoin.quebec.shared.ScoringInformation;
+import com.philbeaudoin.quebec.shared.ScoringPhase;
+import com.philbeaudoin.quebec.shared.game.GameController;
+import com.philbeaudoin.quebec.shared.game.action.ActionPerformScoringPhase;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+
+/**
+ * The brain of an artificial intelligence that uses a Monte Carlo tree search. Each iteration
+ * replays the moves of the tree from the current game state, then plays random moves until the
+ * end of the century. Every player is assumed to pick the move that is best for itself, so the
+ * players' rewards are kept separately. The reward of a player is the fraction of the other players
+ * it beats at the end of the century, counting the points of its buildings even if they have not
+ * been scored yet.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+@SuppressWarnings("serial")
+public class AiBrainMcts implements AnytimeAiBrain {
+
+  private static final int DEFAULT_MAX_ITERATIONS = 20000;
+  private static final int DEFAULT_MAX_TIME_MILLIS = 1000;
+  private static final int DEFAULT_MAX_ROLLOUT_DEPTH = 200;
+
+  // The exploration constant of UCB1, for rewards between 0 and 1.
+  private static final double EXPLORATION = 0.7;
+
+  // Number of iterations between two checks of the clock.
+  private static final int ITERATIONS_PER_TIME_CHECK = 16;
+
+  private int maxIterations;
+  private int maxTimeMillis;
+  private int maxRolloutDepth;
+
+  // Each iteration copies the game state in there before playing its moves.
+  private transient GameState searchGameState;
+
+  /**
+   * Creates a brain with the default budget.
+   */
+  public AiBrainMcts() {
+    this(DEFAULT_MAX_ITERATIONS, DEFAULT_MAX_TIME_MILLIS);
+  }
+
+  /**
+   * Creates a brain with a given budget. The search stops as soon as one of the limits is reached.
+   * @param maxIterations The maximum number of playouts per move.
+   * @param maxTimeMillis The maximum time to spend per move, in milliseconds.
+   */
+  public AiBrainMcts(int maxIterations, int maxTimeMillis) {
+    this(maxIterations, maxTimeMillis, DEFAULT_MAX_ROLLOUT_DEPTH);
+  }
+
+  /**
+   * Creates a brain with a given budget. The search stops as soon as one of the limits is reached.
+   * @param maxIterations The maximum number of playouts per move.
+   * @param maxTimeMillis The maximum time to spend per move, in milliseconds.
+   * @param maxRolloutDepth The maximum number of random moves played by a playout.
+   */
+  public AiBrainMcts(int maxIterations, int maxTimeMillis, int maxRolloutDepth) {
+    this.maxIterations = maxIterations;
+    this.maxTimeMillis = maxTimeMillis;
+    this.maxRolloutDepth = maxRolloutDepth;
+  }
+
+  @Override
+  public GameAction getMove(GameController gameController, GameState gameState) {
+    return getMove(gameController, gameState, System.currentTimeMillis() + maxTimeMillis);
+  }
+
+  /**
+   * Returns the move to make, searching until the deadline or until the maximum number of
+   * iterations is reached. The time budget of the brain is ignored.
+   */
+  @Override
+  public GameAction getMove(GameController gameController, GameState gameState,
+      long deadlineMillis) {
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    if (possibleActions == null || possibleActions.getNbActions() == 0) {
+      return null;
+    }
+    if (possibleActions.getNbActions() == 1) {
+      return possibleActions.getAction(0);
+    }
+
+    int nbPlayers = gameState.getPlayerStates().size();
+    Node root = new Node(null, -1, nbPlayers);
+    double rewards[] = new double[nbPlayers];
+    for (int iteration = 0; iteration < maxIterations; ++iteration) {
+      if (iteration % ITERATIONS_PER_TIME_CHECK == 0 && iteration > 0 &&
+          System.currentTimeMillis() >= deadlineMillis) {
+        break;
+      }
+      runIteration(gameController, gameState, root, rewards);
+    }
+
+    Node bestChild = null;
+    for (int i = 0; i < root.nbExpanded; ++i) {
+      Node child = root.children[i];
+      if (bestChild == null || child.visits > bestChild.visits) {
+        bestChild = child;
+      }
+    }
+    return possibleActions.getAction(bestChild.actionIndex);
+  }
+
+  @Override
+  public String getSuffix() {
+    return "MCTS AI";
+  }
+
+  /**
+   * Runs a single iteration of the search: selects a node of the tree, expands it with one of its
+   * children, plays randomly from there and adds the resulting rewards to the visited nodes.
+   * @param gameController The game controller.
+   * @param gameState The current game state.
+   * @param root The root of the search tree.
+   * @param rewards An array to hold the rewards of each player.
+   */
+  private void runIteration(GameController gameController, GameState gameState, Node root,
+      double rewards[]) {
+    GameState state = prepareSearchGameState(gameState);
+    Node node = root;
+    while (true) {
+      PossibleActions possibleActions = state.getPossibleActions();
+      if (isEndOfCentury(possibleActions)) {
+        break;
+      }
+      int nbActions = possibleActions.getNbActions();
+      if (node.children == null) {
+        node.children = new Node[nbActions];
+        node.untriedActions = new int[nbActions];
+        for (int i = 0; i < nbActions; ++i) {
+          node.untriedActions[i] = i;
+        }
+      }
+      if (node.nbExpanded < nbActions) {
+        // Expand a random untried action.
+        int swapIndex = node.nbExpanded + (int) (Math.random() * (nbActions - node.nbExpanded));
+        int actionIndex = node.untriedActions[swapIndex];
+        node.untriedActions[swapIndex] = node.untriedActions[node.nbExpanded];
+        node.untriedActions[node.nbExpanded] = actionIndex;
+        Node child = new Node(node, actionIndex, rewards.length);
+        node.children[node.nbExpanded++] = child;
+        playAction(gameController, state, possibleActions.getAction(actionIndex));
+        node = child;
+        break;
+      }
+      node = selectChild(node, currentPlayerIndex(state));
+      playAction(gameController, state, possibleActions.getAction(node.actionIndex));
+    }
+
+    boolean gameFinished = rollout(gameController, state);
+    computeRewards(state, gameFinished, rewards);
+    for (; node != null; node = node.parent) {
+      node.visits++;
+      for (int i = 0; i < rewards.length; ++i) {
+        node.rewards[i] += rewards[i];
+      }
+    }
+  }
+
+  /**
+   * Selects the child with the best upper confidence bound for the player choosing the move.
+   * @param node The node whose children have all been expanded.
+   * @param playerIndex The index of the player choosing the move.
+   * @return The selected child.
+   */
+  private Node selectChild(Node node, int playerIndex) {
+    double logVisits = Math.log(node.visits);
+    Node bestChild = null;
+    double bestValue = 0;
+    for (int i = 0; i < node.nbExpanded; ++i) {
+      Node child = node.children[i];
+      double value = child.rewards[playerIndex] / child.visits +
+          EXPLORATION * Math.sqrt(logVisits / child.visits);
+      if (bestChild == null || value > bestValue) {
+        bestChild = child;
+        bestValue = value;
+      }
+    }
+    return bestChild;
+  }
+
+  /**
+   * Plays random moves until the end of the century, then performs the scoring phases.
+   * @param gameController The game controller.
+   * @param gameState The game state on which to play.
+   * @return True if the game is finished, that is, if the buildings have been scored.
+   */
+  private boolean rollout(GameController gameController, GameState gameState) {
+    for (int depth = 0; depth < maxRolloutDepth; ++depth) {
+      PossibleActions possibleActions = gameState.getPossibleActions();
+      if (possibleActions == null || possibleActions.getNbActions() == 0) {
+        return false;
+      }
+      GameAction gameAction;
+      if (isEndOfCentury(possibleActions)) {
+        gameAction = possibleActions.getAction(0);
+        ScoringPhase scoringPhase = ((ActionPerformScoringPhase) gameAction).getScoringPhase();
+        if (scoringPhase == ScoringPhase.FINISH_GAME) {
+          return true;
+        }
+        if (scoringPhase == ScoringPhase.PREPARE_NEXT_CENTURY) {
+          return false;
+        }
+      } else {
+        int actionIndex = (int) (Math.random() * possibleActions.getNbActions());
+        gameAction = possibleActions.getAction(actionIndex);
+      }
+      playAction(gameController, gameState, gameAction);
+    }
+    return false;
+  }
+
+  /**
+   * Computes the reward of each player, the fraction of the other players it beats. Ties count
+   * for half.
+   * @param gameState The game state at the end of the playout.
+   * @param gameFinished True if the buildings have already been scored.
+   * @param rewards The array in which to store the reward of each player.
+   */
+  private void computeRewards(GameState gameState, boolean gameFinished, double rewards[]) {
+    List<PlayerState> playerStates = gameState.getPlayerStates();
+    int nbPlayers = playerStates.size();
+    ScoringInformation buildingsScore = gameFinished ? null :
+        ScoringHelper.computeBuildingsScoringInformation(gameState);
+    int scores[] = new int[nbPlayers];
+    for (int i = 0; i < nbPlayers; ++i) {
+      PlayerState playerState = playerStates.get(i);
+      scores[i] = playerState.getScore();
+      if (buildingsScore != null) {
+        scores[i] += buildingsScore.getScore(playerState.getColor());
+      }
+    }
+    for (int i = 0; i < nbPlayers; ++i) {
+      double nbBeaten = 0;
+      for (int j = 0; j < nbPlayers; ++j) {
+        if (j != i) {
+          if (scores[i] > scores[j]) {
+            nbBeaten += 1;
+          } else if (scores[i] == scores[j]) {
+            nbBeaten += 0.5;
+          }
+        }
+      }
+      rewards[i] = nbBeaten / (nbPlayers - 1);
+    }
+  }
+
+  private static boolean isEndOfCentury(PossibleActions possibleActions) {
+    return possibleActions == null || possibleActions.getNbActions() == 0 ||
+        possibleActions.getAction(0) instanceof ActionPerformScoringPhase;
+  }
+
+  private static void playAction(GameController gameController, GameState gameState,
+      GameAction gameAction) {
+    // Like a copy of the game state, the state on which the move is played has no possible
+    // actions until a change sets them.
+    gameState.setPossibleActions(null);
+    gameAction.execute(gameController, gameState).apply(gameController, gameState);
+  }
+
+  private static int currentPlayerIndex(GameState gameState) {
+    List<PlayerState> playerStates = gameState.getPlayerStates();
+    for (int i = 0; i < playerStates.size(); ++i) {
+      if (playerStates.get(i).isCurrentPlayer()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Copies the game state into the one used for the search, so that the moves can be played
+   * without touching the real game state.
+   * @param gameState The current game state.
+   * @return The game state to search.
+   */
+  private GameState prepareSearchGameState(GameState gameState) {
+    if (searchGameState == null) {
+      searchGameState = new GameState();
+    }
+    gameState.copyInto(searchGameState);
+    searchGameState.setPossibleActions(gameState.getPossibleActions());
+    return searchGameState;
+  }
+
+  /**
+   * A node of the search tree, reached by playing an action from its parent.
+   */
+  private static class Node {
+    final Node parent;
+    final int actionIndex;
+    // The sum of the rewards of each player, by index in the list of player states.
+    final double rewards[];
+    int visits;
+    // The expanded children, in the order in which they were expanded.
+    Node children[];
+    // The indices of the actions, the first nbExpanded ones have been expanded.
+    int untriedActions[];
+    int nbExpanded;
+
+    Node(Node parent, int actionIndex, int nbPlayers) {
+      this.parent = parent;
+      this.actionIndex = actionIndex;
+      this.rewards = new double[nbPlayers];
+    }
+  }
+}
@@ -16,41 +16,102 @@
 
 package com.philbeaudoin.quebec.shared.player;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import com.google.gwt.user.client.Random;
 import com.philbeaudoin.quebec.shared.InfluenceType;
 import com.philbeaudoin.quebec.shared.PlayerColor;
 import com.philbeaudoin.quebec.shared.ScoringHelper;
 import com.philbeaudoin.quebec.shared.game.GameController;
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
 import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.MoveBuffer;
 import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
 import com.philbeaudoin.quebec.shared.game.state.LeaderCard;
 import com.philbeaudoin.quebec.shared.game.state.TileState;
+import com.philbeaudoin.quebec.shared.game.state.ZobristHash;
 import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateUndoLog;
 
 /**
  * The brain of an artificial intelligence that evaluates only his own move.
+ * <p />
+ * The search plays by the rules of {@link GameControllerBasic}, whatever the controller of the
+ * game, see {@link AiSearchController}. The moves of the turns it explores are generated in buffers
+ * it reuses and executed without creating game actions, only the chosen move is turned into one.
  *
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 @SuppressWarnings("serial")
-public class AiBrainSimple implements AiBrain {
+public class AiBrainSimple implements AnytimeAiBrain {
+
+  // The search applies and undoes moves in place on a single copy of the game state.
+  private transient GameState searchGameState;
+  private transient GameStateUndoLog undoLog;
+  private transient AiSearchBuffers searchBuffers;
+  // A brain that has been serialized, for example to the client, no longer uses the table.
+  private final transient boolean useTranspositionTable;
 
   private static final double LEVEL = 1.0;  // Level of the AI player. 1.0 for the best player.
 
+  /**
+   * Creates a brain that evaluates every game state it reaches. This is the brain to use on the
+   * client, where the transposition table would cost a lot of memory and the 64-bit hashes are
+   * slow to compute.
+   */
+  public AiBrainSimple() {
+    this(false);
+  }
+
+  /**
+   * Creates a brain.
+   * @param useTranspositionTable True to cache the evaluations of the game states in a
+   *     transposition table. The table holds 2^16 evaluations and is only worth it server-side.
+   */
+  public AiBrainSimple(boolean useTranspositionTable) {
+    this.useTranspositionTable = useTranspositionTable;
+  }
+
   @Override
   public GameAction getMove(GameController gameController, GameState gameState) {
-    PlayerColor playerColor = gameState.getCurrentPlayer().getColor();
-    // TODO(beaudoin): AIs with a level < 1 play too much architect moves.
-    double percentile = 1.0 - Random.nextDouble() * (0.1 * (1.0 - LEVEL));
-    ScoreAndMove result = scoreForBestMove(gameController, gameState, playerColor, percentile);
-    if (result == null) {
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    if (possibleActions == null || possibleActions.getNbActions() == 0) {
+      return null;
+    }
+    double scores[] = scoreRootActions(prepareSearchGameState(gameState),
+        gameState.getCurrentPlayer().getColor(), possibleActions, new SearchLimit());
+    return selectMove(possibleActions, scores);
+  }
+
+  /**
+   * Returns the move to make, deepening the search one action of the chain at a time until the
+   * chains are entirely explored or the deadline is reached. When the deadline is reached, the
+   * move selected by the deepest completed search is returned.
+   */
+  @Override
+  public GameAction getMove(GameController gameController, GameState gameState,
+      long deadlineMillis) {
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    if (possibleActions == null || possibleActions.getNbActions() == 0) {
       return null;
     }
-    return result.move;
+    PlayerColor playerColor = gameState.getCurrentPlayer().getColor();
+    GameState searchGameState = prepareSearchGameState(gameState);
+    double bestScores[] = null;
+    for (int maxDepth = 1; ; ++maxDepth) {
+      // The first search only evaluates the possible actions, it always completes.
+      SearchLimit limit = new SearchLimit(maxDepth,
+          bestScores == null ? Long.MAX_VALUE : deadlineMillis);
+      double scores[] = scoreRootActions(searchGameState, playerColor, possibleActions, limit);
+      if (limit.isExpired()) {
+        break;
+      }
+      bestScores = scores;
+      if (!limit.isDepthReached()) {
+        break;
+      }
+    }
+    return selectMove(possibleActions, bestScores);
   }
 
   @Override
@@ -58,56 +119,225 @@ public class AiBrainSimple implements AiBrain {
     return "AI";
   }
 
+  /**
+   * Forgets the evaluations cached in the transposition table, so that the next move is chosen as
+   * by a new brain, without allocating a new table.
+   */
+  public void clearTranspositionTable() {
+    if (searchBuffers != null && searchBuffers.getTranspositionTable() != null) {
+      searchBuffers.getTranspositionTable().clear();
+    }
+  }
+
+  /**
+   * Calculate the score of every possible action at the root of the search. Override this to
+   * distribute the work, each action can be scored independently with
+   * {@link #scoreRootAction(GameState, PlayerColor, PossibleActions, int, AiSearchBuffers,
+   * SearchLimit)}, given buffers that no other thread uses meanwhile.
+   * @param gameState The game state to search, with an undo log attached.
+   * @param playerColor The player for which to find the best possible move.
+   * @param possibleActions The possible actions of the game state.
+   * @param limit The limits of the search.
+   * @return The score of each possible action, in the order of the possible actions.
+   */
+  protected double[] scoreRootActions(GameState gameState, PlayerColor playerColor,
+      PossibleActions possibleActions, SearchLimit limit) {
+    AiSearchBuffers buffers = getSearchBuffers();
+    double scores[] = new double[possibleActions.getNbActions()];
+    for (int actionIndex = 0; actionIndex < scores.length; ++actionIndex) {
+      scores[actionIndex] = scoreRootAction(gameState, playerColor, possibleActions, actionIndex,
+          buffers, limit);
+    }
+    return scores;
+  }
+
+  /**
+   * Calculate the score of one of the possible actions at the root of the search by trying it on
+   * the game state and undoing it afterwards. The game state is left as it was. The score is
+   * meaningless if the deadline of the search has been reached.
+   * @param gameState The game state, with an undo log attached.
+   * @param playerColor The player for which to find the best possible move.
+   * @param possibleActions The possible actions of the game state. They are only read, so they can
+   *     be shared by concurrent searches.
+   * @param actionIndex The index of the action to score.
+   * @param buffers The buffers of the search. They are not thread-safe.
+   * @param limit The limits of the search.
+   * @return The score of the action.
+   */
+  protected double scoreRootAction(GameState gameState, PlayerColor playerColor,
+      PossibleActions possibleActions, int actionIndex, AiSearchBuffers buffers,
+      SearchLimit limit) {
+    return scoreAction(gameState, playerColor, possibleActions, possibleActions.getMoves(),
+        actionIndex, buffers, limit, 1);
+  }
+
   /**
    * Calculate the score for the best possible move for the player of a given color. If the game
-   * state does not mark that player as active, we return null. That is, we don't perform
+   * state does not mark that player as active, we return NaN. That is, we don't perform
    * any mini-max here.
-   * @param gameController The game controller.
    * @param gameState The current game state.
-   * @param playerState The player for which to find the best possible move.
-   * @param percent The percentile of the move to take, 1.0 is going to take the best move.
-   * @return The best possible move and its score, or null.
+   * @param playerColor The player for which to find the best possible move.
+   * @param buffers The buffers of the search.
+   * @param limit The limits of the search.
+   * @param depth The number of actions of the chain leading to this move, plus one.
+   * @return The score of the best possible move, or NaN if the game state must be evaluated
+   *     instead.
    */
-  private ScoreAndMove scoreForBestMove(GameController gameController, GameState gameState,
-      PlayerColor playerColor, double percent) {
+  private double scoreForBestMove(GameState gameState, PlayerColor playerColor,
+      AiSearchBuffers buffers, SearchLimit limit, int depth) {
     if (playerColor != gameState.getCurrentPlayer().getColor()) {
-      return null;
+      return Double.NaN;
     }
 
     PossibleActions possibleActions = gameState.getPossibleActions();
-    if (possibleActions == null || possibleActions.getNbActions() == 0) {
+    if (possibleActions == null) {
+      return Double.NaN;
+    }
+    MoveBuffer moves = null;
+    int nbActions;
+    if (possibleActions == AiSearchController.TURN_MOVES) {
+      moves = buffers.getMoveBuffer(depth);
+      AiSearchController.INSTANCE.generateMoves(gameState, moves);
+      nbActions = moves.size();
+    } else {
+      nbActions = possibleActions.getNbActions();
+    }
+    if (nbActions == 0) {
+      return Double.NaN;
+    }
+
+    if (depth > limit.maxDepth) {
+      limit.depthReached = true;
+      return Double.NaN;
+    }
+
+    double bestScore = -1;
+    for (int actionIndex = 0; actionIndex < nbActions; ++actionIndex) {
+      bestScore = Math.max(bestScore, scoreAction(gameState, playerColor, possibleActions, moves,
+          actionIndex, buffers, limit, depth));
+    }
+    return bestScore > -1 ? bestScore : Double.NaN;
+  }
+
+  /**
+   * Calculate the score of a single action by trying it on the game state and undoing it
+   * afterwards. The game state is left as it was. The score is meaningless if the deadline of
+   * the search has been reached.
+   * @param gameState The game state, with an undo log attached.
+   * @param playerColor The player for which to find the best possible move.
+   * @param possibleActions The possible actions of the game state.
+   * @param moves The moves from which the possible actions are created, or null to execute the
+   *     possible actions themselves.
+   * @param actionIndex The index of the action to score.
+   * @param buffers The buffers of the search.
+   * @param limit The limits of the search.
+   * @param depth The number of actions of the chain leading to this action, plus one.
+   * @return The score of the action.
+   */
+  private double scoreAction(GameState gameState, PlayerColor playerColor,
+      PossibleActions possibleActions, MoveBuffer moves, int actionIndex, AiSearchBuffers buffers,
+      SearchLimit limit, int depth) {
+    if (limit.isExpired()) {
+      return 0;
+    }
+    // Like a copy of the game state, the state on which the move is tried has no possible
+    // actions until a change sets them.
+    gameState.setPossibleActions(null);
+    GameStateChange gameStateChange = moves != null ?
+        MoveBuffer.execute(moves.get(actionIndex), gameState) :
+        possibleActions.getAction(actionIndex).execute(AiSearchController.INSTANCE, gameState);
+    gameStateChange.apply(AiSearchController.INSTANCE, gameState);
+    double score = scoreForBestMove(gameState, playerColor, buffers, limit, depth + 1);
+    if (Double.isNaN(score)) {
+      score = evaluateWithTable(gameState, playerColor, buffers.getTranspositionTable());
+    }
+    gameStateChange.undo(AiSearchController.INSTANCE, gameState);
+    gameState.setPossibleActions(possibleActions);
+    return score;
+  }
+
+  private GameAction selectMove(PossibleActions possibleActions, double scores[]) {
+    // TODO(beaudoin): AIs with a level < 1 play too much architect moves.
+    double percentile = 1.0 - Math.random() * (0.1 * (1.0 - LEVEL));
+    int actionIndex = selectActionIndex(scores, percentile);
+    if (actionIndex == -1) {
       return null;
     }
+    return possibleActions.getAction(actionIndex);
+  }
 
+  /**
+   * Selects among the actions that score better than all the previous ones, the first one whose
+   * score is within a percentage of the best score.
+   * @param scores The score of each action.
+   * @param percent The fraction of the best score the selected action must reach.
+   * @return The index of the selected action, or -1 if no action scores above -1.
+   */
+  private static int selectActionIndex(double scores[], double percent) {
     double bestScore = -1;
-    ArrayList<ScoreAndMove> moves = new ArrayList<ScoreAndMove>(possibleActions.getNbActions());
-    for (int actionIndex = 0; actionIndex < possibleActions.getNbActions(); ++actionIndex) {
-      GameState gameStateCopy = new GameState(gameState);
-      GameAction gameAction = possibleActions.getAction(actionIndex);
-      GameStateChange gameStateChange = gameAction.execute(gameController, gameStateCopy);
-      gameStateChange.apply(gameController, gameStateCopy);
-      ScoreAndMove scoreAndMove = scoreForBestMove(gameController, gameStateCopy, playerColor, 1.0);
-      double score = -10000;
-      if (scoreAndMove == null) {
-        score = evaluate(gameStateCopy, playerColor);
-      } else {
-        score = scoreAndMove.score;
-      }
-      if (score > bestScore) {
-        bestScore = score;
-        moves.add(new ScoreAndMove(score, gameAction));
-      }
+    for (double score : scores) {
+      bestScore = Math.max(bestScore, score);
     }
 
     double targetScore = percent * bestScore;
-    ScoreAndMove selectedMove = null;
-    for (ScoreAndMove move : moves) {
-      if (move.score >= targetScore && (selectedMove == null || move.score <= selectedMove.score)) {
-        selectedMove = move;
+    double previousBestScore = -1;
+    for (int actionIndex = 0; actionIndex < scores.length; ++actionIndex) {
+      if (scores[actionIndex] > previousBestScore) {
+        previousBestScore = scores[actionIndex];
+        if (previousBestScore >= targetScore) {
+          return actionIndex;
+        }
       }
     }
+    return -1;
+  }
+
+  /**
+   * Copies the game state into the one used for the search, so that the moves can be applied and
+   * undone without touching the real game state.
+   * @param gameState The current game state.
+   * @return The game state to search.
+   */
+  private GameState prepareSearchGameState(GameState gameState) {
+    if (searchGameState == null) {
+      searchGameState = new GameState();
+      undoLog = new GameStateUndoLog();
+      searchGameState.setUndoLog(undoLog);
+    }
+    assert undoLog.isEmpty();
+    gameState.copyInto(searchGameState);
+    searchGameState.setPossibleActions(gameState.getPossibleActions());
+    return searchGameState;
+  }
+
+  /**
+   * Returns the buffers of the searches run on the calling thread.
+   * @return The buffers.
+   */
+  private AiSearchBuffers getSearchBuffers() {
+    if (searchBuffers == null) {
+      searchBuffers = new AiSearchBuffers(useTranspositionTable);
+    }
+    return searchBuffers;
+  }
 
-    return selectedMove;
+  /**
+   * Evaluates a game state, looking up the evaluation in the transposition table first if the
+   * search uses one. The evaluation only depends on the hashed game state, not on the possible
+   * actions, so it can be shared by the positions reached through different orders of actions.
+   */
+  private double evaluateWithTable(GameState gameState, PlayerColor playerColor,
+      TranspositionTable table) {
+    if (table == null) {
+      return evaluate(gameState, playerColor);
+    }
+    long hash = ZobristHash.forPlayer(ZobristHash.hash(gameState), playerColor);
+    double result = table.get(hash);
+    if (Double.isNaN(result)) {
+      result = evaluate(gameState, playerColor);
+      table.put(hash, result);
+    }
+    return result;
   }
 
   private double evaluate(GameState gameState, PlayerColor playerColor) {
@@ -224,7 +454,8 @@ public class AiBrainSimple implements AiBrain {
 
   private void removeFakeStarTokens(TileState[] modifiedTiles,
       int nbModifiedTiles) {
-    for (int i = 0; i < nbModifiedTiles; ++i) {
+    // In reverse order, so the building groups can roll back their incremental updates.
+    for (int i = nbModifiedTiles - 1; i >= 0; --i) {
       modifiedTiles[i].setStarToken(PlayerColor.NONE, 0);
     }
   }
@@ -300,12 +531,53 @@ public class AiBrainSimple implements AiBrain {
     return result;
   }
 
-  private static class ScoreAndMove {
-    final double score;
-    final GameAction move;
-    public ScoreAndMove(double score, GameAction move) {
-      this.score = score;
-      this.move = move;
+  /**
+   * The limits of a search: the maximum length of the chains of actions that are explored, and
+   * the time at which the search must stop. The limits can be shared by concurrent searches.
+   */
+  protected static class SearchLimit {
+    private final int maxDepth;
+    private final long deadlineMillis;
+    private volatile boolean depthReached;
+    private volatile boolean expired;
+
+    /**
+     * Creates limits that let the search explore the chains entirely.
+     */
+    protected SearchLimit() {
+      this(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates limits for a search.
+     * @param maxDepth The maximum number of actions of a chain to explore.
+     * @param deadlineMillis The time at which the search must stop, as given by
+     *     {@link System#currentTimeMillis()}.
+     */
+    protected SearchLimit(int maxDepth, long deadlineMillis) {
+      this.maxDepth = maxDepth;
+      this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Checks whether some chains of actions were longer than the maximum depth.
+     * @return True if the search did not explore some chains entirely.
+     */
+    public boolean isDepthReached() {
+      return depthReached;
+    }
+
+    /**
+     * Checks whether the deadline has been reached, in which case the scores of the search are
+     * meaningless.
+     * @return True if the deadline has been reached.
+     */
+    public boolean isExpired() {
+      if (!expired && deadlineMillis != Long.MAX_VALUE &&
+          System.currentTimeMillis() >= deadlineMillis) {
+        expired = true;
+      }
+      return expired;
     }
   }
 
@@ -22,29 +22,76 @@ import com.philbeaudoin.quebec.shared.InfluenceType;
 import com.philbeaudoin.quebec.shared.PlayerColor;
 import com.philbeaudoin.quebec.shared.ScoringHelper;
 import com.philbeaudoin.quebec.shared.game.GameController;
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
 import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.MoveBuffer;
 import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
 import com.philbeaudoin.quebec.shared.game.state.GameState;
 import com.philbeaudoin.quebec.shared.game.state.LeaderCard;
 import com.philbeaudoin.quebec.shared.game.state.TileState;
+import com.philbeaudoin.quebec.shared.game.state.ZobristHash;
 import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateUndoLog;
 
 /**
  * The brain of an artificial intelligence that evaluates only his own move.
+ * <p />
+ * Like {@link AiBrainSimple}, the search plays by the rules of {@link GameControllerBasic} and
+ * executes the moves of the turns it explores without creating game actions.
  *
  * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
  */
 @SuppressWarnings("serial")
 public class AiBrainSimple2 implements AiBrain {
 
+  // The search applies and undoes moves in place on a single copy of the game state.
+  private transient GameState searchGameState;
+  private transient GameStateUndoLog undoLog;
+  private transient AiSearchBuffers searchBuffers;
+  // A brain that has been serialized, for example to the client, no longer uses the table.
+  private final transient boolean useTranspositionTable;
+
+  /**
+   * Creates a brain that evaluates every game state it reaches. This is the brain to use on the
+   * client, where the transposition table would cost a lot of memory and the 64-bit hashes are
+   * slow to compute.
+   */
+  public AiBrainSimple2() {
+    this(false);
+  }
+
+  /**
+   * Creates a brain.
+   * @param useTranspositionTable True to cache the evaluations of the game states in a
+   *     transposition table. The table holds 2^16 evaluations and is only worth it server-side.
+   */
+  public AiBrainSimple2(boolean useTranspositionTable) {
+    this.useTranspositionTable = useTranspositionTable;
+  }
+
   @Override
   public GameAction getMove(GameController gameController, GameState gameState) {
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    if (possibleActions == null || possibleActions.getNbActions() == 0) {
+      return null;
+    }
     PlayerColor playerColor = gameState.getCurrentPlayer().getColor();
-    ScoreAndMove result = scoreForBestMove(gameController, gameState, playerColor);
-    if (result == null) {
+    GameState searchGameState = prepareSearchGameState(gameState);
+    MoveBuffer moves = possibleActions.getMoves();
+    double bestScore = -1;
+    int bestActionIndex = -1;
+    for (int actionIndex = 0; actionIndex < possibleActions.getNbActions(); ++actionIndex) {
+      double score = scoreAction(searchGameState, playerColor, possibleActions, moves,
+          actionIndex, 1);
+      if (score > bestScore) {
+        bestScore = score;
+        bestActionIndex = actionIndex;
+      }
+    }
+    if (bestActionIndex == -1) {
       return null;
     }
-    return result.move;
+    return possibleActions.getAction(bestActionIndex);
   }
 
   @Override
@@ -54,44 +101,110 @@ public class AiBrainSimple2 implements AiBrain {
 
   /**
    * Calculate the score for the best possible move for the player of a given color. If the game
-   * state does not mark that player as active, we return null. That is, we don't perform
+   * state does not mark that player as active, we return NaN. That is, we don't perform
    * any mini-max here.
-   * @param gameController The game controller.
    * @param gameState The current game state.
-   * @param playerState The player for which to find the best possible move.
-   * @return The best possible move and its score, or null.
+   * @param playerColor The player for which to find the best possible move.
+   * @param depth The number of actions of the chain leading to this move, plus one.
+   * @return The score of the best possible move, or NaN if the game state must be evaluated
+   *     instead.
    */
-  private ScoreAndMove scoreForBestMove(GameController gameController, GameState gameState,
-      PlayerColor playerColor) {
+  private double scoreForBestMove(GameState gameState, PlayerColor playerColor, int depth) {
     if (playerColor != gameState.getCurrentPlayer().getColor()) {
-      return null;
+      return Double.NaN;
     }
 
     PossibleActions possibleActions = gameState.getPossibleActions();
-    if (possibleActions == null || possibleActions.getNbActions() == 0) {
-      return null;
+    if (possibleActions == null) {
+      return Double.NaN;
+    }
+    MoveBuffer moves = null;
+    int nbActions;
+    if (possibleActions == AiSearchController.TURN_MOVES) {
+      moves = searchBuffers.getMoveBuffer(depth);
+      AiSearchController.INSTANCE.generateMoves(gameState, moves);
+      nbActions = moves.size();
+    } else {
+      nbActions = possibleActions.getNbActions();
+    }
+    if (nbActions == 0) {
+      return Double.NaN;
     }
 
     double bestScore = -1;
-    GameAction bestMove = null;
-    for (int actionIndex = 0; actionIndex < possibleActions.getNbActions(); ++actionIndex) {
-      GameState gameStateCopy = new GameState(gameState);
-      GameAction gameAction = possibleActions.getAction(actionIndex);
-      GameStateChange gameStateChange = gameAction.execute(gameController, gameStateCopy);
-      gameStateChange.apply(gameController, gameStateCopy);
-      ScoreAndMove scoreAndMove = scoreForBestMove(gameController, gameStateCopy, playerColor);
-      double score = -10000;
-      if (scoreAndMove == null) {
-        score = evaluate(gameStateCopy, playerColor);
-      } else {
-        score = scoreAndMove.score;
-      }
-      if (score > bestScore) {
-        bestScore = score;
-        bestMove = gameAction;
-      }
+    for (int actionIndex = 0; actionIndex < nbActions; ++actionIndex) {
+      bestScore = Math.max(bestScore, scoreAction(gameState, playerColor, possibleActions, moves,
+          actionIndex, depth));
     }
-    return new ScoreAndMove(bestScore, bestMove);
+    return bestScore;
+  }
+
+  /**
+   * Calculate the score of a single action by trying it on the game state and undoing it
+   * afterwards. The game state is left as it was.
+   * @param gameState The game state, with an undo log attached.
+   * @param playerColor The player for which to find the best possible move.
+   * @param possibleActions The possible actions of the game state.
+   * @param moves The moves from which the possible actions are created, or null to execute the
+   *     possible actions themselves.
+   * @param actionIndex The index of the action to score.
+   * @param depth The number of actions of the chain leading to this action, plus one.
+   * @return The score of the action.
+   */
+  private double scoreAction(GameState gameState, PlayerColor playerColor,
+      PossibleActions possibleActions, MoveBuffer moves, int actionIndex, int depth) {
+    // Like a copy of the game state, the state on which the move is tried has no possible
+    // actions until a change sets them.
+    gameState.setPossibleActions(null);
+    GameStateChange gameStateChange = moves != null ?
+        MoveBuffer.execute(moves.get(actionIndex), gameState) :
+        possibleActions.getAction(actionIndex).execute(AiSearchController.INSTANCE, gameState);
+    gameStateChange.apply(AiSearchController.INSTANCE, gameState);
+    double score = scoreForBestMove(gameState, playerColor, depth + 1);
+    if (Double.isNaN(score)) {
+      score = evaluateWithTable(gameState, playerColor);
+    }
+    gameStateChange.undo(AiSearchController.INSTANCE, gameState);
+    gameState.setPossibleActions(possibleActions);
+    return score;
+  }
+
+  /**
+   * Copies the game state into the one used for the search, so that the moves can be applied and
+   * undone without touching the real game state.
+   * @param gameState The current game state.
+   * @return The game state to search.
+   */
+  private GameState prepareSearchGameState(GameState gameState) {
+    if (searchGameState == null) {
+      searchGameState = new GameState();
+      undoLog = new GameStateUndoLog();
+      searchGameState.setUndoLog(undoLog);
+      searchBuffers = new AiSearchBuffers(useTranspositionTable);
+    }
+    assert undoLog.isEmpty();
+    gameState.copyInto(searchGameState);
+    searchGameState.setPossibleActions(gameState.getPossibleActions());
+    return searchGameState;
+  }
+
+  /**
+   * Evaluates a game state, looking up the evaluation in the transposition table first if the
+   * search uses one. The evaluation only depends on the hashed game state, not on the possible
+   * actions, so it can be shared by the positions reached through different orders of actions.
+   */
+  private double evaluateWithTable(GameState gameState, PlayerColor playerColor) {
+    TranspositionTable table = searchBuffers.getTranspositionTable();
+    if (table == null) {
+      return evaluate(gameState, playerColor);
+    }
+    long hash = ZobristHash.forPlayer(ZobristHash.hash(gameState), playerColor);
+    double result = table.get(hash);
+    if (Double.isNaN(result)) {
+      result = evaluate(gameState, playerColor);
+      table.put(hash, result);
+    }
+    return result;
   }
 
   private double evaluate(GameState gameState, PlayerColor playerColor) {
@@ -204,7 +317,8 @@ public class AiBrainSimple2 implements AiBrain {
 
   private void removeFakeStarTokens(TileState[] modifiedTiles,
       int nbModifiedTiles) {
-    for (int i = 0; i < nbModifiedTiles; ++i) {
+    // In reverse order, so the building groups can roll back their incremental updates.
+    for (int i = nbModifiedTiles - 1; i >= 0; --i) {
       modifiedTiles[i].setStarToken(PlayerColor.NONE, 0);
     }
   }
@@ -283,15 +397,6 @@ public class AiBrainSimple2 implements AiBrain {
     return result;
   }
 
-  private static class ScoreAndMove {
-    final double score;
-    final GameAction move;
-    public ScoreAndMove(double score, GameAction bestMove) {
-      this.score = score;
-      this.move = bestMove;
-    }
-  }
-
   private static class MoveCount {
     int moves;
     int playerMoves;
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.player;
+
+import com.philbeaudoin.quebec.shared.game.action.MoveBuffer;
+
+/**
+ * The buffers that an AI search reuses from one move to the next: the moves of the turns explored
+ * at each depth of the search, and the transposition table. Nothing is allocated once the buffers
+ * have grown to the depth and the number of moves of the search. The buffers are not thread-safe,
+ * each thread searching needs its own.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class AiSearchBuffers {
+
+  // The transposition table holds twice that many evaluations.
+  private static final int TRANSPOSITION_TABLE_LOG2_BUCKETS = 15;
+
+  private static final int INITIAL_DEPTH = 8;
+
+  private final TranspositionTable transpositionTable;
+  private MoveBuffer moveBuffers[] = new MoveBuffer[INITIAL_DEPTH];
+
+  /**
+   * Creates the buffers of a search.
+   * @param useTranspositionTable True to cache the evaluations of the game states in a
+   *     transposition table. The table holds 2^16 evaluations and is only worth it server-side.
+   */
+  public AiSearchBuffers(boolean useTranspositionTable) {
+    transpositionTable = useTranspositionTable ?
+        new TranspositionTable(TRANSPOSITION_TABLE_LOG2_BUCKETS) : null;
+  }
+
+  /**
+   * Returns the table caching the evaluations of the game states.
+   * @return The transposition table, or null if the search does not use one.
+   */
+  public TranspositionTable getTranspositionTable() {
+    return transpositionTable;
+  }
+
+  /**
+   * Returns the buffer of the moves explored at a given depth of the search, emptied. The buffer
+   * of a depth can be reused as soon as the moves of the previous turn at that depth have all been
+   * explored.
+   * @param depth The depth of the search.
+   * @return The empty buffer.
+   */
+  public MoveBuffer getMoveBuffer(int depth) {
+    if (depth >= moveBuffers.length) {
+      MoveBuffer newMoveBuffers[] = new MoveBuffer[Math.max(2 * moveBuffers.length, depth + 1)];
+      System.arraycopy(moveBuffers, 0, newMoveBuffers, 0, moveBuffers.length);
+      moveBuffers = newMoveBuffers;
+    }
+    MoveBuffer moves = moveBuffers[depth];
+    if (moves == null) {
+      moves = new MoveBuffer();
+      moveBuffers[depth] = moves;
+    }
+    moves.clear();
+    return moves;
+  }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.player;
+
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+
+/**
+ * The game controller with which the AI searches, whatever the controller of the game. It plays by
+ * the rules of {@link GameControllerBasic}, but does not create the possible actions of a player
+ * starting his turn, since the search stops at most of these turns. It marks them with
+ * {@link #TURN_MOVES} instead, and the search generates their moves with {@link #generateMoves} in
+ * buffers it reuses, see {@link AiSearchBuffers}. The controller holds no state, so all the
+ * searches share the same one.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+class AiSearchController extends GameControllerBasic {
+
+  /**
+   * The possible actions of a player starting his turn, whose moves have not been generated. It
+   * holds no action and is never modified.
+   */
+  static final PossibleActions TURN_MOVES = new PossibleActions();
+
+  static final AiSearchController INSTANCE = new AiSearchController();
+
+  private AiSearchController() {
+    // The search never starts a game, so it needs no shuffler.
+    super(null);
+  }
+
+  @Override
+  protected PossibleActions createTurnPossibleActions(GameState gameState) {
+    return TURN_MOVES;
+  }
+}
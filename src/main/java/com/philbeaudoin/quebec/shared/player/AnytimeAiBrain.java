@@ -0,0 +1,40 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.player;
+
+import com.philbeaudoin.quebec.shared.game.GameController;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.state.GameState;
+
+/**
+ * The brain of an artificial intelligence that can be interrupted, returning the best move found
+ * so far when its time is up.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public interface AnytimeAiBrain extends AiBrain {
+  /**
+   * Returns the move to make, for the current player, given a game state. The search stops once
+   * the deadline is reached, the brain only exceeds it by the time needed to find a first move.
+   * @param gameController The game controller.
+   * @param gameState The game state.
+   * @param deadlineMillis The time at which a move must be returned, as given by
+   *     {@link System#currentTimeMillis()}.
+   * @return The move to make.
+   */
+  GameAction getMove(GameController gameController, GameState gameState, long deadlineMillis);
+}
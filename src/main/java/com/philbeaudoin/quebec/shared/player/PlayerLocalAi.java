@@ -43,6 +43,13 @@ public class PlayerLocalAi extends PlayerBase {
   private PlayerLocalAi() {
   }
 
+  /**
+   * @return The brain of the artificial intelligence.
+   */
+  public AiBrain getAiBrain() {
+    return aiBrain;
+  }
+
   @Override
   public <T> T accept(PlayerVisitor<T> visitor) {
     return visitor.visit(this);
@@ -59,4 +66,5 @@ public class PlayerLocalAi extends PlayerBase {
     assert gameState.getCurrentPlayer().getColor() == getColor();
     return aiBrain.getMove(gameController, gameState);
   }
+
 }
@@ -58,14 +58,22 @@ public class PlayerState implements Serializable {
    * @param other The player state to copy.
    */
   public PlayerState(PlayerState other) {
-    this.player = other.player;
-    this.nbPassiveCubes = other.nbPassiveCubes;
-    this.nbActiveCubes = other.nbActiveCubes;
-    this.currentPlayer = other.currentPlayer;
-    this.holdingArchitect = other.holdingArchitect;
-    this.holdingNeutralArchitect = other.holdingNeutralArchitect;
-    this.leaderCard = other.leaderCard;
-    this.score = other.score;
+    other.copyInto(this);
+  }
+
+  /**
+   * Copies this player state into another one, without allocating.
+   * @param target The player state to overwrite.
+   */
+  public void copyInto(PlayerState target) {
+    target.player = player;
+    target.nbPassiveCubes = nbPassiveCubes;
+    target.nbActiveCubes = nbActiveCubes;
+    target.currentPlayer = currentPlayer;
+    target.holdingArchitect = holdingArchitect;
+    target.holdingNeutralArchitect = holdingNeutralArchitect;
+    target.leaderCard = leaderCard;
+    target.score = score;
   }
 
   /**
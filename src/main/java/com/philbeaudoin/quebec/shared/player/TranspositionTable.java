@@ -0,0 +1,103 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.player;
+
+import java.util.Arrays;
+
+/**
+ * A bounded table of values computed by the AI for positions identified by a hash, like the one
+ * of {@link com.philbeaudoin.quebec.shared.game.state.ZobristHash}. The table is made of buckets
+ * of two entries: a new value goes in the first entry of its bucket, the value that was there
+ * moves to the second entry and the oldest one is dropped. A value that is found moves back to
+ * the first entry, so values that are often used stay in the table.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class TranspositionTable {
+
+  private static final long EMPTY = 0;
+
+  private final long keys[];
+  private final double values[];
+  private final int bucketMask;
+
+  /**
+   * Creates a transposition table.
+   * @param log2NbBuckets The base 2 logarithm of the number of buckets. The table holds twice
+   *     as many values.
+   */
+  public TranspositionTable(int log2NbBuckets) {
+    int nbBuckets = 1 << log2NbBuckets;
+    keys = new long[2 * nbBuckets];
+    values = new double[2 * nbBuckets];
+    bucketMask = nbBuckets - 1;
+  }
+
+  /**
+   * Looks up the value for a hash.
+   * @param hash The hash.
+   * @return The value stored for this hash, or {@link Double#NaN} if there is none.
+   */
+  public double get(long hash) {
+    long key = keyForHash(hash);
+    int index = indexForKey(key);
+    if (keys[index] == key) {
+      return values[index];
+    }
+    if (keys[index + 1] == key) {
+      double value = values[index + 1];
+      keys[index + 1] = keys[index];
+      values[index + 1] = values[index];
+      keys[index] = key;
+      values[index] = value;
+      return value;
+    }
+    return Double.NaN;
+  }
+
+  /**
+   * Stores the value for a hash, replacing the least recently used value of its bucket.
+   * @param hash The hash.
+   * @param value The value.
+   */
+  public void put(long hash, double value) {
+    long key = keyForHash(hash);
+    int index = indexForKey(key);
+    if (keys[index] != key) {
+      keys[index + 1] = keys[index];
+      values[index + 1] = values[index];
+      keys[index] = key;
+    }
+    values[index] = value;
+  }
+
+  /**
+   * Removes all the values from the table.
+   */
+  public void clear() {
+    Arrays.fill(keys, EMPTY);
+  }
+
+  private static long keyForHash(long hash) {
+    // The empty key cannot be used.
+    return hash == EMPTY ? 1 : hash;
+  }
+
+  private int indexForKey(long key) {
+    return 2 * ((int) (key >>> 32) & bucketMask);
+  }
+}
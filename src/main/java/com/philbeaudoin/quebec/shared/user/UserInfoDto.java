@@ -1,8 +1,12 @@
 package com.philbeaudoin.quebec.shared.user;
 
+import java.io.Serializable;
+
 import com.google.gwt.user.client.rpc.IsSerializable;
 
-public class UserInfoDto implements UserInfo, IsSerializable {
+// Also Serializable so that the server can keep a copy of the players along with a game.
+@SuppressWarnings("serial")
+public class UserInfoDto implements UserInfo, IsSerializable, Serializable {
 
   private long id;
   private String googleId;
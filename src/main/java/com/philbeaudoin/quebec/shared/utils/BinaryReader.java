@@ -0,0 +1,140 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.utils;
+
+/**
+ * Reads values from an array of bytes written by a {@link BinaryWriter}. Reading past the end of
+ * the array or a malformed varint throws an {@link IllegalArgumentException}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class BinaryReader {
+
+  private final byte bytes[];
+  private int position;
+
+  /**
+   * Creates a reader starting at the beginning of an array of bytes.
+   * @param bytes The bytes to read. They are not copied and must not be modified while reading.
+   */
+  public BinaryReader(byte bytes[]) {
+    this.bytes = bytes;
+  }
+
+  /**
+   * Reads a single byte.
+   * @return The byte, between 0 and 255.
+   */
+  public int readByte() {
+    if (position >= bytes.length) {
+      throw new IllegalArgumentException("Unexpected end of data.");
+    }
+    return bytes[position++] & 0xff;
+  }
+
+  /**
+   * Reads a boolean written by {@link BinaryWriter#writeBoolean}.
+   * @return The boolean.
+   */
+  public boolean readBoolean() {
+    return readByte() != 0;
+  }
+
+  /**
+   * Reads an int written by {@link BinaryWriter#writeVarInt}.
+   * @return The int.
+   */
+  public int readVarInt() {
+    int result = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int value = readByte();
+      result |= (value & 0x7f) << shift;
+      if ((value & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint.");
+  }
+
+  /**
+   * Reads a long written by {@link BinaryWriter#writeVarLong}.
+   * @return The long.
+   */
+  public long readVarLong() {
+    long result = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      int value = readByte();
+      result |= (long) (value & 0x7f) << shift;
+      if ((value & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint.");
+  }
+
+  /**
+   * Reads a string written by {@link BinaryWriter#writeString}.
+   * @return The string, can be null.
+   */
+  public String readString() {
+    int length = readVarInt() - 1;
+    if (length < 0) {
+      return null;
+    }
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; ++i) {
+      builder.append((char) readVarInt());
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Reads an array of bytes written by {@link BinaryWriter#writeBytes}.
+   * @return The newly allocated array of bytes.
+   */
+  public byte[] readBytes() {
+    int length = readVarInt();
+    if (length < 0 || length > bytes.length - position) {
+      throw new IllegalArgumentException("Invalid length: " + length);
+    }
+    byte result[] = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      result[i] = (byte) readByte();
+    }
+    return result;
+  }
+
+  /**
+   * Reads an index written as a varint, checking that it is in range.
+   * @param bound The number of valid indices.
+   * @return The index, between 0 and {@code bound - 1}.
+   */
+  public int readIndex(int bound) {
+    int index = readVarInt();
+    if (index < 0 || index >= bound) {
+      throw new IllegalArgumentException("Index out of range: " + index);
+    }
+    return index;
+  }
+
+  /**
+   * @return True if all the bytes have been read.
+   */
+  public boolean isAtEnd() {
+    return position == bytes.length;
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.utils;
+
+/**
+ * Writes values to a growable array of bytes. Integers are written as varints: 7 bits per byte,
+ * low bits first, the high bit of a byte being set when more bytes follow. Small positive values
+ * therefore take a single byte. Strings are written as their length followed by their characters.
+ * See {@link BinaryReader} to read them back.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class BinaryWriter {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private byte bytes[];
+  private int size;
+
+  /**
+   * Creates an empty writer.
+   */
+  public BinaryWriter() {
+    bytes = new byte[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Writes a single byte.
+   * @param value The byte to write, only the 8 low bits are kept.
+   */
+  public void writeByte(int value) {
+    if (size == bytes.length) {
+      byte newBytes[] = new byte[2 * bytes.length];
+      System.arraycopy(bytes, 0, newBytes, 0, size);
+      bytes = newBytes;
+    }
+    bytes[size++] = (byte) value;
+  }
+
+  /**
+   * Writes a boolean as a single byte.
+   * @param value The boolean to write.
+   */
+  public void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  /**
+   * Writes an int as a varint. Negative values are valid but take five bytes.
+   * @param value The int to write.
+   */
+  public void writeVarInt(int value) {
+    while ((value & ~0x7f) != 0) {
+      writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    writeByte(value);
+  }
+
+  /**
+   * Writes a long as a varint. Negative values are valid but take ten bytes.
+   * @param value The long to write.
+   */
+  public void writeVarLong(long value) {
+    while ((value & ~0x7fL) != 0) {
+      writeByte((int) (value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    writeByte((int) value);
+  }
+
+  /**
+   * Writes a string, or null.
+   * @param value The string to write, can be null.
+   */
+  public void writeString(String value) {
+    if (value == null) {
+      writeVarInt(0);
+      return;
+    }
+    int length = value.length();
+    writeVarInt(length + 1);
+    for (int i = 0; i < length; ++i) {
+      writeVarInt(value.charAt(i));
+    }
+  }
+
+  /**
+   * Writes an array of bytes, preceded by its length.
+   * @param value The bytes to write.
+   */
+  public void writeBytes(byte value[]) {
+    writeVarInt(value.length);
+    for (int i = 0; i < value.length; ++i) {
+      writeByte(value[i]);
+    }
+  }
+
+  /**
+   * @return The number of bytes written so far.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a copy of the bytes written so far.
+   * @return The newly allocated array of bytes.
+   */
+  public byte[] toByteArray() {
+    byte result[] = new byte[size];
+    System.arraycopy(bytes, 0, result, 0, size);
+    return result;
+  }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2013 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.server.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MappedRecordLog}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class MappedRecordLogTest {
+
+  // The length and the CRC-32 that precede each record.
+  private static final int HEADER_SIZE = 8;
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("records", ".log");
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+    new File(file.getPath() + ".new").delete();
+  }
+
+  @Test
+  public void recordsAreReadAfterReopening() throws IOException {
+    MappedRecordLog log = new MappedRecordLog(file);
+    log.append(record(1, 10));
+    log.append(record(2, 20));
+    log.close();
+
+    List<byte[]> records = new MappedRecordLog(file).readAll();
+    assertEquals(2, records.size());
+    assertArrayEquals(record(1, 10), records.get(0));
+    assertArrayEquals(record(2, 20), records.get(1));
+  }
+
+  @Test
+  public void truncatedTailIsDroppedOnReopening() throws IOException {
+    MappedRecordLog log = new MappedRecordLog(file);
+    log.append(record(1, 10));
+    log.append(record(2, 20));
+    long size = log.size();
+    log.close();
+    setLength(size - 5);
+
+    log = new MappedRecordLog(file);
+    assertEquals(1, log.readAll().size());
+    // The next record goes where the dropped one was.
+    log.append(record(3, 30));
+    log.close();
+    List<byte[]> records = new MappedRecordLog(file).readAll();
+    assertEquals(2, records.size());
+    assertArrayEquals(record(3, 30), records.get(1));
+  }
+
+  @Test
+  public void corruptTailIsDroppedOnReopening() throws IOException {
+    MappedRecordLog log = new MappedRecordLog(file);
+    log.append(record(1, 10));
+    log.append(record(2, 20));
+    long size = log.size();
+    log.close();
+    flipByte(size - 1);
+
+    log = new MappedRecordLog(file);
+    List<byte[]> records = log.readAll();
+    assertEquals(1, records.size());
+    assertArrayEquals(record(1, 10), records.get(0));
+    assertEquals(size - 20 - HEADER_SIZE, log.size());
+  }
+
+  @Test
+  public void rewriteReplacesTheRecords() throws IOException {
+    MappedRecordLog log = new MappedRecordLog(file);
+    for (int i = 0; i < 10; ++i) {
+      log.append(record(i, 100));
+    }
+    List<byte[]> newRecords = new ArrayList<byte[]>();
+    newRecords.add(record(42, 5));
+    log.rewrite(newRecords, log.size());
+    assertEquals(5 + HEADER_SIZE, log.size());
+    log.append(record(43, 6));
+    log.close();
+
+    List<byte[]> records = new MappedRecordLog(file).readAll();
+    assertEquals(2, records.size());
+    assertArrayEquals(record(42, 5), records.get(0));
+    assertArrayEquals(record(43, 6), records.get(1));
+  }
+
+  @Test
+  public void rewriteKeepsTheRecordsAppendedAfterTheSnapshot() throws IOException {
+    MappedRecordLog log = new MappedRecordLog(file);
+    log.append(record(1, 100));
+    long from = log.size();
+    log.append(record(2, 20));
+    log.append(record(3, 30));
+    List<byte[]> newRecords = new ArrayList<byte[]>();
+    newRecords.add(record(42, 5));
+    log.rewrite(newRecords, from);
+    assertEquals(5 + 20 + 30 + 3 * HEADER_SIZE, log.size());
+    log.append(record(4, 40));
+    log.close();
+
+    List<byte[]> records = new MappedRecordLog(file).readAll();
+    assertEquals(4, records.size());
+    assertArrayEquals(record(42, 5), records.get(0));
+    assertArrayEquals(record(2, 20), records.get(1));
+    assertArrayEquals(record(3, 30), records.get(2));
+    assertArrayEquals(record(4, 40), records.get(3));
+  }
+
+  @Test
+  public void failedRewriteLeavesTheLogUsable() throws IOException {
+    MappedRecordLog log = new MappedRecordLog(file);
+    log.append(record(1, 10));
+    // The new file cannot be written where there is a directory.
+    new File(file.getPath() + ".new").mkdir();
+    List<byte[]> newRecords = new ArrayList<byte[]>();
+    newRecords.add(record(42, 5));
+    try {
+      log.rewrite(newRecords, log.size());
+      fail("The rewrite should have failed.");
+    } catch (RuntimeException e) {
+      // Expected.
+    }
+    log.append(record(2, 20));
+    log.close();
+
+    List<byte[]> records = new MappedRecordLog(file).readAll();
+    assertEquals(2, records.size());
+    assertArrayEquals(record(1, 10), records.get(0));
+    assertArrayEquals(record(2, 20), records.get(1));
+  }
+
+  @Test
+  public void transactionWithACorruptRecordIsNotReplayed() throws IOException {
+    MappedRecordLog log = new MappedRecordLog(file);
+    final InMemoryGlobalStringRepository repository = new InMemoryGlobalStringRepository(log);
+    repository.saveGlobalString(new GlobalStringEntity(1, "kept"));
+    repository.transact(new RepositoryWork<Void>() {
+      @Override
+      public Void run() {
+        repository.saveGlobalString(new GlobalStringEntity(2, "dropped"));
+        repository.saveGlobalString(new GlobalStringEntity(3, "dropped"));
+        return null;
+      }
+    });
+    long size = log.size();
+    log.close();
+    flipByte(size - 1);
+
+    InMemoryGlobalStringRepository reopened =
+        new InMemoryGlobalStringRepository(new MappedRecordLog(file));
+    assertEquals("kept", reopened.loadGlobalString(1).getString());
+    assertNull(reopened.loadGlobalString(2));
+    assertNull(reopened.loadGlobalString(3));
+  }
+
+  private static byte[] record(int value, int length) {
+    byte result[] = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      result[i] = (byte) (value + i);
+    }
+    return result;
+  }
+
+  private void setLength(long length) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      randomAccessFile.setLength(length);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  private void flipByte(long position) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      randomAccessFile.seek(position);
+      int value = randomAccessFile.read();
+      randomAccessFile.seek(position);
+      randomAccessFile.write(value ^ 0xff);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+}
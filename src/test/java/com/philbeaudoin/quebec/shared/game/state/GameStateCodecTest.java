@@ -0,0 +1,163 @@
+/**
+ * Copyright 2012 Philippe Beaudoin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.philbeaudoin.quebec.shared.game.state;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.philbeaudoin.quebec.shared.PlayerColor;
+import com.philbeaudoin.quebec.shared.ScoringPhase;
+import com.philbeaudoin.quebec.shared.game.GameControllerBasic;
+import com.philbeaudoin.quebec.shared.game.action.ActionPerformScoringPhase;
+import com.philbeaudoin.quebec.shared.game.action.GameAction;
+import com.philbeaudoin.quebec.shared.game.action.PossibleActions;
+import com.philbeaudoin.quebec.shared.game.statechange.GameStateChange;
+import com.philbeaudoin.quebec.shared.player.AiBrainSimple;
+import com.philbeaudoin.quebec.shared.player.Player;
+import com.philbeaudoin.quebec.shared.player.PlayerLocalAi;
+import com.philbeaudoin.quebec.shared.player.PlayerLocalUser;
+
+/**
+ * Tests for {@link GameStateCodec}.
+ *
+ * @author Philippe Beaudoin <philippe.beaudoin@gmail.com>
+ */
+public class GameStateCodecTest {
+
+  private static final long SEED = 1;
+  private static final int MAX_MOVES = 1000;
+
+  private GameControllerBasic gameController;
+  private GameState gameState;
+
+  @Before
+  public void setUp() {
+    gameController = new GameControllerBasic(new JavaRandomShuffler(SEED));
+    gameState = new GameState();
+    List<Player> players = new ArrayList<Player>();
+    players.add(new PlayerLocalUser(PlayerColor.BLACK, "User"));
+    for (int i = 1; i < 4; ++i) {
+      players.add(new PlayerLocalAi(PlayerColor.NORMAL[i], "AI " + i, new AiBrainSimple()));
+    }
+    gameController.initGame(gameState, players);
+  }
+
+  @Test
+  public void encodedStatesDecodeToTheSameStateDuringAGame() {
+    int nbEncodedStates = 0;
+    for (int nbMoves = 0; nbMoves < MAX_MOVES; ++nbMoves) {
+      if (GameStateCodec.canEncode(gameState)) {
+        byte encoded[] = GameStateCodec.encode(gameState);
+        GameState decoded = GameStateCodec.decode(encoded);
+        assertArrayEquals("Move " + nbMoves, encoded, GameStateCodec.encode(decoded));
+        assertEquals("Move " + nbMoves, ZobristHash.hash(gameState), ZobristHash.hash(decoded));
+        nbEncodedStates++;
+      }
+      if (!playMove()) {
+        assertTrue(nbEncodedStates > nbMoves / 2);
+        return;
+      }
+    }
+    fail("The game did not finish.");
+  }
+
+  @Test
+  public void truncatedStatesAreRejected() {
+    playMoves(20);
+    byte encoded[] = GameStateCodec.encode(gameState);
+    for (int length = 0; length < encoded.length; ++length) {
+      assertRejected(Arrays.copyOf(encoded, length));
+    }
+  }
+
+  @Test
+  public void trailingDataIsRejected() {
+    byte encoded[] = GameStateCodec.encode(gameState);
+    assertRejected(Arrays.copyOf(encoded, encoded.length + 1));
+  }
+
+  @Test
+  public void unknownFormatVersionIsRejected() {
+    byte encoded[] = GameStateCodec.encode(gameState);
+    encoded[0] = (byte) (GameStateCodec.FORMAT_VERSION + 1);
+    assertRejected(encoded);
+  }
+
+  @Test
+  public void invalidCenturyIsRejected() {
+    byte encoded[] = GameStateCodec.encode(gameState);
+    // The format version, then the game id, then the century.
+    int centuryIndex = 1;
+    while ((encoded[centuryIndex] & 0x80) != 0) {
+      centuryIndex++;
+    }
+    encoded[centuryIndex + 1] = 4;
+    assertRejected(encoded);
+  }
+
+  /**
+   * Plays the next move of the game, performing the scoring phases.
+   * @return False if the game is finished.
+   */
+  private boolean playMove() {
+    PossibleActions possibleActions = gameState.getPossibleActions();
+    GameAction gameAction = possibleActions.getAction(0);
+    if (gameAction instanceof ActionPerformScoringPhase) {
+      if (((ActionPerformScoringPhase) gameAction).getScoringPhase() ==
+          ScoringPhase.FINISH_GAME) {
+        return false;
+      }
+    } else {
+      Player player = gameState.getCurrentPlayer().getPlayer();
+      gameAction = player instanceof PlayerLocalAi ?
+          ((PlayerLocalAi) player).getMove(gameController, gameState) :
+          possibleActions.getAction(possibleActions.getNbActions() - 1);
+    }
+    GameStateChange gameStateChange = gameAction.execute(gameController, gameState);
+    gameState.setPossibleActions(null);
+    gameStateChange.apply(gameController, gameState);
+    return true;
+  }
+
+  /**
+   * Plays a number of moves, then more until the game state can be encoded.
+   * @param nbMoves The minimum number of moves to play.
+   */
+  private void playMoves(int nbMoves) {
+    for (int i = 0; i < nbMoves || !GameStateCodec.canEncode(gameState); ++i) {
+      assertTrue(playMove());
+    }
+  }
+
+  private static void assertRejected(byte bytes[]) {
+    try {
+      GameStateCodec.decode(bytes);
+      fail("Decoded " + bytes.length + " invalid bytes.");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+}